@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import com.ibm.team.git.build.hjplugin.util.ExpiringCache;
+
+/**
+ * What RTC said about build definitions, which hardly ever changes: whether a
+ * build definition id is valid and the id of the build definition with a
+ * given item id. Entries are kept per server and user.
+ *
+ * An invalid build definition is remembered for a shorter time, so a
+ * definition created after a build failed is picked up soon. Entries are
+ * invalidated when creating a build result for the definition fails and
+ * refreshed when the build definition is checked from the job configuration.
+ *
+ * The settings are read from system properties prefixed with the name of this
+ * class: <code>maxEntries</code>, <code>ttl</code> and
+ * <code>negativeTtl</code> (in seconds).
+ */
+final class BuildDefinitionCache {
+
+	private static final String PROPERTY_PREFIX = BuildDefinitionCache.class.getName() + "."; //$NON-NLS-1$
+
+	private static final int MAX_ENTRIES = Math.max(0, Integer.getInteger(PROPERTY_PREFIX + "maxEntries", 1000)); //$NON-NLS-1$
+
+	private static final long TTL_MILLIS = TimeUnit.SECONDS.toMillis(
+			Integer.getInteger(PROPERTY_PREFIX + "ttl", 3600)); //$NON-NLS-1$
+
+	private static final long NEGATIVE_TTL_MILLIS = TimeUnit.SECONDS.toMillis(
+			Integer.getInteger(PROPERTY_PREFIX + "negativeTtl", 60)); //$NON-NLS-1$
+
+	private static final BuildDefinitionCache INSTANCE = new BuildDefinitionCache(MAX_ENTRIES, TTL_MILLIS,
+			NEGATIVE_TTL_MILLIS, System::currentTimeMillis);
+
+	/**
+	 * A <code>null</code> value marks an invalid build definition
+	 */
+	private final ExpiringCache<String, Boolean> validDefinitions;
+
+	private final ExpiringCache<String, String> idsByItemId;
+
+	/**
+	 * @param maxEntries The maximum number of entries of each cache
+	 * @param ttlMillis How long an answer is kept
+	 * @param negativeTtlMillis How long an invalid build definition is
+	 *            remembered
+	 * @param clock The current time in milliseconds
+	 */
+	BuildDefinitionCache(int maxEntries, long ttlMillis, long negativeTtlMillis, LongSupplier clock) {
+		this.validDefinitions = new ExpiringCache<String, Boolean>(maxEntries, ttlMillis, negativeTtlMillis, clock);
+		this.idsByItemId = new ExpiringCache<String, String>(maxEntries, ttlMillis, negativeTtlMillis, clock);
+	}
+
+	/**
+	 * @return The cache of all servers
+	 */
+	static BuildDefinitionCache get() {
+		return INSTANCE;
+	}
+
+	/**
+	 * @return <code>null</code> if it is not known whether the build
+	 *         definition is valid
+	 */
+	Boolean isValid(String serverURI, String userId, String buildDefinition) {
+		ExpiringCache.Entry<Boolean> entry = validDefinitions.get(key(serverURI, userId, buildDefinition));
+		if (entry == null) {
+			return null;
+		}
+		return entry.getValue() != null;
+	}
+
+	void setValid(String serverURI, String userId, String buildDefinition, boolean valid) {
+		validDefinitions.put(key(serverURI, userId, buildDefinition), valid ? Boolean.TRUE : null);
+	}
+
+	/**
+	 * Forget whether the build definition is valid
+	 */
+	void invalidate(String serverURI, String userId, String buildDefinition) {
+		validDefinitions.invalidate(key(serverURI, userId, buildDefinition));
+	}
+
+	/**
+	 * @return The id of the build definition, <code>null</code> if it is not
+	 *         cached
+	 */
+	String getId(String serverURI, String userId, String itemId) {
+		ExpiringCache.Entry<String> entry = idsByItemId.get(key(serverURI, userId, itemId));
+		return entry == null ? null : entry.getValue();
+	}
+
+	void putId(String serverURI, String userId, String itemId, String id) {
+		idsByItemId.put(key(serverURI, userId, itemId), id);
+	}
+
+	ExpiringCache<String, Boolean> getValidityCache() {
+		return validDefinitions;
+	}
+
+	ExpiringCache<String, String> getIdCache() {
+		return idsByItemId;
+	}
+
+	private static String key(String serverURI, String userId, String name) {
+		return RTCUtils.formatURI(serverURI) + " " + userId + " " + name; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
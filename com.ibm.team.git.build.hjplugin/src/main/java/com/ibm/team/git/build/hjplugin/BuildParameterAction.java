@@ -10,6 +10,12 @@
  *******************************************************************************/
 package com.ibm.team.git.build.hjplugin;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.ibm.team.git.build.hjplugin.scm.ChangeSetKey;
+
 import hudson.model.InvisibleAction;
 
 /**
@@ -18,7 +24,7 @@ import hudson.model.InvisibleAction;
  *
  */
 public class BuildParameterAction extends InvisibleAction {
-	private static final String[] EMPTY_ARRAY = new String[0];
+	private static final long[] EMPTY_KEYS = new long[0];
 	private final String rtcURL;
 	private  String rtcBuildUUID;
 	private final boolean shouldAnnotate;
@@ -27,7 +33,19 @@ public class BuildParameterAction extends InvisibleAction {
 	private String trackbuildwi;
 	private final int timeout;
 	private String[] workitems;
-	private String[] changeSetIds = new String[0];
+	/**
+	 * Only read from the build.xml of older builds, converted to
+	 * changeSetKeys by {@link #readResolve()}
+	 */
+	@Deprecated
+	private String[] changeSetIds;
+	/**
+	 * The {@link ChangeSetKey}s of the change sets, two longs per key
+	 */
+	private long[] changeSetKeys = EMPTY_KEYS;
+	private String[] workItemDetails;
+	private transient volatile Map<String, String> workItemDetailsById;
+	private transient volatile long workItemDetailsRetryAt;
 
 	/**
 	 * @param credentialsId
@@ -51,7 +69,6 @@ public class BuildParameterAction extends InvisibleAction {
 		this.ownsBuildCycle = ownsBuildCycle;
 		this.trackbuildwi = trackbuildwi;
 		this.timeout = timeout;
-		this.changeSetIds = new String[0];
 	}
 	
 	/**
@@ -125,32 +142,187 @@ public class BuildParameterAction extends InvisibleAction {
 		this.workitems = workitems;
 	}
 
+	/**
+	 * Convert the change set ids of older builds to keys
+	 */
+	protected Object readResolve() {
+		if (changeSetIds != null) {
+			if (changeSetKeys == null || changeSetKeys.length == 0) {
+				changeSetKeys = toChangeSetKeys(changeSetIds);
+			}
+			changeSetIds = null;
+		}
+		if (changeSetKeys == null) {
+			changeSetKeys = EMPTY_KEYS;
+		}
+		return this;
+	}
+
 	/**
 	 * Set the change set Ids associated with this 
 	 * buildResultAction
 	 * 
 	 * @param changeSetIds An array of change set ids
+	 * @deprecated use {@link #setChangeSetKeys(ChangeSetKey[])}
 	 */
+	@Deprecated
 	public void setChangeSetIds(String[] changeSetIds) {
 		if (changeSetIds != null) {
-			this.changeSetIds = changeSetIds;
+			this.changeSetKeys = toChangeSetKeys(changeSetIds);
 		}
 	}
-	
+
+	/**
+	 * Set the keys of the change sets associated with this action
+	 * 
+	 * @param keys The keys of the change sets
+	 */
+	public void setChangeSetKeys(ChangeSetKey[] keys) {
+		if (keys != null) {
+			this.changeSetKeys = ChangeSetKey.pack(keys);
+		}
+	}
+
 	/**
 	 * Return the list of changeSetIds associated with this 
 	 * BuildResultAction
 	 * 
-	 * This can be null for old builds which don't have the 
-	 * change set id info. I am trying to set it to non nul in 
-	 * constructor but it has no effect.
+	 * Only the keys of the change sets are kept, so the ids are the
+	 * {@link ChangeSetKey#toString()} of the keys and can only be compared
+	 * with each other.
 	 * 
 	 * @return a list of changeSetIds. never <code>null</code>
+	 * @deprecated use {@link #getChangeSetKeys()}
 	 */
+	@Deprecated
 	public String[] getChangeSetIds() {
-		if (changeSetIds == null) {
-			return EMPTY_ARRAY;
+		long[] packed = getPackedChangeSetKeys();
+		String[] changeSetIds = new String[packed.length / 2];
+		for (int i = 0; i < changeSetIds.length; i++) {
+			changeSetIds[i] = ChangeSetKey.unpack(packed, i).toString();
 		}
 		return changeSetIds;
 	}
+
+	/**
+	 * Return the keys of the change sets associated with this action
+	 * 
+	 * @return the keys of the change sets. never <code>null</code>
+	 */
+	public ChangeSetKey[] getChangeSetKeys() {
+		long[] packed = getPackedChangeSetKeys();
+		ChangeSetKey[] keys = new ChangeSetKey[packed.length / 2];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = ChangeSetKey.unpack(packed, i);
+		}
+		return keys;
+	}
+
+	/**
+	 * @return the keys of the change sets packed by
+	 *         {@link ChangeSetKey#pack(ChangeSetKey[])}. Must not be modified.
+	 */
+	long[] getPackedChangeSetKeys() {
+		return changeSetKeys == null ? EMPTY_KEYS : changeSetKeys;
+	}
+
+	/**
+	 * @param packed The keys of the change sets packed by
+	 *            {@link ChangeSetKey#pack(ChangeSetKey[])}
+	 */
+	void setPackedChangeSetKeys(long[] packed) {
+		this.changeSetKeys = packed;
+	}
+
+	private static long[] toChangeSetKeys(String[] changeSetIds) {
+		ChangeSetKey[] keys = new ChangeSetKey[changeSetIds.length];
+		for (int i = 0; i < changeSetIds.length; i++) {
+			keys[i] = ChangeSetKey.ofChangeSetId(changeSetIds[i]);
+		}
+		return ChangeSetKey.pack(keys);
+	}
+
+	/**
+	 * Set the details of the work items, as returned by RTC
+	 * ("id: summary"), used to annotate the change log
+	 * 
+	 * @param workItemDetails The details of the work items
+	 */
+	public void setWorkItemDetails(String[] workItemDetails) {
+		this.workItemDetails = workItemDetails;
+		this.workItemDetailsById = null;
+	}
+
+	/**
+	 * @return The details of the work items, <code>null</code> for builds
+	 *         that did not record them
+	 */
+	public String[] getWorkItemDetails() {
+		return workItemDetails;
+	}
+
+	/**
+	 * @return The details of the work items keyed by work item id. 
+	 *         <code>null</code> if they were not recorded by the build 
+	 *         and not cached by {@link #cacheWorkItemDetails(Map)}
+	 */
+	Map<String, String> getWorkItemDetailsById() {
+		Map<String, String> detailsById = workItemDetailsById;
+		if (detailsById == null && workItemDetails != null) {
+			detailsById = toWorkItemDetailsById(workItemDetails);
+			workItemDetailsById = detailsById;
+		}
+		return detailsById;
+	}
+
+	/**
+	 * Keep the details of the work items of an older build in memory, so they
+	 * are only requested once
+	 * 
+	 * @param detailsById The details keyed by work item id
+	 */
+	void cacheWorkItemDetails(Map<String, String> detailsById) {
+		this.workItemDetailsById = detailsById;
+	}
+
+	/**
+	 * Remember that requesting the details of the work items of an older
+	 * build failed, so they are not requested again for every change log
+	 * entry while RTC is unavailable
+	 * 
+	 * @param retryAt The time (in milliseconds) from which they may be
+	 *            requested again
+	 */
+	void workItemDetailsFailed(long retryAt) {
+		this.workItemDetailsRetryAt = retryAt;
+	}
+
+	/**
+	 * @param now The current time in milliseconds
+	 * @return <code>false</code> if requesting the details of the work items
+	 *         failed a short while ago
+	 */
+	boolean mayRequestWorkItemDetails(long now) {
+		return now >= workItemDetailsRetryAt;
+	}
+
+	/**
+	 * @param workItemDetails The details as returned by RTC ("id: summary")
+	 * @return The details keyed by work item id
+	 */
+	static Map<String, String> toWorkItemDetailsById(String[] workItemDetails) {
+		Map<String, String> detailsById = new HashMap<String, String>();
+		for (String wiInfo : workItemDetails) {
+			if (!RTCUtils.IsNullOrEmpty(wiInfo)) {
+				int index = wiInfo.indexOf(':');
+				if (index != -1) {
+					String wi = wiInfo.substring(0, index).trim();
+					if (!detailsById.containsKey(wi)) {
+						detailsById.put(wi, wiInfo);
+					}
+				}
+			}
+		}
+		return Collections.unmodifiableMap(detailsById);
+	}
 }
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.ibm.team.git.build.hjplugin.scm.ChangeSetData;
+import com.ibm.team.git.build.hjplugin.scm.ChangeSetKey;
+
+import hudson.model.Run;
+
+/**
+ * Index from the change sets of a build to the {@link BuildParameterAction}
+ * that handled them, so the action of a change log entry is found in constant
+ * time.
+ *
+ * The index of a build is built on first use and kept in memory (not
+ * persisted) until the build is garbage collected. It is rebuilt when the
+ * actions of the build or their change sets change.
+ */
+public final class ChangeSetActionIndex {
+
+	private static final Map<Run<?, ?>, ChangeSetActionIndex> INDEXES = new WeakHashMap<Run<?, ?>, ChangeSetActionIndex>();
+
+	private final BuildParameterAction[] actions;
+	private final long[][] changeSetKeys;
+	private final Map<ChangeSetKey, BuildParameterAction> actionsByChangeSet;
+
+	/**
+	 * @param actions The actions of a build, in order
+	 */
+	public ChangeSetActionIndex(List<BuildParameterAction> actions) {
+		this.actions = actions.toArray(new BuildParameterAction[0]);
+		this.changeSetKeys = new long[this.actions.length][];
+		int size = 0;
+		for (int i = 0; i < this.actions.length; i++) {
+			changeSetKeys[i] = this.actions[i].getPackedChangeSetKeys();
+			size += changeSetKeys[i].length / 2;
+		}
+		this.actionsByChangeSet = new HashMap<ChangeSetKey, BuildParameterAction>(size * 4 / 3 + 1);
+		for (int i = 0; i < this.actions.length; i++) {
+			for (int k = 0; k < changeSetKeys[i].length / 2; k++) {
+				// the first action that handled a change set wins
+				actionsByChangeSet.putIfAbsent(ChangeSetKey.unpack(changeSetKeys[i], k), this.actions[i]);
+			}
+		}
+	}
+
+	/**
+	 * Find the action that handled a change set of a build
+	 *
+	 * @param build The build
+	 * @param csData The change set
+	 * @return The action, <code>null</code> if none of the actions of the build
+	 *         handled the change set
+	 */
+	public static BuildParameterAction find(Run<?, ?> build, ChangeSetData csData) {
+		return getIndex(build).get(csData.getChangeSetKey());
+	}
+
+	/**
+	 * @param build The build
+	 * @return The index of the build's current actions
+	 */
+	static ChangeSetActionIndex getIndex(Run<?, ?> build) {
+		List<BuildParameterAction> actions = build.getActions(BuildParameterAction.class);
+		ChangeSetActionIndex index;
+		synchronized (INDEXES) {
+			index = INDEXES.get(build);
+		}
+		if (index == null || !index.isCurrent(actions)) {
+			index = new ChangeSetActionIndex(actions);
+			synchronized (INDEXES) {
+				INDEXES.put(build, index);
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * @param changeSetKey The key of a change set
+	 * @return The first action that handled the change set, <code>null</code>
+	 *         if there is none
+	 */
+	public BuildParameterAction get(ChangeSetKey changeSetKey) {
+		return actionsByChangeSet.get(changeSetKey);
+	}
+
+	/**
+	 * @param currentActions The actions of the build now
+	 * @return <code>true</code> if the index was built from the same actions
+	 *         with the same change sets
+	 */
+	public boolean isCurrent(List<BuildParameterAction> currentActions) {
+		if (currentActions.size() != actions.length) {
+			return false;
+		}
+		for (int i = 0; i < actions.length; i++) {
+			BuildParameterAction action = currentActions.get(i);
+			if (action != actions[i] || action.getPackedChangeSetKeys() != changeSetKeys[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
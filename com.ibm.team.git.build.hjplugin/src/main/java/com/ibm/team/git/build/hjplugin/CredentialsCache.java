@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import com.cloudbees.plugins.credentials.CredentialsProvider;
+import com.cloudbees.plugins.credentials.CredentialsStore;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import com.cloudbees.plugins.credentials.UserCredentialsProvider;
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
+import com.ibm.team.git.build.hjplugin.util.ExpiringCache;
+
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.ItemGroup;
+import hudson.model.Saveable;
+import hudson.model.User;
+import hudson.model.listeners.SaveableListener;
+import jenkins.model.Jenkins;
+
+/**
+ * The credentials {@link RTCLoginInfo} resolved recently, by context (a job,
+ * a build or none), credentials id and server, so the credential stores are
+ * not searched again for every step, listener call, outbox request and change
+ * log rendering of a build.
+ *
+ * The credentials themselves are cached (not only the user id and password),
+ * so their use by a build is still tracked on every lookup. Credentials that
+ * could not be resolved are not cached.
+ *
+ * Entries expire after a short time, and all of them are dropped when the
+ * global credentials, a folder holding credentials or a user with credentials
+ * is saved. Other saves leave them alone. Credentials from external providers
+ * which do not save through Jenkins are picked up when the entries expire.
+ *
+ * The settings are read from system properties prefixed with the name of this
+ * class: <code>maxEntries</code> and <code>ttl</code> (in seconds).
+ * <code>0</code> turns the cache off.
+ */
+public final class CredentialsCache {
+
+	private static final Logger LOGGER = Logger.getLogger(CredentialsCache.class.getName());
+
+	private static final String PROPERTY_PREFIX = CredentialsCache.class.getName() + "."; //$NON-NLS-1$
+
+	private static final int MAX_ENTRIES = Math.max(0, Integer.getInteger(PROPERTY_PREFIX + "maxEntries", 500)); //$NON-NLS-1$
+
+	private static final long TTL_MILLIS = TimeUnit.SECONDS.toMillis(
+			Integer.getInteger(PROPERTY_PREFIX + "ttl", 60)); //$NON-NLS-1$
+
+	private static final ExpiringCache<String, StandardUsernamePasswordCredentials> CREDENTIALS = new ExpiringCache<String, StandardUsernamePasswordCredentials>(
+			MAX_ENTRIES, TTL_MILLIS, 0);
+
+	private CredentialsCache() {
+	}
+
+	/**
+	 * @param context Identifies what the credentials are looked up for
+	 * @return The credentials, <code>null</code> if they are not cached
+	 */
+	static StandardUsernamePasswordCredentials get(String context, String credentialsId, String serverURI) {
+		ExpiringCache.Entry<StandardUsernamePasswordCredentials> entry = CREDENTIALS
+				.get(key(context, credentialsId, serverURI));
+		return entry == null ? null : entry.getValue();
+	}
+
+	static void put(String context, String credentialsId, String serverURI,
+			StandardUsernamePasswordCredentials credentials) {
+		CREDENTIALS.put(key(context, credentialsId, serverURI), credentials);
+	}
+
+	/**
+	 * Forget all the credentials
+	 */
+	static void invalidateAll() {
+		CREDENTIALS.invalidateAll();
+	}
+
+	static ExpiringCache<String, StandardUsernamePasswordCredentials> getCache() {
+		return CREDENTIALS;
+	}
+
+	private static String key(String context, String credentialsId, String serverURI) {
+		return context + "\n" + credentialsId + "\n" + serverURI; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Drops the cached credentials when a credential store may have changed
+	 */
+	@Extension
+	public static final class Invalidator extends SaveableListener {
+
+		@Override
+		public void onChange(Saveable o, XmlFile file) {
+			if (isCredentialStore(o)) {
+				LOGGER.finer("Dropping the cached credentials after " + file + " was saved"); //$NON-NLS-1$ //$NON-NLS-2$
+				invalidateAll();
+			}
+		}
+
+		/**
+		 * @return <code>true</code> if saving the object may have changed
+		 *         credentials: folder credentials are saved with the folder,
+		 *         user credentials with the user
+		 */
+		static boolean isCredentialStore(Saveable o) {
+			if (o instanceof SystemCredentialsProvider) {
+				return true;
+			}
+			if (o instanceof User) {
+				return ((User) o).getProperty(UserCredentialsProvider.UserCredentialsProperty.class) != null;
+			}
+			// the global credentials are not saved with Jenkins
+			if (o instanceof ItemGroup && !(o instanceof Jenkins)) {
+				for (CredentialsStore store : CredentialsProvider.lookupStores((ItemGroup<?>) o)) {
+					if (store.getContext() == o) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+	}
+}
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import com.ibm.team.git.build.hjplugin.scm.ChangeSetData;
+import com.ibm.team.git.build.hjplugin.scm.ChangeSetKey;
+import com.ibm.team.git.build.hjplugin.scm.GitScmUtils;
+import com.ibm.team.git.build.hjplugin.util.WorkItemIdCollector;
+
+import hudson.model.Run;
+
+/**
+ * The commits of a build which were not handled by an earlier
+ * {@link BuildParameterAction} of the build, reduced to what is recorded for
+ * them: the keys of the commits and the ids of the work items they mention.
+ *
+ * The change log is read in a single pass, one commit at a time, so the
+ * commits themselves are never collected.
+ */
+public final class IncludedCommits implements Consumer<ChangeSetData> {
+
+	private static final long[] NO_KEYS = new long[0];
+
+	private final Set<ChangeSetKey> handledKeys;
+	private final WorkItemIdCollector workItemIds = RTCUtils.newWorkItemIdCollector();
+	private long[] changeSetKeys = NO_KEYS;
+	private int commitCount;
+
+	/**
+	 * @param actions The actions whose change sets are skipped
+	 */
+	public IncludedCommits(List<BuildParameterAction> actions) {
+		this.handledKeys = new HashSet<ChangeSetKey>();
+		for (BuildParameterAction action : actions) {
+			long[] packed = action.getPackedChangeSetKeys();
+			for (int i = 0; i < packed.length / 2; i++) {
+				handledKeys.add(ChangeSetKey.unpack(packed, i));
+			}
+		}
+	}
+
+	/**
+	 * Read the commits of a build that none of its
+	 * {@link BuildParameterAction}s handled yet
+	 *
+	 * @param run The build
+	 * @param logger The build log. May be <code>null</code>.
+	 * @return The commits, <code>null</code> if reading the change log failed
+	 *         part way through, so the commits read are not all of them
+	 */
+	public static IncludedCommits scan(Run<?, ?> run, PrintStream logger) {
+		IncludedCommits commits = new IncludedCommits(run.getActions(BuildParameterAction.class));
+		if (!GitScmUtils.visitIncludedCommits(run, logger, commits)) {
+			return null;
+		}
+		return commits;
+	}
+
+	@Override
+	public void accept(ChangeSetData csData) {
+		ChangeSetKey key = csData.getChangeSetKey();
+		if (handledKeys.contains(key)) {
+			return;
+		}
+		if (2 * commitCount == changeSetKeys.length) {
+			changeSetKeys = Arrays.copyOf(changeSetKeys, Math.max(16, 4 * commitCount));
+		}
+		changeSetKeys[2 * commitCount] = key.getHigh();
+		changeSetKeys[2 * commitCount + 1] = key.getLow();
+		commitCount++;
+		workItemIds.add(csData.id, csData.comment);
+	}
+
+	/**
+	 * @return The number of commits
+	 */
+	public int getCommitCount() {
+		return commitCount;
+	}
+
+	/**
+	 * @return The ids of the work items mentioned by the commits, without
+	 *         duplicates, in the order they were first mentioned
+	 */
+	public int[] getWorkItemIds() {
+		return workItemIds.getIds();
+	}
+
+	/**
+	 * @return The ids of the work items mentioned by the commits as strings
+	 */
+	public String[] getWorkItems() {
+		return RTCUtils.toWorkItems(getWorkItemIds());
+	}
+
+	/**
+	 * @return The keys of the commits, packed as by
+	 *         {@link ChangeSetKey#pack(ChangeSetKey[])}
+	 */
+	public long[] getPackedChangeSetKeys() {
+		return Arrays.copyOf(changeSetKeys, 2 * commitCount);
+	}
+}
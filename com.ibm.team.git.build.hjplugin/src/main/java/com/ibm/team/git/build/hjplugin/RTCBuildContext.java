@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.ibm.team.git.build.hjplugin.http.RtcRetryPolicy;
+
+import hudson.model.Run;
+
+/**
+ * What the RTC steps of a running build share: the resolved credentials of
+ * each server, the URLs of the build and the retry budget of its requests.
+ * Each is resolved the first time a step of the build needs it, so
+ * <code>prebuild</code>, <code>perform</code> and every further RTC step of
+ * the build look up the credentials only once.
+ *
+ * The authenticated session of a server and user is not kept here, it is
+ * shared through the session cache of
+ * {@link com.ibm.team.git.build.hjplugin.http.HttpUtils}. Neither is the
+ * display name of the build, which may change while it runs.
+ *
+ * The context of a build is kept in memory (not persisted) and released when
+ * the build is finalized. The credentials are resolved once per build and
+ * credentials id: if they are changed while the build runs, the build keeps
+ * using the ones it resolved first, the next build uses the new ones.
+ */
+final class RTCBuildContext {
+
+	private static final Map<Run<?, ?>, RTCBuildContext> CONTEXTS = new WeakHashMap<Run<?, ?>, RTCBuildContext>();
+
+	/**
+	 * Weak, so the context does not keep its key in {@link #CONTEXTS} alive
+	 */
+	private final WeakReference<Run<?, ?>> build;
+	private final RtcRetryPolicy.Budget retryBudget = RtcRetryPolicy.Budget.forBuild();
+
+	/**
+	 * Guarded by <code>this</code>
+	 */
+	private final Map<String, RTCLoginInfo> loginInfos = new HashMap<String, RTCLoginInfo>();
+	private final Map<String, String> jenkinsRootURLs = new HashMap<String, String>();
+	private String buildURL;
+	private String buildShortName;
+
+	private RTCBuildContext(Run<?, ?> build) {
+		this.build = new WeakReference<Run<?, ?>>(build);
+	}
+
+	/**
+	 * @param build The build
+	 * @return The context of the build, created if it has none yet
+	 */
+	static RTCBuildContext get(Run<?, ?> build) {
+		synchronized (CONTEXTS) {
+			RTCBuildContext context = CONTEXTS.get(build);
+			if (context == null) {
+				context = new RTCBuildContext(build);
+				CONTEXTS.put(build, context);
+			}
+			return context;
+		}
+	}
+
+	/**
+	 * Drop the context of a build that is done
+	 *
+	 * @param build The build
+	 */
+	static void release(Run<?, ?> build) {
+		synchronized (CONTEXTS) {
+			CONTEXTS.remove(build);
+		}
+	}
+
+	/**
+	 * @return The retry budget shared by all the RTC requests of the build
+	 */
+	RtcRetryPolicy.Budget getRetryBudget() {
+		return retryBudget;
+	}
+
+	/**
+	 * Get the credentials for a server, looking them up the first time. The
+	 * use of the credentials is tracked the first time as well. Credentials
+	 * changed after they were looked up are not seen until the next build.
+	 *
+	 * @throws InvalidCredentialsException If the credentials cannot be
+	 *             resolved. Nothing is kept then, so the next call tries
+	 *             again.
+	 */
+	synchronized RTCLoginInfo getLoginInfo(String serverURI, String credentialsId, int timeout)
+			throws InvalidCredentialsException {
+		String key = serverURI + " " + credentialsId + " " + timeout; //$NON-NLS-1$ //$NON-NLS-2$
+		RTCLoginInfo loginInfo = loginInfos.get(key);
+		if (loginInfo == null) {
+			loginInfo = new RTCLoginInfo(build.get(), serverURI, credentialsId, timeout);
+			loginInfos.put(key, loginInfo);
+		}
+		return loginInfo;
+	}
+
+	/**
+	 * @param jenkinsURI The root URI configured in the step, used if Jenkins
+	 *            does not know its own
+	 * @see RTCUtils#getJenkinsRootURL(Run, String, java.io.PrintStream)
+	 */
+	synchronized String getJenkinsRootURL(String jenkinsURI) {
+		String key = jenkinsURI == null ? "" : jenkinsURI; //$NON-NLS-1$
+		if (!jenkinsRootURLs.containsKey(key)) {
+			jenkinsRootURLs.put(key, RTCUtils.getJenkinsRootURL(build.get(), jenkinsURI, null));
+		}
+		return jenkinsRootURLs.get(key);
+	}
+
+	/**
+	 * @see RTCUtils#getBuildURL(Run, java.io.PrintStream)
+	 */
+	synchronized String getBuildURL() {
+		if (buildURL == null) {
+			buildURL = RTCUtils.getBuildURL(build.get(), null);
+		}
+		return buildURL;
+	}
+
+	/**
+	 * @see RTCUtils#getBuildShortName(Run, java.io.PrintStream)
+	 */
+	synchronized String getBuildShortName() {
+		if (buildShortName == null) {
+			buildShortName = RTCUtils.getBuildShortName(build.get(), null);
+		}
+		return buildShortName;
+	}
+}
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin;
+
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hudson.model.BuildBadgeAction;
+import hudson.model.Run;
+
+/**
+ * Badge of a build that shows whether the completion of the build (the
+ * completion of its RTC build results and the comments on its track build
+ * work items) has been delivered to RTC by the {@link RTCOutbox}.
+ */
+public class RTCCompletionAction implements BuildBadgeAction {
+
+	private static final Logger LOGGER = Logger.getLogger(RTCCompletionAction.class.getName());
+
+	private int pending;
+	private int delivered;
+	private int failed;
+
+	/**
+	 * Record that a completion request of the build was queued, adding the
+	 * badge to the build if it does not have one yet
+	 *
+	 * @param run The build
+	 */
+	static void queued(Run<?, ?> run) {
+		RTCCompletionAction action;
+		synchronized (RTCCompletionAction.class) {
+			action = run.getAction(RTCCompletionAction.class);
+			if (action == null) {
+				action = new RTCCompletionAction();
+				run.addAction(action);
+			}
+		}
+		synchronized (action) {
+			action.pending++;
+		}
+	}
+
+	/**
+	 * Record that a completion request of the build was delivered or given up
+	 * on, and save the build. A build that was deleted, or replaced by a
+	 * reload of its job, is not saved, so it is not written back to disk.
+	 *
+	 * @param run The build
+	 * @param success <code>true</code> if the request was delivered
+	 */
+	static void done(Run<?, ?> run, boolean success) {
+		RTCCompletionAction action = run.getAction(RTCCompletionAction.class);
+		if (action == null) {
+			return;
+		}
+		synchronized (action) {
+			if (action.pending > 0) {
+				action.pending--;
+			}
+			if (success) {
+				action.delivered++;
+			} else {
+				action.failed++;
+			}
+		}
+		if (!isCurrent(run)) {
+			LOGGER.fine("Not saving the RTC completion status of " + run + ", it no longer exists"); //$NON-NLS-1$ //$NON-NLS-2$
+			return;
+		}
+		try {
+			run.save();
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Unable to save the RTC completion status of " + run, e); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if the build has not been deleted and is the
+	 *         one its job holds
+	 */
+	private static boolean isCurrent(Run<?, ?> run) {
+		return run.getRootDir().isDirectory() && run.getParent().getBuildByNumber(run.getNumber()) == run;
+	}
+
+	/**
+	 * @return The symbol shown as badge
+	 */
+	public synchronized String getIconClassName() {
+		if (failed > 0) {
+			return "symbol-status-red"; //$NON-NLS-1$
+		} else if (pending > 0) {
+			return "symbol-status-nobuilt"; //$NON-NLS-1$
+		}
+		return "symbol-status-blue"; //$NON-NLS-1$
+	}
+
+	/**
+	 * @return The tooltip of the badge
+	 */
+	public synchronized String getTooltip() {
+		if (failed > 0) {
+			return Messages.RTCCompletionAction_failed(failed);
+		} else if (pending > 0) {
+			return Messages.RTCCompletionAction_pending(pending);
+		}
+		return Messages.RTCCompletionAction_delivered();
+	}
+
+	public synchronized boolean isDelivered() {
+		return pending == 0 && failed == 0;
+	}
+
+	@Override
+	public String getIconFileName() {
+		return null;
+	}
+
+	@Override
+	public String getDisplayName() {
+		return Messages.RTCCompletionAction_display_name();
+	}
+
+	@Override
+	public String getUrlName() {
+		return null;
+	}
+}
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.http.pool.PoolStats;
+
+import com.ibm.team.git.build.hjplugin.http.HttpUtils;
+import com.ibm.team.git.build.hjplugin.util.ExpiringCache;
+
+import hudson.Extension;
+import hudson.init.Terminator;
+import hudson.model.PeriodicWork;
+
+/**
+ * Periodically closes the connection pools of the RTC servers that are no
+ * longer used, and logs the statistics of the connection pool of each RTC
+ * server and of the work item caches. The pools are all closed when Jenkins
+ * stops.
+ *
+ * Every route is logged at FINE level. Routes with requests waiting for a
+ * connection are logged at INFO level since the pool of that server is too
+ * small (or the server too slow). The hits, misses and evictions of the
+ * {@link WorkItemDetailsCache}s, the {@link BuildDefinitionCache} and the
+ * {@link CredentialsCache} are logged at FINE level, as is the number of
+ * requests that shared the call of an identical request in flight.
+ */
+@Extension
+public class RTCConnectionPoolMonitor extends PeriodicWork {
+
+	private static final Logger LOGGER = Logger.getLogger(RTCConnectionPoolMonitor.class
+			.getName());
+
+	/**
+	 * How often (in minutes) the statistics are logged
+	 */
+	private static final long RECURRENCE_PERIOD = TimeUnit.MINUTES.toMillis(
+			Integer.getInteger(RTCConnectionPoolMonitor.class.getName() + ".recurrencePeriod", 5)); //$NON-NLS-1$
+
+	@Override
+	public long getRecurrencePeriod() {
+		return RECURRENCE_PERIOD;
+	}
+
+	@Terminator
+	public static void closeConnectionPools() {
+		HttpUtils.closeConnectionPools();
+	}
+
+	@Override
+	protected void doRun() {
+		HttpUtils.closeUnusedConnectionPools();
+		if (!LOGGER.isLoggable(Level.INFO)) {
+			return;
+		}
+		for (Map.Entry<String, Map<String, PoolStats>> server : HttpUtils.getConnectionPoolStats().entrySet()) {
+			for (Map.Entry<String, PoolStats> route : server.getValue().entrySet()) {
+				PoolStats stats = route.getValue();
+				Level level = stats.getPending() > 0 ? Level.INFO : Level.FINE;
+				if (LOGGER.isLoggable(level)) {
+					LOGGER.log(level, String.format("RTC connection pool %s route %s: leased=%d available=%d pending=%d max=%d", //$NON-NLS-1$
+							server.getKey(), route.getKey(), stats.getLeased(), stats.getAvailable(),
+							stats.getPending(), stats.getMax()));
+				}
+			}
+		}
+		if (LOGGER.isLoggable(Level.FINE)) {
+			LOGGER.fine(String.format("RTC requests coalesced with an identical request in flight: %d", //$NON-NLS-1$
+					HttpUtils.getCoalescedRequestCount()));
+			for (Map.Entry<String, WorkItemDetailsCache> cache : WorkItemDetailsCache.getCaches().entrySet()) {
+				logCacheStats("work item details", cache.getKey(), cache.getValue().getDetailsCache()); //$NON-NLS-1$
+			}
+			logCacheStats("build definition validity", "of all servers", BuildDefinitionCache.get().getValidityCache()); //$NON-NLS-1$ //$NON-NLS-2$
+			logCacheStats("build definition id", "of all servers", BuildDefinitionCache.get().getIdCache()); //$NON-NLS-1$ //$NON-NLS-2$
+			logCacheStats("credentials", "of all servers", CredentialsCache.getCache()); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	private static void logCacheStats(String name, String key, ExpiringCache<?, ?> cache) {
+		cache.cleanUp();
+		LOGGER.fine(String.format("RTC %s cache %s: size=%d hits=%d misses=%d evictions=%d", //$NON-NLS-1$
+				name, key, cache.size(), cache.getHitCount(), cache.getMissCount(), cache.getEvictionCount()));
+	}
+}
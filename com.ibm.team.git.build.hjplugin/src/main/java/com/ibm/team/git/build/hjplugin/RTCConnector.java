@@ -13,6 +13,7 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.security.GeneralSecurityException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -24,9 +25,11 @@ import org.apache.http.message.BasicNameValuePair;
 
 import com.ibm.team.git.build.hjplugin.http.HttpUtils;
 import com.ibm.team.git.build.hjplugin.http.HttpUtils.RtcHttpResult;
+import com.ibm.team.git.build.hjplugin.http.RtcRetryPolicy;
 import com.ibm.team.git.build.hjplugin.scm.ChangeSetData;
 import com.ibm.team.git.build.hjplugin.util.RTCHttpConstants;
 
+import hudson.model.Run;
 import hudson.model.TaskListener;
 import net.sf.json.JSONObject;
 
@@ -60,6 +63,7 @@ public class RTCConnector {
 	private final int timeout;
 
 	private ParameterHelper pHelper = new ParameterHelper();
+	private RtcRetryPolicy.Budget retryBudget;
 
 	public RTCConnector(String serverURI, String userId, String password,
 			int timeout, String buildDefinition, String workItemUpdateType,
@@ -79,13 +83,30 @@ public class RTCConnector {
 		this.ownsLifeCycle = ownsLifeCycle;
 	}
 
+	/**
+	 * Get the retry budget for the RTC requests of a build
+	 * 
+	 * @param build The build
+	 * @return The budget shared by all requests made for the build
+	 */
+	public static RtcRetryPolicy.Budget getRetryBudget(Run<?, ?> build) {
+		return RTCBuildContext.get(build).getRetryBudget();
+	}
+
+	/**
+	 * @param retryBudget The retry budget of the build this connector is used
+	 *            for
+	 */
+	public void setRetryBudget(RtcRetryPolicy.Budget retryBudget) {
+		this.retryBudget = retryBudget;
+	}
+
 	public void updateWorkItem(PrintStream out, String trackbuildWi,
 			String comment) {
 		if (!RTCUtils.IsNullOrEmpty(trackbuildWi)
 				&& !RTCUtils.IsNullOrEmpty(comment)) {
 			try {
-				HttpClientContext httpContext = HttpUtils.createHttpContext();
-				HttpUtils.validateCredentials(serverURI, userId, password, timeout, httpContext);
+				HttpClientContext httpContext = HttpUtils.getSessionContext(serverURI, userId, password, timeout);
 				HttpUtils.performPost(serverURI,
 						RTCHttpConstants.SERVICE_UPDATE_RTC_WORKITEM, userId,
 						password, timeout, pHelper.getUpdateWorkItemParmData(
@@ -103,8 +124,7 @@ public class RTCConnector {
 			return;
 		}
 		try {
-			HttpClientContext httpContext = HttpUtils.createHttpContext();
-			HttpUtils.validateCredentials(serverURI, userId, password, timeout, httpContext);
+			HttpClientContext httpContext = HttpUtils.getSessionContext(serverURI, userId, password, timeout);
 
 			HttpUtils.performPost(serverURI,
 					RTCHttpConstants.SERVICE_UPDATE_RTC_BUILD_LINK, userId,
@@ -126,8 +146,7 @@ public class RTCConnector {
 			return;
 		}
 		try {
-			HttpClientContext httpContext = HttpUtils.createHttpContext();
-			HttpUtils.validateCredentials(serverURI, userId, password, timeout, httpContext);
+			HttpClientContext httpContext = HttpUtils.getSessionContext(serverURI, userId, password, timeout);
 			HttpUtils.performPost(serverURI,
 					RTCHttpConstants.SERVICE_COMPLETE_RTC_BUILD_LINK, userId,
 					password, timeout,
@@ -142,10 +161,9 @@ public class RTCConnector {
 		if (csData == null || csData.size() == 0) {
 			return;
 		}
-		List<NameValuePair> params = pHelper.getPublishCommitParmData(csData);
+		List<NameValuePair> params = pHelper.getPublishCommitParmData(RTCUtils.getAllWorkItems(csData));
 		try {
-			HttpClientContext httpContext = HttpUtils.createHttpContext();
-			HttpUtils.validateCredentials(serverURI, userId, password, timeout, httpContext);
+			HttpClientContext httpContext = HttpUtils.getSessionContext(serverURI, userId, password, timeout);
 			HttpUtils.performPost(serverURI,
 					RTCHttpConstants.SERVICE_GITBUILD_LINK, userId, password,
 					timeout, params, listener, httpContext);
@@ -155,21 +173,125 @@ public class RTCConnector {
 		}
 	}
 
+	/**
+	 * Queue the comment on the track build work item in the {@link RTCOutbox}
+	 * 
+	 * @param run The build
+	 * @param credentialsId The credentials to send the comment with
+	 * @param trackbuildWi The work item
+	 * @param comment The comment
+	 * @param completion <code>true</code> if the comment tells that the build
+	 *            completed
+	 * @param listener The listener of the build
+	 */
+	public void queueUpdateWorkItem(Run<?, ?> run, String credentialsId, String trackbuildWi,
+			String comment, boolean completion, TaskListener listener) {
+		queueUpdateWorkItem(run, credentialsId, false, trackbuildWi, comment, completion, listener);
+	}
+
+	/**
+	 * Queue the comment on the track build work item in the {@link RTCOutbox}
+	 * 
+	 * @param run The build
+	 * @param credentialsId The credentials to send the comment with
+	 * @param jobCredentials <code>true</code> to look up the credentials in
+	 *            the context of the job instead of the build
+	 * @param trackbuildWi The work item
+	 * @param comment The comment
+	 * @param completion <code>true</code> if the comment tells that the build
+	 *            completed
+	 * @param listener The listener of the build
+	 */
+	public void queueUpdateWorkItem(Run<?, ?> run, String credentialsId, boolean jobCredentials,
+			String trackbuildWi, String comment, boolean completion, TaskListener listener) {
+		if (!RTCUtils.IsNullOrEmpty(trackbuildWi)
+				&& !RTCUtils.IsNullOrEmpty(comment)) {
+			RTCOutbox.get().enqueue(run, serverURI, trackbuildWi, credentialsId, jobCredentials, timeout,
+					RTCHttpConstants.SERVICE_UPDATE_RTC_WORKITEM,
+					pHelper.getUpdateWorkItemParmData(trackbuildWi, comment),
+					Messages.Error_UpdatingWorkItem(trackbuildWi), completion, listener);
+		}
+	}
+
+	/**
+	 * Queue the completion of the RTC build result in the {@link RTCOutbox}
+	 * 
+	 * @param run The build
+	 * @param credentialsId The credentials to complete the build result with
+	 * @param status The status of the build
+	 * @param listener The listener of the build
+	 */
+	public void queueCompleteBuild(Run<?, ?> run, String credentialsId, int status, TaskListener listener) {
+		if (buildResultUUID == null) {
+			return;
+		}
+		if (!ownsLifeCycle) {
+			LOGGER.log(Level.INFO, "Not completing build because the plugin does not own the build lifecycle"); //$NON-NLS-1$
+			return;
+		}
+		RTCOutbox.get().enqueue(run, serverURI, buildResultUUID, credentialsId, timeout,
+				RTCHttpConstants.SERVICE_COMPLETE_RTC_BUILD_LINK,
+				pHelper.getCompleteRTCBuildParmData(status),
+				Messages.Error_UpdatingBuildResultComplete(), true, listener);
+	}
+
+	/**
+	 * Queue the links between the build and the work items of the commits in
+	 * the {@link RTCOutbox}
+	 * 
+	 * @param run The build
+	 * @param credentialsId The credentials to create the links with
+	 * @param workItems The ids of the work items mentioned by the commits of
+	 *            the build
+	 * @param listener The listener of the build
+	 */
+	public void queuePublishCommitData(Run<?, ?> run, String credentialsId, String[] workItems,
+			TaskListener listener) {
+		RTCOutbox.get().enqueue(run, serverURI, buildResultUUID, credentialsId, timeout,
+				RTCHttpConstants.SERVICE_GITBUILD_LINK,
+				pHelper.getPublishCommitParmData(workItems),
+				Messages.Error_CreatingWorkItemLinks(), false, listener);
+	}
+
+	/**
+	 * Get the details (id and summary) of work items in a single request, so
+	 * they can be stored with the build for the change log annotations
+	 * 
+	 * @param workitems The ids of the work items
+	 * @return The details of the work items. Empty if there are none or they
+	 *         could not be obtained.
+	 */
+	public String[] getWorkItemDetails(String[] workitems) {
+		if (workitems == null || workitems.length == 0) {
+			return new String[0];
+		}
+		try {
+			String[] details = getWorkItemDetails(serverURI, workitems, userId, password, timeout);
+			if (details != null) {
+				return details;
+			}
+		} catch (Exception e) {
+			LOGGER.log(Level.WARNING, "Unable to get the details of the work items " //$NON-NLS-1$
+					+ Arrays.toString(workitems), e);
+		}
+		return new String[0];
+	}
+
 	public String createRTCBuild(PrintStream out) {
 		List<NameValuePair> params = pHelper.getCreateBuildParmData();
 		RtcHttpResult result;
 		if (useBuildDefinition && buildDefinition != null) {
 			try {
-				if (isValidBuildDefintion(serverURI, buildDefinition, userId,
-						password, timeout)) {
-					HttpClientContext httpContext = HttpUtils.createHttpContext();
-					HttpUtils.validateCredentials(serverURI, userId, password, timeout, httpContext);
+				if (isValidBuildDefinitionCached()) {
+					HttpClientContext httpContext = HttpUtils.getSessionContext(serverURI, userId, password, timeout);
 					result = HttpUtils.performPost(serverURI,
 							RTCHttpConstants.SERVICE_CREATE_RTC_BUILD_LINK,
 							userId, password, timeout, params, null, httpContext);
 					return result.getResultAsString();
 				}
 			} catch (Exception e) {
+				// check the build definition again next time, it may have been deleted
+				BuildDefinitionCache.get().invalidate(serverURI, userId, buildDefinition);
 				RTCUtils.LogMessage(out, Messages.Error_CreatingRTCBuild());
 				RTCUtils.LogMessage(out, e.getMessage());
 			}
@@ -177,20 +299,48 @@ public class RTCConnector {
 		return null;
 	}
 
+	/**
+	 * Ask RTC whether the build definition is valid. The answer is kept in the
+	 * {@link BuildDefinitionCache}.
+	 */
 	public static boolean isValidBuildDefintion(String serverURI,
 			String buildDefinition, String userId, String password, int timeout)
 			throws InvalidCredentialsException, IOException,
 			GeneralSecurityException {
+		return isValidBuildDefintion(serverURI, buildDefinition, userId, password, timeout, null);
+	}
+
+	/**
+	 * @return whether the build definition of this connector is valid, as
+	 *         cached or else as answered by RTC
+	 */
+	private boolean isValidBuildDefinitionCached()
+			throws InvalidCredentialsException, IOException,
+			GeneralSecurityException {
+		Boolean valid = BuildDefinitionCache.get().isValid(serverURI, userId, buildDefinition);
+		if (valid != null) {
+			return valid;
+		}
+		return isValidBuildDefintion(serverURI, buildDefinition, userId,
+				password, timeout, retryBudget);
+	}
+
+	private static boolean isValidBuildDefintion(String serverURI,
+			String buildDefinition, String userId, String password, int timeout,
+			RtcRetryPolicy.Budget retryBudget)
+			throws InvalidCredentialsException, IOException,
+			GeneralSecurityException {
 		List<NameValuePair> params = new ArrayList<NameValuePair>();
 		params.add(new BasicNameValuePair(
 				RTCHttpConstants.PARAM_RTC_BUILD_DEFINITION_ID, buildDefinition));
 		RtcHttpResult result = null;
-		HttpClientContext httpContext = HttpUtils.createHttpContext();
-		HttpUtils.validateCredentials(serverURI, userId, password, timeout, httpContext);
-		result = HttpUtils.performPost(serverURI,
+		HttpClientContext httpContext = HttpUtils.getSessionContext(serverURI, userId, password, timeout);
+		result = HttpUtils.performIdempotentPost(serverURI,
 				RTCHttpConstants.SERVICE_VALIDATE_RTC_BUILD_LINK, userId,
-				password, timeout, params, null, httpContext);
-		return result.getResultAsBoolean();
+				password, timeout, params, null, httpContext, retryBudget);
+		boolean valid = result.getResultAsBoolean();
+		BuildDefinitionCache.get().setValid(serverURI, userId, buildDefinition, valid);
+		return valid;
 	}
 
 	public static String validateAndGetWorkItem(String serverURI,
@@ -204,32 +354,43 @@ public class RTCConnector {
 		params.add(new BasicNameValuePair(
 				RTCHttpConstants.PARAM_RTC_WORK_ITEM_ID, workitemid));
 		RtcHttpResult result = null;
-		HttpClientContext httpContext = HttpUtils.createHttpContext();
-		HttpUtils.validateCredentials(serverURI, userId, password, timeout, httpContext);
-		result = HttpUtils.performPost(serverURI,
+		HttpClientContext httpContext = HttpUtils.getSessionContext(serverURI, userId, password, timeout);
+		result = HttpUtils.performIdempotentPost(serverURI,
 				RTCHttpConstants.SERVICE_GET_RTC_WORKITEM, userId, password,
-				timeout, params, null, httpContext);
+				timeout, params, null, httpContext, null);
 		return result.getResultAsString();
 	}
 	
-	public static String[] getWorkItemDetails(String serverURI,
-			String[] workitems, String userId, String password, int timeout)
+	/**
+	 * Get the details ("id: summary") of work items. Only the work items which
+	 * are not in the {@link WorkItemDetailsCache} are requested, in a single
+	 * request.
+	 */
+	public static String[] getWorkItemDetails(final String serverURI,
+			String[] workitems, final String userId, final String password, final int timeout)
 			throws InvalidCredentialsException, IOException,
 			GeneralSecurityException {
 		if (workitems == null || workitems.length <= 0) {
 			return null;
 		}
+		return WorkItemDetailsCache.get(serverURI, userId).getDetails(workitems,
+				missing -> fetchWorkItemDetails(serverURI, missing, userId, password, timeout));
+	}
+
+	private static String[] fetchWorkItemDetails(String serverURI,
+			String[] workitems, String userId, String password, int timeout)
+			throws InvalidCredentialsException, IOException,
+			GeneralSecurityException {
 		List<NameValuePair> params = new ArrayList<NameValuePair>();
 		for (String wi : workitems) {
 			params.add(new BasicNameValuePair(
 					RTCHttpConstants.PARAM_RTC_WORK_ITEM_ID, wi));
 		}
 		RtcHttpResult result = null;
-		HttpClientContext httpContext = HttpUtils.createHttpContext();
-		HttpUtils.validateCredentials(serverURI, userId, password, timeout, httpContext);
-		result = HttpUtils.performPost(serverURI,
+		HttpClientContext httpContext = HttpUtils.getSessionContext(serverURI, userId, password, timeout);
+		result = HttpUtils.performIdempotentPost(serverURI,
 				RTCHttpConstants.SERVICE_GET_RTC_WORKITEM_DETAILS, userId, password,
-				timeout, params, null, httpContext);
+				timeout, params, null, httpContext, null);
 		return result.getResultAsStringArray();
 	}
 	
@@ -251,22 +412,48 @@ public class RTCConnector {
 	public static String getBuildDefinitionId(String serverURI,
 			String userId, String password, int timeout, String buildResultUUID, TaskListener listener) 
 					throws IOException, InvalidCredentialsException, GeneralSecurityException {
-		HttpClientContext httpContext = HttpUtils.createHttpContext();
-		HttpUtils.validateCredentials(serverURI, userId, password, timeout, httpContext);
-		String itemId = getBuildDefinitionItemId(serverURI, userId, password, timeout, httpContext, buildResultUUID, listener);
+		return getBuildDefinitionId(serverURI, userId, password, timeout, buildResultUUID, listener, null);
+	}
+
+	/**
+	 * Returns null if the build result of this connector does not exist,
+	 * otherwise returns the id of its build definition. The requests are
+	 * charged to the retry budget of the connector.
+	 * 
+	 * @see #getBuildDefinitionId(String, String, String, int, String, TaskListener)
+	 * @see #setRetryBudget(RtcRetryPolicy.Budget)
+	 */
+	public String getBuildDefinitionId(TaskListener listener)
+					throws IOException, InvalidCredentialsException, GeneralSecurityException {
+		return getBuildDefinitionId(serverURI, userId, password, timeout, buildResultUUID, listener, retryBudget);
+	}
+
+	private static String getBuildDefinitionId(String serverURI,
+			String userId, String password, int timeout, String buildResultUUID, TaskListener listener,
+			RtcRetryPolicy.Budget retryBudget) 
+					throws IOException, InvalidCredentialsException, GeneralSecurityException {
+		HttpClientContext httpContext = HttpUtils.getSessionContext(serverURI, userId, password, timeout);
+		String itemId = getBuildDefinitionItemId(serverURI, userId, password, timeout, httpContext, buildResultUUID, listener, retryBudget);
 		if (itemId == null) {
 			return null;
 		}
-		return getBuildDefinitionId(serverURI, userId, password, timeout,httpContext, itemId, listener);
+		String id = BuildDefinitionCache.get().getId(serverURI, userId, itemId);
+		if (id == null) {
+			id = getBuildDefinitionId(serverURI, userId, password, timeout,httpContext, itemId, listener, retryBudget);
+			if (id != null) {
+				BuildDefinitionCache.get().putId(serverURI, userId, itemId, id);
+			}
+		}
+		return id;
 	}
 	
 	private static String getBuildDefinitionItemId(String serverURI,
 			String userId, String password, int timeout, HttpClientContext httpContext, String buildResultUUID, 
-				TaskListener listener)
+				TaskListener listener, RtcRetryPolicy.Budget retryBudget)
 					throws IOException, InvalidCredentialsException, GeneralSecurityException {		
 		String resourceURI = "resource/virtual/build/result/" + buildResultUUID; //$NON-NLS-1$
 		LOGGER.info(String.format(LOGMSG_GETTING_BUILD_RESULT_DETAILS, serverURI + "/" + resourceURI)); //$NON-NLS-1$
-		RtcHttpResult result = HttpUtils.performGet(serverURI, resourceURI, userId, password, timeout, httpContext, listener);
+		RtcHttpResult result = HttpUtils.performGet(serverURI, resourceURI, userId, password, timeout, httpContext, listener, retryBudget);
 		if (result.getJson() == null) { // Cannot happen if the request succeeded with 200
 			LOGGER.log(Level.WARNING,
 					String.format(LOGMSG_UNABLE_TO_OBTAIN_BUILD_RESULT_DETAIL, buildResultUUID));
@@ -291,11 +478,12 @@ public class RTCConnector {
 	}
 	
 	private static String getBuildDefinitionId(String serverURI,
-			String userId, String password, int timeout, HttpClientContext httpContext, String itemId, TaskListener listener) 
+			String userId, String password, int timeout, HttpClientContext httpContext, String itemId, TaskListener listener,
+				RtcRetryPolicy.Budget retryBudget) 
 				throws IOException, InvalidCredentialsException, GeneralSecurityException {		
 		String resourceURI = "resource/virtual/build/definition/" + itemId; //$NON-NLS-1$
 		LOGGER.info(String.format(LOGMSG_GETTING_BUILD_DEFINITION_DETAILS, serverURI + "/" + resourceURI)); //$NON-NLS-1$
-		RtcHttpResult result = HttpUtils.performGet(serverURI, resourceURI, userId, password, timeout, httpContext, listener);
+		RtcHttpResult result = HttpUtils.performGet(serverURI, resourceURI, userId, password, timeout, httpContext, listener, retryBudget);
 		if (result.getJson() == null) { // Cannot happen if the request succeeded with 200
 			LOGGER.log(Level.WARNING,
 					String.format(LOGMSG_UNABLE_TO_OBTAIN_BUILD_DEFINITION_DETAIL, itemId));
@@ -334,7 +522,7 @@ public class RTCConnector {
 		}
 
 		private List<NameValuePair> getPublishCommitParmData(
-				List<ChangeSetData> csData) {
+				String[] workitems) {
 			List<NameValuePair> params = new ArrayList<NameValuePair>();
 			params.add(new BasicNameValuePair(
 					RTCHttpConstants.PARAM_JENKINS_BUILD_NAME, buildName));
@@ -353,13 +541,12 @@ public class RTCConnector {
 			params.add(new BasicNameValuePair(
 					RTCHttpConstants.PARAM_RTC_WORKITEM_INTEGRATION, RTCUtils
 							.getWiMode(workItemUpdateType)));
-			fillWorkItems(csData, params);
+			fillWorkItems(workitems, params);
 			return params;
 		}
 
-		private void fillWorkItems(List<ChangeSetData> csData,
+		private void fillWorkItems(String[] workitems,
 				List<NameValuePair> params) {
-			String[] workitems = RTCUtils.getAllWorkItems(csData);
 			if (workitems != null) {
 				for (String wi : workitems) {
 					params.add(new BasicNameValuePair(
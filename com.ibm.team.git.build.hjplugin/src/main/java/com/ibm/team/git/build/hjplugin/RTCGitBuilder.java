@@ -15,11 +15,7 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.lang.reflect.InvocationTargetException;
 import java.security.GeneralSecurityException;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -34,8 +30,6 @@ import com.cloudbees.plugins.credentials.common.StandardListBoxModel;
 import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
 import com.cloudbees.plugins.credentials.domains.URIRequirementBuilder;
 import com.ibm.team.git.build.hjplugin.http.HttpUtils;
-import com.ibm.team.git.build.hjplugin.scm.ChangeSetData;
-import com.ibm.team.git.build.hjplugin.scm.GitScmUtils;
 import com.ibm.team.git.build.hjplugin.util.Helper;
 import com.ibm.team.git.build.hjplugin.util.RTCHttpConstants;
 import com.ibm.team.git.build.hjplugin.util.ValidationResult;
@@ -181,10 +175,10 @@ public class RTCGitBuilder extends Builder implements SimpleBuildStep {
 											InterruptedException, InvalidCredentialsException {
 		LOGGER.info("RTCGitBuilder.prebuild : Begin"); //$NON-NLS-1$
 		PrintStream logger = listener.getLogger();
-		String jRootURI = RTCUtils.getJenkinsRootURL(build,
-				this.jenkinsRootURI, logger);
-		String bURI = RTCUtils.getBuildURL(build, logger);
-		String buildName = RTCUtils.getBuildShortName(build, logger);
+		RTCBuildContext context = RTCBuildContext.get(build);
+		String jRootURI = context.getJenkinsRootURL(this.jenkinsRootURI);
+		String bURI = context.getBuildURL();
+		String buildName = context.getBuildShortName();
 		RTCLoginInfo loginInfo = getLoginInfo2(build);
 		// I shouldn't worry about the build result UUID unless there is build definition integration
 		// One more test case, start build from RTC but do not have build definition integration
@@ -201,6 +195,7 @@ public class RTCGitBuilder extends Builder implements SimpleBuildStep {
 					loginInfo.getTimeout(), buildDefinition,
 					workItemUpdateType, useBuildDefinition,
 					rtcBuildUUID, jRootURI, bURI, buildName, false);
+			rCon.setRetryBudget(context.getRetryBudget());
 
 			// First check whether we need to create a build result by checking whether rtcBuildUUID is null or empty
 			// If it is not null, then check whether the build definition ids match.
@@ -209,8 +204,7 @@ public class RTCGitBuilder extends Builder implements SimpleBuildStep {
 				LOGGER.info("rtcBuildResultUUID found, verifying whether it is from the same build definition configured"); //$NON-NLS-1$
 				String buildDefinitionId = null;
 				try {
-					buildDefinitionId = rCon.getBuildDefinitionId(this.serverURI, loginInfo.getUserId(), loginInfo.getPassword(), 
-							this.timeout, rtcBuildUUID, listener);
+					buildDefinitionId = rCon.getBuildDefinitionId(listener);
 				} catch (org.apache.http.auth.InvalidCredentialsException | GeneralSecurityException | IOException exp) {
 					// Log the exception and continue;
 					if (LOGGER.isLoggable(Level.WARNING)) {
@@ -247,7 +241,8 @@ public class RTCGitBuilder extends Builder implements SimpleBuildStep {
 	public void perform(Run<?, ?> run, FilePath arg1, Launcher launcher, TaskListener listener)
 			throws InterruptedException, IOException {
 		
-		try { 
+		// prebuild and perform resolve the environment of the build only once
+		try (Helper.MemoizedEnvironment environment = Helper.memoizeEnvironment(run)) { 
 			// If there is no Git invocation before  calling RTCGitBuilder,
 			// then there is no change set to annotate or 
 			// work item information to publish to the build or link Jenkins build 
@@ -271,9 +266,9 @@ public class RTCGitBuilder extends Builder implements SimpleBuildStep {
 				buildParameterAction.setownsBuildCycle(ownsBuildCycle);
 			}
 			
-			String jRootURI = RTCUtils.getJenkinsRootURL(run,
-					this.jenkinsRootURI, logger);
-			String bURI = RTCUtils.getBuildURL(run, logger);
+			RTCBuildContext context = RTCBuildContext.get(run);
+			String jRootURI = context.getJenkinsRootURL(this.jenkinsRootURI);
+			String bURI = context.getBuildURL();
 			String buildName = RTCUtils.getBuildFullName(run, logger);
 			RTCLoginInfo loginInfo = getLoginInfo2(run);
 			RTCConnector rCon = new RTCConnector(serverURI,
@@ -285,14 +280,14 @@ public class RTCGitBuilder extends Builder implements SimpleBuildStep {
 			// First update the track Build work item 
 			// Use the resolved trackBuildWorkItem
 			if(!(run.getParent() instanceof FreeStyleProject)) {
-			rCon.updateWorkItem(listener.getLogger(),
+			rCon.queueUpdateWorkItem(run, getCredentialsId(),
 					resolvedTrackBuildWorkItem, RTCUtils
 					.getBuildStartedComment(listener
 							.getLogger(), RTCUtils
 							.getFullBuildURL(run, jRootURI,
 									logger), run
 							.getFullDisplayName(), null,
-							RTCUtils.getBuildUser(run)));
+							RTCUtils.getBuildUser(run)), false, listener);
 		}
 			/**
 			 *  Note that multiple invocations of RTCGitBuilder will annotate the 
@@ -307,14 +302,26 @@ public class RTCGitBuilder extends Builder implements SimpleBuildStep {
 			 *  builder.
 			 */
 			
-			List<ChangeSetData> csData = getCsData(run, listener); 
-			String[] workItems = RTCUtils.getAllWorkItems(csData);
+			IncludedCommits commits = IncludedCommits.scan(run, listener.getLogger());
+			if (commits == null) {
+				// a partial change log must not be published as the whole
+				LOGGER.warning("Unable to read the Git commits of " + run.getFullDisplayName() //$NON-NLS-1$
+						+ ", the work items are not published to RTC"); //$NON-NLS-1$
+				return;
+			}
+			String[] workItems = commits.getWorkItems();
 			buildParameterAction.setWorkitems(workItems);
 			// Also add the unique change set details for this action
-			buildParameterAction.setChangeSetIds(getChangeSetIdsFromCsData(csData).toArray(new String[0]));
+			buildParameterAction.setPackedChangeSetKeys(commits.getPackedChangeSetKeys());
+			if (buildParameterAction.shouldAnnotate()) {
+				// resolved once now so showing the changes never calls RTC
+				buildParameterAction.setWorkItemDetails(rCon.getWorkItemDetails(workItems));
+			}
 			String format = String.format("work items are %s", Arrays.toString(workItems)); //$NON-NLS-1$
 			LOGGER.info(format);
-			rCon.publishCommitData(logger, csData, listener);
+			if (commits.getCommitCount() > 0) {
+				rCon.queuePublishCommitData(run, getCredentialsId(), workItems, listener);
+			}
 			
 		}
 		catch (Exception e) {
@@ -330,7 +337,7 @@ public class RTCGitBuilder extends Builder implements SimpleBuildStep {
 	
 	private RTCLoginInfo getLoginInfo2(Run<?,?> build)
 			throws InvalidCredentialsException {
-		return new RTCLoginInfo(build, getServerURI(), getCredentialsId(),
+		return RTCBuildContext.get(build).getLoginInfo(getServerURI(), getCredentialsId(),
 				getTimeout());
 	}
 
@@ -670,44 +677,4 @@ public class RTCGitBuilder extends Builder implements SimpleBuildStep {
 	public BuildParameterAction getBuildParameterAction() {
 		return buildParameterAction;
 	}
-	
-	private static List<String> getChangeSetIdsFromActions(List<BuildParameterAction> actions) {
-		List<String> changeSetIds = new ArrayList<>();
-		for (BuildParameterAction action : actions) {
-			for (String changeSetId : action.getChangeSetIds()) {
-				changeSetIds.add(changeSetId);
-			}
-		}
-		return changeSetIds;
-	}
-	
-	private static List<String> getChangeSetIdsFromCsData(List<ChangeSetData> csDataList) {
-		List<String> changeSetIds = new ArrayList<>();
-		for (ChangeSetData csData : csDataList) {
-			changeSetIds.add(csData.getChangeSetId());
-		}
-		return changeSetIds;
-	}
-	
-	private List<ChangeSetData> getCsData(Run<?,?> run, TaskListener listener) {
-		List<ChangeSetData> csData = GitScmUtils.getIncludedCommits(run, listener.getLogger());
-		// Filter commits already handled by other BuildResultActions
-		return filterCsData(run, csData);
-	}
-	
-	private List<ChangeSetData> filterCsData(Run<?,?> run, List<ChangeSetData> csDataList) {
-		LOGGER.finest("RTCGitBuilder.filterCsData : begin"); //$NON-NLS-1$
-		// For every build result action that we have in the build (except the last one), 
-		// check whether changeSetIds from csData is part of that Build Result Action.
-		// If yes, then don't add it to the filtered list. Otherwise add it.
-		List<ChangeSetData> filteredCsData = new ArrayList<>();
-		Set<String> changeSetIdsFromActions = new HashSet<>(getChangeSetIdsFromActions(
-							run.getActions(BuildParameterAction.class)));
-		for (ChangeSetData csData : csDataList) {
-			if (!changeSetIdsFromActions.contains(csData.getChangeSetId())) {
-				filteredCsData.add(csData);
-			}
-		}
-		return filteredCsData;
-	}
 }
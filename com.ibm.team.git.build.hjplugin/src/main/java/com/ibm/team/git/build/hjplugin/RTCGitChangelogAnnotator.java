@@ -18,12 +18,12 @@ import hudson.model.Run;
 import hudson.scm.ChangeLogAnnotator;
 import hudson.scm.ChangeLogSet.Entry;
 
-import java.util.HashMap;
-import java.util.List;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
 
 import com.ibm.team.git.build.hjplugin.http.HttpUtils;
 import com.ibm.team.git.build.hjplugin.scm.ChangeSetData;
@@ -43,9 +43,17 @@ import com.ibm.team.git.build.hjplugin.scm.GitScmUtils;
 public class RTCGitChangelogAnnotator extends ChangeLogAnnotator {
 
 	private static final String REGEX = "\\b[0-9.]*[0-9]\\b"; //$NON-NLS-1$
+	private static final Pattern PATTERN = Pattern.compile(REGEX);
 	private static final Logger LOGGER = Logger
 			.getLogger(RTCGitChangelogAnnotator.class.getName());
 
+	/**
+	 * How long (in seconds) after a failed request the work item details of an
+	 * older build are requested again
+	 */
+	private static final long RETRY_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(
+			Integer.getInteger(RTCGitChangelogAnnotator.class.getName() + ".retryDelay", 60)); //$NON-NLS-1$
+
 	@Override
 	public void annotate(Run<?, ?> build, Entry change,
 			MarkupText text) {
@@ -80,23 +88,7 @@ public class RTCGitChangelogAnnotator extends ChangeLogAnnotator {
 		}
 
 		LOGGER.log(Level.FINE, "Checking all actions"); //$NON-NLS-1$
-		List<BuildParameterAction> bActions = build
-				.getActions(BuildParameterAction.class);
-
-		BuildParameterAction bActionToUse = null;
-		for (BuildParameterAction bAction : bActions) {
-			if (bAction != null) {
-				for (String changeSetId : bAction.getChangeSetIds()) {
-					if (csData.getChangeSetId().equals(changeSetId)) {
-						bActionToUse = bAction;
-						break;
-					}
-				}
-			}
-			if (bActionToUse != null) {
-				break;
-			}
-		}
+		BuildParameterAction bActionToUse = ChangeSetActionIndex.find(build, csData);
 		LOGGER.log(Level.FINE, "Found bAction to annotate"); //$NON-NLS-1$
 
 		// For older BuildParameterAction's, there is no changeSetId array,
@@ -110,7 +102,18 @@ public class RTCGitChangelogAnnotator extends ChangeLogAnnotator {
 		}
 		if (bActionToUse != null && bActionToUse.shouldAnnotate()
 				&& bActionToUse.getRtcURL() != null) {
-			HashMap<String, String> wiMap = getWorkitemsInfo(build, bActionToUse);
+			Map<String, String> wiMap = bActionToUse.getWorkItemDetailsById();
+			long now = System.currentTimeMillis();
+			if (wiMap == null && bActionToUse.mayRequestWorkItemDetails(now)) {
+				// older build, get the details once and keep them in memory
+				wiMap = getWorkitemsInfo(build, bActionToUse);
+				if (wiMap != null) {
+					bActionToUse.cacheWorkItemDetails(wiMap);
+				} else {
+					// not until RTC had the time to come back
+					bActionToUse.workItemDetailsFailed(now + RETRY_DELAY_MILLIS);
+				}
+			}
 			annotateWithRtc(change, text, wiMap, bActionToUse.getRtcURL());
 		} else {
 			LOGGER.log(Level.FINE, "Found bAction to annotate but bAction annotate is false" + //$NON-NLS-1$
@@ -118,17 +121,19 @@ public class RTCGitChangelogAnnotator extends ChangeLogAnnotator {
 		}
 	}
 
-	private static HashMap<String, String> getWorkitemsInfo(Run<?, ?> build,
+	/**
+	 * @return The details of the work items of the action keyed by work item
+	 *         id. Empty if there is nothing to request, <code>null</code> if
+	 *         the request failed.
+	 */
+	private static Map<String, String> getWorkitemsInfo(Run<?, ?> build,
 			BuildParameterAction bAction) {
-		if (bAction == null) {
-			return null;
-		}
 		try {
 			String[] workitems = bAction.getWorkitems();
 			String creds = bAction.getCredentialsId();
 			if (workitems == null || RTCUtils.IsNullOrEmpty(creds)
 					|| RTCUtils.IsNullOrEmpty(bAction.getRtcURL())) {
-				return null;
+				return Collections.<String, String>emptyMap();
 			}
 
 			RTCLoginInfo loginInfo = new RTCLoginInfo(build.getParent(),
@@ -137,19 +142,7 @@ public class RTCGitChangelogAnnotator extends ChangeLogAnnotator {
 					loginInfo.getServerUri(), workitems, loginInfo.getUserId(),
 					loginInfo.getPassword(), loginInfo.getTimeout());
 			if (wiDetails != null) {
-				HashMap<String, String> wiMap = new HashMap<String, String>();
-				for (String wiInfo : wiDetails) {
-					if (!RTCUtils.IsNullOrEmpty(wiInfo)) {
-						int index = wiInfo.indexOf(':');
-						if (index != -1) {
-							String wi = wiInfo.substring(0, index).trim();
-							if (!wiMap.containsKey(wi)) {
-								wiMap.put(wi, wiInfo);
-							}
-						}
-					}
-				}
-				return wiMap;
+				return BuildParameterAction.toWorkItemDetailsById(wiDetails);
 			}
 		} catch (Exception e) {
 			LOGGER.log(Level.SEVERE, "getWorkitemsInfo: Error getting work items from bAction", e); //$NON-NLS-1$
@@ -158,17 +151,9 @@ public class RTCGitChangelogAnnotator extends ChangeLogAnnotator {
 	}
 
 	private static void annotateWithRtc(Entry change, MarkupText text,
-			HashMap<String, String> wiMap, String rtcURL) {
+			Map<String, String> wiMap, String rtcURL) {
 		String tStr = text.getText();
-		Pattern pattern = null;
-		try {
-			pattern = Pattern.compile(REGEX);
-		} catch (PatternSyntaxException e) {
-			LOGGER.log(Level.SEVERE, String.format("Cannot compile pattern: %s", REGEX), e); //$NON-NLS-1$
-			return;
-		}
-
-		for (SubText token : text.findTokens(pattern)) {
+		for (SubText token : text.findTokens(PATTERN)) {
 			Integer key = null;
 			try {
 				key = getWorkItemId(token);
@@ -193,7 +178,7 @@ public class RTCGitChangelogAnnotator extends ChangeLogAnnotator {
 		}
 	}
 
-	private static String getWorkItemToolTip(HashMap<String, String> wiMap, String key) {
+	private static String getWorkItemToolTip(Map<String, String> wiMap, String key) {
 		if(wiMap != null && !RTCUtils.IsNullOrEmpty(key)) {
 			return wiMap.get(key);
 		}
@@ -28,7 +28,8 @@ import hudson.security.ACL;
 import hudson.util.FormValidation;
 
 /**
- * Represents login information to connect to RTC
+ * Represents login information to connect to RTC. The credentials are
+ * looked up through the {@link CredentialsCache}.
  */
 public class RTCLoginInfo {
 	private static final Logger LOGGER = Logger.getLogger(RTCGitBuilder.class.getName());
@@ -61,10 +62,17 @@ public class RTCLoginInfo {
 
 			
 			
-			List<StandardUsernamePasswordCredentials> allMatchingCredentials = CredentialsProvider.lookupCredentials(StandardUsernamePasswordCredentials.class, job , ACL.SYSTEM,
-							URIRequirementBuilder.fromUri(serverUri).build());
-			StandardUsernamePasswordCredentials credentials = CredentialsMatchers.firstOrNull(allMatchingCredentials, 
-							CredentialsMatchers.withId(credentialsId));
+			String context = job == null ? "" : "job " + job.getFullName(); //$NON-NLS-1$ //$NON-NLS-2$
+			StandardUsernamePasswordCredentials credentials = CredentialsCache.get(context, credentialsId, serverUri);
+			if (credentials == null) {
+				List<StandardUsernamePasswordCredentials> allMatchingCredentials = CredentialsProvider.lookupCredentials(StandardUsernamePasswordCredentials.class, job , ACL.SYSTEM,
+								URIRequirementBuilder.fromUri(serverUri).build());
+				credentials = CredentialsMatchers.firstOrNull(allMatchingCredentials, 
+								CredentialsMatchers.withId(credentialsId));
+				if (credentials != null) {
+					CredentialsCache.put(context, credentialsId, serverUri, credentials);
+				}
+			}
 			if (credentials != null) {
 				this.userId = credentials.getUsername();
 				this.password = credentials.getPassword().getPlainText();
@@ -92,7 +100,15 @@ public class RTCLoginInfo {
 			}
 
 			
-			StandardUsernamePasswordCredentials credentials = CredentialsProvider.findCredentialById(credentialsId, StandardUsernamePasswordCredentials.class, build, URIRequirementBuilder.fromUri(serverUri).build());
+			// keyed by build, the credentials may come from its parameters
+			String context = "run " + build.getExternalizableId(); //$NON-NLS-1$
+			StandardUsernamePasswordCredentials credentials = CredentialsCache.get(context, credentialsId, serverUri);
+			if (credentials == null) {
+				credentials = CredentialsProvider.findCredentialById(credentialsId, StandardUsernamePasswordCredentials.class, build, URIRequirementBuilder.fromUri(serverUri).build());
+				if (credentials != null) {
+					CredentialsCache.put(context, credentialsId, serverUri, credentials);
+				}
+			}
 			
 			if (credentials != null) {
 				this.userId = credentials.getUsername();
@@ -0,0 +1,483 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.http.NameValuePair;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.message.BasicNameValuePair;
+
+import com.ibm.team.git.build.hjplugin.http.HttpUtils;
+import com.ibm.team.git.build.hjplugin.http.RtcHttpStatusException;
+
+import hudson.XmlFile;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.model.Jenkins;
+import jenkins.util.Timer;
+
+/**
+ * Durable queue of the requests that publish the outcome of a build to RTC
+ * (change set links, work item comments, build completion).
+ *
+ * Each request is written to its own file under
+ * <code>JENKINS_HOME/rtc-git-outbox</code> before it is sent, so the build does
+ * not wait for the RTC server and a request that could not be delivered yet is
+ * sent again after a restart. The requests of a build for the same target (an
+ * RTC build result or work item) are sent one at a time in the order they
+ * were queued, so e.g. the "started" comment on a work item always lands
+ * before the "completed" one; requests for different targets, servers or
+ * builds are sent in parallel by at most <code>threads</code> worker threads.
+ * At most <code>queueSize</code> targets wait for a free worker thread, the
+ * others are tried again after <code>retryDelay</code> seconds.
+ *
+ * The delivery of the requests that complete a build is shown by the
+ * {@link RTCCompletionAction} badge of the build.
+ *
+ * A request that fails because the server could not be reached (or answered
+ * with a 5xx) is retried after a delay that doubles with every attempt, from
+ * <code>retryDelay</code> up to <code>maxRetryDelay</code> seconds. It is
+ * dropped after <code>maxAttempts</code> attempts or when the server rejects
+ * it.
+ *
+ * Passwords are never written to disk: the credentials are looked up again
+ * when the request is sent, in the context of the build or of its job.
+ *
+ * The settings are read from system properties prefixed with the name of this
+ * class.
+ */
+public final class RTCOutbox {
+
+	private static final Logger LOGGER = Logger.getLogger(RTCOutbox.class.getName());
+
+	private static final String PROPERTY_PREFIX = RTCOutbox.class.getName() + "."; //$NON-NLS-1$
+
+	private static final int THREADS = Math.max(1, Integer.getInteger(PROPERTY_PREFIX + "threads", 4)); //$NON-NLS-1$
+
+	private static final int QUEUE_SIZE = Math.max(1, Integer.getInteger(PROPERTY_PREFIX + "queueSize", 1000)); //$NON-NLS-1$
+
+	static final int MAX_ATTEMPTS = Math.max(1, Integer.getInteger(PROPERTY_PREFIX + "maxAttempts", 12)); //$NON-NLS-1$
+
+	private static final long RETRY_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(
+			Math.max(1, Integer.getInteger(PROPERTY_PREFIX + "retryDelay", 30))); //$NON-NLS-1$
+
+	private static final long MAX_RETRY_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(
+			Math.max(1, Integer.getInteger(PROPERTY_PREFIX + "maxRetryDelay", 3600))); //$NON-NLS-1$
+
+	private static final String DIRECTORY_NAME = "rtc-git-outbox"; //$NON-NLS-1$
+
+	private static final String FILE_EXTENSION = ".xml"; //$NON-NLS-1$
+
+	private static RTCOutbox instance;
+
+	/**
+	 * A request waiting to be sent. Persisted with XStream.
+	 */
+	static final class Entry {
+		private final String id;
+		private final long created;
+		private final long sequence;
+		private final String serverURI;
+		private final String credentialsId;
+		/**
+		 * Whether the credentials are looked up in the context of the job
+		 * instead of the build
+		 */
+		private final boolean jobCredentials;
+		private final int timeout;
+		private final String jobName;
+		private final String runId;
+		/**
+		 * The key of the queue of the entry. <code>null</code> for entries
+		 * persisted before requests were queued per target.
+		 */
+		private final String queueKey;
+		private final String service;
+		private final String[] paramNames;
+		private final String[] paramValues;
+		private final String failureMessage;
+		private final boolean completion;
+		int attempts;
+
+		Entry(Run<?, ?> run, String serverURI, String target, String credentialsId,
+				boolean jobCredentials, int timeout, String service, List<NameValuePair> params,
+				String failureMessage, boolean completion, long sequence) {
+			this.id = UUID.randomUUID().toString();
+			this.created = System.currentTimeMillis();
+			this.sequence = sequence;
+			this.serverURI = serverURI;
+			this.credentialsId = credentialsId;
+			this.jobCredentials = jobCredentials;
+			this.timeout = timeout;
+			this.jobName = run.getParent().getFullName();
+			this.runId = run.getExternalizableId();
+			this.queueKey = runId + ' ' + serverURI + ' ' + (target == null ? "" : target); //$NON-NLS-1$
+			this.service = service;
+			this.paramNames = new String[params.size()];
+			this.paramValues = new String[params.size()];
+			for (int i = 0; i < params.size(); i++) {
+				paramNames[i] = params.get(i).getName();
+				paramValues[i] = params.get(i).getValue();
+			}
+			this.failureMessage = failureMessage;
+			this.completion = completion;
+		}
+
+		/**
+		 * @return The key of the queue of the entry. Entries with the same key
+		 *         are sent in order.
+		 */
+		String getKey() {
+			return queueKey != null ? queueKey : runId;
+		}
+
+		long getCreated() {
+			return created;
+		}
+
+		List<NameValuePair> getParams() {
+			List<NameValuePair> params = new ArrayList<NameValuePair>(paramNames.length);
+			for (int i = 0; i < paramNames.length; i++) {
+				params.add(new BasicNameValuePair(paramNames[i], paramValues[i]));
+			}
+			return params;
+		}
+
+		@Override
+		public String toString() {
+			return service + " for " + runId + " on " + serverURI; //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	private final File directory;
+	private final ExecutorService workers;
+	private final AtomicLong sequence = new AtomicLong();
+
+	/**
+	 * The pending entries of each key, in the order they are sent. Guarded by
+	 * <code>this</code>.
+	 */
+	private final Map<String, ArrayDeque<Entry>> queues = new HashMap<String, ArrayDeque<Entry>>();
+	private int depth;
+
+	RTCOutbox(File directory) {
+		this.directory = directory;
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS, 60L, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<Runnable>(QUEUE_SIZE),
+				new NamingThreadFactory(new DaemonThreadFactory(), "RTC outbox")); //$NON-NLS-1$
+		executor.allowCoreThreadTimeOut(true);
+		this.workers = executor;
+	}
+
+	/**
+	 * @return The outbox of this Jenkins instance
+	 */
+	public static synchronized RTCOutbox get() {
+		if (instance == null) {
+			instance = new RTCOutbox(new File(Jenkins.get().getRootDir(), DIRECTORY_NAME));
+		}
+		return instance;
+	}
+
+	/**
+	 * Resume sending the requests that were still queued when Jenkins stopped
+	 */
+	@Initializer(after = InitMilestone.JOB_LOADED)
+	public static void load() {
+		get().reload();
+	}
+
+	/**
+	 * Queue a POST request to the RTC server, sent with the credentials of the
+	 * build. See
+	 * {@link #enqueue(Run, String, String, String, boolean, int, String, List, String, boolean, TaskListener)}
+	 */
+	public void enqueue(Run<?, ?> run, String serverURI, String target, String credentialsId,
+			int timeout, String service, List<NameValuePair> params, String failureMessage,
+			boolean completion, TaskListener listener) {
+		enqueue(run, serverURI, target, credentialsId, false, timeout, service, params,
+				failureMessage, completion, listener);
+	}
+
+	/**
+	 * Queue a POST request to the RTC server. The request is persisted before
+	 * this method returns and sent in the background.
+	 *
+	 * @param run The build the request is made for
+	 * @param serverURI The RTC server
+	 * @param target What the request is made for (an RTC build result or work
+	 *            item), the requests of the build for the same target are
+	 *            sent in order. May be <code>null</code>.
+	 * @param credentialsId The id of the credentials to log in with
+	 * @param jobCredentials <code>true</code> to look up the credentials in
+	 *            the context of the job instead of the build
+	 * @param timeout The timeout of the request in seconds
+	 * @param service The relative URI of the service
+	 * @param params The parameters of the request
+	 * @param failureMessage What to log if the request cannot be delivered
+	 * @param completion <code>true</code> if the request is part of the
+	 *            completion of the build, shown by its
+	 *            {@link RTCCompletionAction}
+	 * @param listener The listener of the build. May be <code>null</code>
+	 */
+	public void enqueue(Run<?, ?> run, String serverURI, String target, String credentialsId,
+			boolean jobCredentials, int timeout, String service, List<NameValuePair> params,
+			String failureMessage, boolean completion, TaskListener listener) {
+		Entry entry = new Entry(run, serverURI, target, credentialsId, jobCredentials, timeout,
+				service, params, failureMessage, completion, sequence.incrementAndGet());
+		if (completion) {
+			RTCCompletionAction.queued(run);
+		}
+		save(entry);
+		add(entry);
+		if (listener != null) {
+			listener.getLogger().println(Messages.RTCOutbox_queued(service, serverURI));
+		}
+	}
+
+	/**
+	 * @return The number of requests that have not been delivered yet
+	 */
+	public synchronized int getQueueDepth() {
+		return depth;
+	}
+
+	/**
+	 * @return When the oldest request that has not been delivered yet was
+	 *         queued, <code>0</code> if there is none
+	 */
+	public synchronized long getOldestEntryTime() {
+		long oldest = 0;
+		for (ArrayDeque<Entry> queue : queues.values()) {
+			Entry head = queue.peekFirst();
+			if (head != null && (oldest == 0 || head.getCreated() < oldest)) {
+				oldest = head.getCreated();
+			}
+		}
+		return oldest;
+	}
+
+	void reload() {
+		File[] files = directory.listFiles((dir, name) -> name.endsWith(FILE_EXTENSION));
+		if (files == null || files.length == 0) {
+			return;
+		}
+		List<Entry> entries = new ArrayList<Entry>(files.length);
+		for (File file : files) {
+			try {
+				entries.add((Entry) new XmlFile(Jenkins.XSTREAM2, file).read());
+			} catch (IOException | RuntimeException e) {
+				LOGGER.log(Level.WARNING, "Discarding unreadable RTC outbox entry " + file, e); //$NON-NLS-1$
+				delete(file);
+			}
+		}
+		entries.sort(Comparator.comparingLong((Entry entry) -> entry.created)
+				.thenComparingLong(entry -> entry.sequence));
+		LOGGER.info("Resuming delivery of " + entries.size() + " queued RTC requests"); //$NON-NLS-1$ //$NON-NLS-2$
+		for (Entry entry : entries) {
+			add(entry);
+		}
+	}
+
+	private void add(Entry entry) {
+		boolean start;
+		synchronized (this) {
+			ArrayDeque<Entry> queue = queues.get(entry.getKey());
+			start = queue == null;
+			if (start) {
+				queue = new ArrayDeque<Entry>();
+				queues.put(entry.getKey(), queue);
+			}
+			queue.addLast(entry);
+			depth++;
+		}
+		if (start) {
+			schedule(entry.getKey());
+		}
+	}
+
+	private void schedule(String key) {
+		try {
+			workers.execute(() -> drain(key));
+		} catch (RejectedExecutionException e) {
+			// the entries are kept, only the worker has to wait
+			LOGGER.fine("All RTC outbox workers are busy, retrying " + key + " later"); //$NON-NLS-1$ //$NON-NLS-2$
+			Timer.get().schedule(() -> schedule(key), RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Send the entries of a key until its queue is empty or an entry has to be
+	 * retried later. Only one thread drains a key at any time.
+	 */
+	private void drain(String key) {
+		while (true) {
+			Entry entry;
+			synchronized (this) {
+				ArrayDeque<Entry> queue = queues.get(key);
+				entry = queue.peekFirst();
+			}
+			if (!deliver(entry)) {
+				long delay = getRetryDelay(entry.attempts);
+				if (LOGGER.isLoggable(Level.FINE)) {
+					LOGGER.fine("Retrying " + entry + " in " + delay + " ms after attempt " + entry.attempts); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				}
+				save(entry);
+				Timer.get().schedule(() -> schedule(key), delay, TimeUnit.MILLISECONDS);
+				return;
+			}
+			delete(getFile(entry));
+			synchronized (this) {
+				ArrayDeque<Entry> queue = queues.get(key);
+				queue.pollFirst();
+				depth--;
+				if (queue.isEmpty()) {
+					queues.remove(key);
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Send an entry
+	 *
+	 * @return <code>true</code> if the entry is done with (delivered or
+	 *         dropped), <code>false</code> if it should be retried
+	 */
+	private boolean deliver(Entry entry) {
+		entry.attempts++;
+		try {
+			RTCLoginInfo loginInfo = getLoginInfo(entry);
+			if (loginInfo == null) {
+				LOGGER.warning(entry.failureMessage + " The build " + entry.runId + " no longer exists."); //$NON-NLS-1$ //$NON-NLS-2$
+				return true;
+			}
+			HttpClientContext httpContext = HttpUtils.getSessionContext(entry.serverURI,
+					loginInfo.getUserId(), loginInfo.getPassword(), entry.timeout);
+			HttpUtils.performPost(entry.serverURI, entry.service, loginInfo.getUserId(),
+					loginInfo.getPassword(), entry.timeout, entry.getParams(), null, httpContext);
+			if (LOGGER.isLoggable(Level.FINE)) {
+				LOGGER.fine("Delivered " + entry + " after " + entry.attempts + " attempt(s)"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+			recordCompletion(entry, true);
+			return true;
+		} catch (Exception e) {
+			if (entry.attempts >= MAX_ATTEMPTS || isRejected(e)) {
+				LOGGER.log(Level.WARNING, entry.failureMessage + " Giving up on " + entry //$NON-NLS-1$
+						+ " after " + entry.attempts + " attempt(s).", e); //$NON-NLS-1$ //$NON-NLS-2$
+				recordCompletion(entry, false);
+				return true;
+			}
+			LOGGER.log(Level.FINE, "Failed to deliver " + entry, e); //$NON-NLS-1$
+			return false;
+		}
+	}
+
+	/**
+	 * Look up the credentials of an entry the way the build would have
+	 *
+	 * @return <code>null</code> if neither the build nor its job exist anymore
+	 */
+	private static RTCLoginInfo getLoginInfo(Entry entry) throws InvalidCredentialsException {
+		try (ACLContext context = ACL.as2(ACL.SYSTEM2)) {
+			Run<?, ?> run = Run.fromExternalizableId(entry.runId);
+			if (run != null && !entry.jobCredentials) {
+				return new RTCLoginInfo(run, entry.serverURI, entry.credentialsId, entry.timeout);
+			}
+			Job<?, ?> job = run != null ? run.getParent()
+					: Jenkins.get().getItemByFullName(entry.jobName, Job.class);
+			if (job != null) {
+				return new RTCLoginInfo(job, entry.serverURI, entry.credentialsId, entry.timeout);
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Update the {@link RTCCompletionAction} of the build of a completion
+	 * request that is done with
+	 */
+	private static void recordCompletion(Entry entry, boolean delivered) {
+		if (!entry.completion) {
+			return;
+		}
+		try (ACLContext context = ACL.as2(ACL.SYSTEM2)) {
+			Run<?, ?> run = Run.fromExternalizableId(entry.runId);
+			if (run != null) {
+				RTCCompletionAction.done(run, delivered);
+			}
+		} catch (RuntimeException e) {
+			// the request is done with, it must not be sent again
+			LOGGER.log(Level.WARNING, "Unable to record the RTC completion status of " + entry.runId, e); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if the server answered and refused the request
+	 *         or the credentials are missing or refused, so sending it again
+	 *         does not help
+	 */
+	static boolean isRejected(Exception e) {
+		if (e instanceof InvalidCredentialsException || e instanceof org.apache.http.auth.InvalidCredentialsException) {
+			// every retry would be another failed login
+			return true;
+		}
+		return e instanceof RtcHttpStatusException && ((RtcHttpStatusException) e).getStatusCode() < 500;
+	}
+
+	static long getRetryDelay(int attempts) {
+		return Math.min(MAX_RETRY_DELAY_MILLIS, RETRY_DELAY_MILLIS << Math.min(attempts - 1, 20));
+	}
+
+	private File getFile(Entry entry) {
+		return new File(directory, entry.id + FILE_EXTENSION);
+	}
+
+	void save(Entry entry) {
+		try {
+			new XmlFile(Jenkins.XSTREAM2, getFile(entry)).write(entry);
+		} catch (IOException e) {
+			// still send it, it is only lost if Jenkins stops first
+			LOGGER.log(Level.WARNING, "Unable to persist RTC outbox entry " + entry, e); //$NON-NLS-1$
+		}
+	}
+
+	private static void delete(File file) {
+		if (!file.delete() && file.exists()) {
+			LOGGER.warning("Unable to delete RTC outbox entry " + file); //$NON-NLS-1$
+		}
+	}
+}
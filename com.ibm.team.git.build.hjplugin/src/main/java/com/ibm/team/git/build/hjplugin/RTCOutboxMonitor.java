@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import hudson.Extension;
+import hudson.model.AdministrativeMonitor;
+
+/**
+ * Tells the administrators when requests to RTC servers have been waiting in
+ * the {@link RTCOutbox} for more than <code>warnAfter</code> minutes (default
+ * 10), which means an RTC server has been unavailable for a while.
+ */
+@Extension
+public class RTCOutboxMonitor extends AdministrativeMonitor {
+
+	private static final long WARN_AFTER = TimeUnit.MINUTES.toMillis(
+			Integer.getInteger(RTCOutboxMonitor.class.getName() + ".warnAfter", 10)); //$NON-NLS-1$
+
+	@Override
+	public String getDisplayName() {
+		return Messages.RTCOutboxMonitor_display_name();
+	}
+
+	@Override
+	public boolean isActivated() {
+		long oldest = RTCOutbox.get().getOldestEntryTime();
+		return oldest != 0 && System.currentTimeMillis() - oldest > WARN_AFTER;
+	}
+
+	/**
+	 * @return The message shown to the administrators
+	 */
+	public String getMessage() {
+		RTCOutbox outbox = RTCOutbox.get();
+		return Messages.RTCOutboxMonitor_message(outbox.getQueueDepth(), new Date(outbox.getOldestEntryTime()));
+	}
+}
@@ -36,6 +36,13 @@ public class RTCRunListener extends RunListener<Run<?, ?>> {
 	@Override
 	public void onStarted(Run<?, ?> build, TaskListener listener) {
 		LOGGER.finest("RTCRunListener.onStarted : Begin");
+		// resolved once for all the RTCGitBuilders of the project
+		try (Helper.MemoizedEnvironment environment = Helper.memoizeEnvironment(build)) {
+			startBuilders(build, listener);
+		}
+	}
+
+	private void startBuilders(Run<?, ?> build, TaskListener listener) {
 		if(build.getParent() instanceof FreeStyleProject) {
 			FreeStyleProject project = (FreeStyleProject)build.getParent();
 			List<Builder> list = project.getBuilders();
@@ -58,27 +65,24 @@ public class RTCRunListener extends RunListener<Run<?, ?>> {
 						build.addAction(bAction);
 						g.setBuildParameterAction(bAction);
 						
-						RTCLoginInfo loginInfo = null;
-						
-						loginInfo = new RTCLoginInfo(build.getParent(),
-								bAction.getRtcURL(),
-								bAction.getCredentialsId(),
-								bAction.getTimeout());
+						// queued in the outbox instead of sent, so a slow RTC
+						// server does not hold up the start of the build. The
+						// credentials are looked up in the context of the job, as before
 						RTCConnector rCon = new RTCConnector(
 								bAction.getRtcURL(),
-								loginInfo.getUserId(), loginInfo.getPassword(),
-								loginInfo.getTimeout(), null, null, false,
+								null, null,
+								bAction.getTimeout(), null, null, false,
 								bAction.getRtcBuildUUID(), null, null, null, bAction.iOwnBuildCycle());
 						
 						if (bAction.getTrackbuildWi() != null) {
-							rCon.updateWorkItem(listener.getLogger(),
+							rCon.queueUpdateWorkItem(build, bAction.getCredentialsId(), true,
 									resolvedTrackBuildWorkItem, RTCUtils
 									.getBuildStartedComment(listener
 											.getLogger(), RTCUtils
 											.getFullBuildURL(build, null,
 													logger), build
 											.getFullDisplayName(), null,
-											RTCUtils.getBuildUser(build)));									
+											RTCUtils.getBuildUser(build)), false, listener);									
 						}
 					}
 					catch (Exception e) {
@@ -103,24 +107,22 @@ public class RTCRunListener extends RunListener<Run<?, ?>> {
 					.getActions(BuildParameterAction.class);
 			if (bActions != null) {
 				for (BuildParameterAction bAction : bActions) {
-					RTCLoginInfo loginInfo = new RTCLoginInfo(build,
-							bAction.getRtcURL(),
-							bAction.getCredentialsId(),
-							bAction.getTimeout());
+					// only queued here, the outbox looks up the credentials when
+					// it sends the requests
 					RTCConnector rCon = new RTCConnector(
 							bAction.getRtcURL(),
-							loginInfo.getUserId(), loginInfo.getPassword(),
-							loginInfo.getTimeout(), null, null, false,
+							null, null,
+							bAction.getTimeout(), null, null, false,
 							bAction.getRtcBuildUUID(), null, null, null, bAction.iOwnBuildCycle());
-					rCon.completeBuild(listener.getLogger(),
-							getBuildResult(build.getResult()));
+					rCon.queueCompleteBuild(build, bAction.getCredentialsId(),
+							getBuildResult(build.getResult()), listener);
 					if (bAction.getTrackbuildWi() != null) {
-						rCon.updateWorkItem(listener.getLogger(), bAction
+						rCon.queueUpdateWorkItem(build, bAction.getCredentialsId(), bAction
 									.getTrackbuildWi(), RTCUtils
 									.getCompleteBuildComment(RTCUtils
 											.getFullBuildURL(build, null, null),
 											build.getFullDisplayName(),
-											getBuildStatus(build.getResult())));
+											getBuildStatus(build.getResult())), true, listener);
 					}
 				}
 			}
@@ -145,6 +147,11 @@ public class RTCRunListener extends RunListener<Run<?, ?>> {
 		return ""; //$NON-NLS-1$
 	}
 
+	@Override
+	public void onFinalized(Run<?, ?> build) {
+		RTCBuildContext.release(build);
+	}
+
 	@Override
 	public void onDeleted(Run<?, ?> r) {
 		super.onDeleted(r);
@@ -24,18 +24,17 @@ import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import jenkins.model.Jenkins;
 
 import org.acegisecurity.context.SecurityContextHolder;
 import com.ibm.team.git.build.hjplugin.scm.ChangeSetData;
 import com.ibm.team.git.build.hjplugin.util.RTCHttpConstants;
+import com.ibm.team.git.build.hjplugin.util.WorkItemExtractor;
+import com.ibm.team.git.build.hjplugin.util.WorkItemIdCache;
+import com.ibm.team.git.build.hjplugin.util.WorkItemIdCollector;
 
 /**
  *
@@ -77,6 +76,9 @@ public class RTCUtils {
 	private static List<String> KEYS = Arrays.asList(new String[] { BUG_KEY, TASK_KEY, DEFECT_KEY, WORKITEM_KEY,
 			RTCWI_KEY, WI_KEY, WORK_SPACE_ITEM_KEY, WORK_HYPHEN_ITEM_KEY, ITEM_KEY, ISSUE_KEY, FEATURE_KEY, EWM_KEY,
 			STORY_KEY, EPIC_KEY, TESTPLAN_KEY, TEST_SPACE_PLAN_KEY, TEST_HYPHEN_PLAN_KEY, CCB_KEY });
+	private static final WorkItemExtractor WORK_ITEM_EXTRACTOR = new WorkItemExtractor(KEYS);
+	// the cached ids depend on the keywords, so the cache goes with the extractor
+	private static final WorkItemIdCache WORK_ITEM_ID_CACHE = new WorkItemIdCache(WORK_ITEM_EXTRACTOR);
 	private static List<Character> PCHARS = Arrays.asList(new Character[] {
 			',', ':', ';' });
 
@@ -188,77 +190,52 @@ public class RTCUtils {
 	}
 
 	public static String[] getAllWorkItems(List<ChangeSetData> csData) {
-		Set<String> wiSet = new HashSet<String>();
+		WorkItemIdCollector collector = newWorkItemIdCollector();
 		for (ChangeSetData commit : csData) {
-			List<String> wItems = RTCUtils
-					.getWorkItemsFromCommitComment(commit.comment);
-			wiSet.addAll(wItems);
+			collector.add(commit.id, commit.comment);
 		}
-		return wiSet.toArray(new String[0]);
+		return toWorkItems(collector.getIds());
 	}
 
-	public static List<String> getWorkItemsFromCommitComment(
-			String commitComment) {
-		List<String> wiList = getWorkItemList(commitComment);
-		if (wiList != null) {
-			List<String> tList = new ArrayList<String>(wiList.size());
-			for (String wi : wiList) {
-				try {
-					Integer.parseInt(wi);
-					tList.add(wi);
-				} catch (NumberFormatException e) {
-					// do nothing
-				}
-			}
-			return tList;
+	/**
+	 * @return A collector of the distinct work item ids of many commit
+	 *         comments, which scans the comments of very large change logs in
+	 *         parallel and skips the commits it has seen before
+	 */
+	public static WorkItemIdCollector newWorkItemIdCollector() {
+		return new WorkItemIdCollector(WORK_ITEM_ID_CACHE);
+	}
+
+	/**
+	 * @param ids Work item ids
+	 * @return The ids as strings, in the same order
+	 */
+	public static String[] toWorkItems(int[] ids) {
+		String[] workItems = new String[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			workItems[i] = Integer.toString(ids[i]);
 		}
-		return null;
+		return workItems;
 	}
 
-	private static List<String> getWorkItemList(String comment) {
-		List<String> wiList = new ArrayList<String>();
-		if (comment != null) {
-		    LOGGER.info(" Comment before replacement " + comment); //$NON-NLS-1$
-			comment = comment.replaceAll("^\"|\"$", ""); //$NON-NLS-1$ //$NON-NLS-2$
-			comment = comment.replaceAll("[\t\n\r]", " "); //$NON-NLS-1$ //$NON-NLS-2$
-			// Replace all "work item" with "workitem"
-			// This enables us to support "work item" as a keyword
-			comment = comment.replaceAll("[Ww][Oo][Rr][Kk] [Ii][Tt][Ee][Mm]", WORKITEM_KEY); //$NON-NLS-1$
-		    LOGGER.info(" Comment after replacement " + comment); //$NON-NLS-1$
-		    
-			// Either hyphen (-), equal (=), colon (:), whitespace ( ), underscore (_), dot
-			// (.), comma (,), semi colon (;) or beginning of the line (^) should present
-			// before detecting keyword
-			final String BEFORE_KEYWORD_REGEX_PART = "(?<=-|=|:|\\s|_|\\.|,|;|^)";
-
-			// Either hyphen (-), equal (=), colon (:), whitespace ( ), underscore (_), dot
-			// (.), comma (,) , semi colon (;) or end of the line ($) should present after
-			// detecting workitem number
-			final String AFTER_WI_ID_REGEX_PART = "(?:-|=|:|\\s|_|\\.|,|;|$)";
-
-			// Either hyphen (-), underscore (_), colon (:), equal (=) or whitespace ( ) can
-			// be used as a separator between keyword and workitem number
-			final String CHAR_BETWEEN_KEYWORD_AND_WORKITEM_NUMBER = "(?:-|_|:|=|\\s+)";
-
-			String wiSeperatedWithPipe = String.join("|", KEYS);
-
-			// Generated regex will look like
-			// (?<=-|=|:|\\s|_|\\.|,|;|^)(?:bug|task|defect|workitem|wi|rtcwi|work
-			// item|work-item|item|issue|feature|ewm|story|epic|testplan|test
-			// plan|test-plan|ccb)(?:-|_|:|=|\\s+)(\\d+)(?:-|=|:|\\s|_|\\.|,|;|$)
-			String pattern = BEFORE_KEYWORD_REGEX_PART + "(?:" + wiSeperatedWithPipe + ")"
-					+ CHAR_BETWEEN_KEYWORD_AND_WORKITEM_NUMBER + "(\\d+)" + AFTER_WI_ID_REGEX_PART;
-
-			Pattern compiledPattern = Pattern.compile(pattern, Pattern.CASE_INSENSITIVE);
-			Matcher matcher = compiledPattern.matcher(comment);
-
-			while (matcher.find()) {
-				wiList.add(matcher.group(1));
-			}
+	public static List<String> getWorkItemsFromCommitComment(
+			String commitComment) {
+		int[] ids = getWorkItemIdsFromCommitComment(commitComment);
+		List<String> wiList = new ArrayList<String>(ids.length);
+		for (int id : ids) {
+			wiList.add(Integer.toString(id));
 		}
 		return wiList;
 	}
 
+	/**
+	 * @param commitComment The comment of a commit
+	 * @return The ids of the work items mentioned in the comment, in order
+	 */
+	public static int[] getWorkItemIdsFromCommitComment(String commitComment) {
+		return WORK_ITEM_EXTRACTOR.extract(commitComment);
+	}
+
 	public static boolean isClassExists(String name) {
 		try {
 			Class.forName(name);
@@ -0,0 +1,310 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.team.git.build.hjplugin;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Set;
+
+import net.sf.json.JSONException;
+
+/**
+ * Single pass reader of a JSON document which only keeps the object members
+ * we are interested in.
+ *
+ * Members of objects whose name is not one of the kept names are skipped
+ * without being buffered. The value of a kept member is kept; if it is an
+ * object its members are filtered the same way, if it is an array it is kept
+ * in full. The result is the JSON text of what was kept, so the (small) result
+ * can be handed to json-lib and is interpreted the same way as the whole
+ * document would have been.
+ *
+ * Reading more than the given number of characters fails with an
+ * {@link IOException}, so a huge response cannot exhaust the memory.
+ */
+final class RtcJsonReader {
+
+	private static final int MAX_DEPTH = 256;
+
+	private final Reader reader;
+	private final Set<String> keptNames;
+	private final long maxChars;
+	private final StringBuilder out = new StringBuilder();
+	private long charsRead;
+	private int peeked = -2;
+	private int depth;
+
+	private RtcJsonReader(Reader reader, Set<String> keptNames, long maxChars) {
+		this.reader = reader;
+		this.keptNames = keptNames;
+		this.maxChars = maxChars;
+	}
+
+	/**
+	 * Read a JSON document and return the text of the parts that are kept
+	 *
+	 * @param reader The document. Not closed.
+	 * @param keptNames The names of the object members to keep
+	 * @param maxChars The maximum number of characters to read
+	 * @return The JSON text of the kept parts. Empty if the document is empty.
+	 * @throws IOException If reading fails or the document is too large
+	 * @throws JSONException If the document is not valid JSON
+	 */
+	static String prune(Reader reader, Set<String> keptNames, long maxChars) throws IOException {
+		RtcJsonReader jsonReader = new RtcJsonReader(reader, keptNames, maxChars);
+		jsonReader.skipWhitespace();
+		if (jsonReader.peek() != -1) {
+			jsonReader.copyValue(true);
+			jsonReader.skipWhitespace();
+			if (jsonReader.peek() != -1) {
+				throw jsonReader.syntaxError("end of document"); //$NON-NLS-1$
+			}
+		}
+		return jsonReader.out.toString();
+	}
+
+	private void copyValue(boolean filter) throws IOException {
+		int c = peek();
+		if (c == '{') {
+			copyObject(filter);
+		} else if (c == '[') {
+			copyArray();
+		} else if (c == '"') {
+			readString(out, null);
+		} else {
+			copyLiteral();
+		}
+	}
+
+	private void copyObject(boolean filter) throws IOException {
+		enter();
+		expect('{');
+		out.append('{');
+		boolean first = true;
+		skipWhitespace();
+		if (peek() == '}') {
+			read();
+		} else {
+			StringBuilder rawName = new StringBuilder();
+			StringBuilder name = new StringBuilder();
+			while (true) {
+				skipWhitespace();
+				rawName.setLength(0);
+				name.setLength(0);
+				readString(rawName, name);
+				skipWhitespace();
+				expect(':');
+				skipWhitespace();
+				if (!filter || keptNames.contains(name.toString())) {
+					if (!first) {
+						out.append(',');
+					}
+					out.append(rawName).append(':');
+					copyValue(filter);
+					first = false;
+				} else {
+					skipValue();
+				}
+				skipWhitespace();
+				int c = read();
+				if (c == '}') {
+					break;
+				} else if (c != ',') {
+					throw syntaxError("',' or '}'"); //$NON-NLS-1$
+				}
+			}
+		}
+		out.append('}');
+		depth--;
+	}
+
+	private void copyArray() throws IOException {
+		enter();
+		expect('[');
+		out.append('[');
+		skipWhitespace();
+		if (peek() == ']') {
+			read();
+		} else {
+			while (true) {
+				skipWhitespace();
+				copyValue(false);
+				skipWhitespace();
+				int c = read();
+				if (c == ']') {
+					break;
+				} else if (c != ',') {
+					throw syntaxError("',' or ']'"); //$NON-NLS-1$
+				}
+				out.append(',');
+			}
+		}
+		out.append(']');
+		depth--;
+	}
+
+	private void copyLiteral() throws IOException {
+		int start = out.length();
+		while (true) {
+			int c = peek();
+			if (c == -1 || c == ',' || c == '}' || c == ']' || isWhitespace(c)) {
+				break;
+			}
+			out.append((char) read());
+		}
+		if (out.length() == start) {
+			throw syntaxError("value"); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Skip a value of any kind without keeping any of it
+	 */
+	private void skipValue() throws IOException {
+		int nesting = 0;
+		while (true) {
+			int c = peek();
+			if (c == -1) {
+				throw syntaxError("value"); //$NON-NLS-1$
+			} else if (c == '"') {
+				readString(null, null);
+			} else if (c == '{' || c == '[') {
+				read();
+				nesting++;
+			} else if (c == '}' || c == ']') {
+				if (nesting == 0) {
+					// end of the enclosing object or array
+					return;
+				}
+				read();
+				nesting--;
+			} else if (c == ',' && nesting == 0) {
+				return;
+			} else {
+				read();
+			}
+			if (nesting == 0 && (c == '"' || c == '}' || c == ']')) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Read a string. The raw text (including the quotes and escapes) is appended
+	 * to <code>raw</code> and the decoded value to <code>decoded</code>. Either
+	 * may be <code>null</code>.
+	 */
+	private void readString(StringBuilder raw, StringBuilder decoded) throws IOException {
+		expect('"');
+		append(raw, '"');
+		while (true) {
+			int c = read();
+			if (c == -1) {
+				throw syntaxError("'\"'"); //$NON-NLS-1$
+			}
+			append(raw, c);
+			if (c == '"') {
+				return;
+			}
+			if (c != '\\') {
+				append(decoded, c);
+				continue;
+			}
+			int escaped = read();
+			if (escaped == -1) {
+				throw syntaxError("escape sequence"); //$NON-NLS-1$
+			}
+			append(raw, escaped);
+			switch (escaped) {
+			case 'b':
+				append(decoded, '\b');
+				break;
+			case 'f':
+				append(decoded, '\f');
+				break;
+			case 'n':
+				append(decoded, '\n');
+				break;
+			case 'r':
+				append(decoded, '\r');
+				break;
+			case 't':
+				append(decoded, '\t');
+				break;
+			case 'u':
+				int code = 0;
+				for (int i = 0; i < 4; i++) {
+					int hex = read();
+					int digit = hex == -1 ? -1 : Character.digit(hex, 16);
+					if (digit < 0) {
+						throw syntaxError("hex digit"); //$NON-NLS-1$
+					}
+					append(raw, hex);
+					code = (code << 4) + digit;
+				}
+				append(decoded, code);
+				break;
+			default:
+				append(decoded, escaped);
+				break;
+			}
+		}
+	}
+
+	private static void append(StringBuilder builder, int c) {
+		if (builder != null) {
+			builder.append((char) c);
+		}
+	}
+
+	private void enter() {
+		if (++depth > MAX_DEPTH) {
+			throw new JSONException("JSON nested deeper than " + MAX_DEPTH + " levels"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	private void expect(char expected) throws IOException {
+		if (read() != expected) {
+			throw syntaxError("'" + expected + "'"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	private void skipWhitespace() throws IOException {
+		while (isWhitespace(peek())) {
+			read();
+		}
+	}
+
+	private static boolean isWhitespace(int c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+	}
+
+	private int peek() throws IOException {
+		if (peeked == -2) {
+			peeked = reader.read();
+			if (peeked != -1 && ++charsRead > maxChars) {
+				throw new IOException(Messages.RtcJsonUtil_response_too_large(maxChars));
+			}
+		}
+		return peeked;
+	}
+
+	private int read() throws IOException {
+		int c = peek();
+		peeked = -2;
+		return c;
+	}
+
+	private JSONException syntaxError(String expected) {
+		return new JSONException("Expected " + expected + " at character " + charsRead); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
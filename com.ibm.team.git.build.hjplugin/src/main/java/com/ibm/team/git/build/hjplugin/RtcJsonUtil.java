@@ -11,8 +11,13 @@
 
 package com.ibm.team.git.build.hjplugin;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.security.GeneralSecurityException;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -34,6 +39,29 @@ public class RtcJsonUtil {
 	private static final String JSON_PROP_MESSAGE = "message"; //$NON-NLS-1$
 	private static final String JSON_PROP_URI = "uri"; //$NON-NLS-1$
 	public static final String HTTP_ERROR_MSG_VERSION_INCOMPATIBLE = "Messages.RTCFacadeFacade_incompatible2(serverVersion)"; //$NON-NLS-1$
+
+	/**
+	 * The JSON fields read from RTC responses. Anything else is dropped while
+	 * the response is read.
+	 */
+	private static final Set<String> RESPONSE_FIELDS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+			"soapenv:Body", "response", "returnValue", "value", "values", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+			JSON_PROP_COMPATIBLE, JSON_PROP_IS_JTS, JSON_PROP_SERVER_VERSION, JSON_PROP_MESSAGE, JSON_PROP_URI,
+			"buildDefinition", "itemId", "id"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+	/**
+	 * Read a RTC response without buffering all of it. Only the fields used by
+	 * the plugin are kept, the rest is skipped as it is read.
+	 * 
+	 * @param reader The response. Not closed.
+	 * @param maxChars The maximum size of the response in characters
+	 * @return The response with the fields used by the plugin
+	 * @throws IOException If reading fails or the response is larger than
+	 *             <code>maxChars</code>
+	 */
+	public static JSON readJson(Reader reader, long maxChars) throws IOException {
+		return JSONSerializer.toJSON(RtcJsonReader.prune(reader, RESPONSE_FIELDS, maxChars));
+	}
 	
 	public static String getReturnValue(String jsonStr) {
 		return getReturnValue(JSONSerializer.toJSON(jsonStr));
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.apache.http.auth.InvalidCredentialsException;
+
+import com.ibm.team.git.build.hjplugin.util.ExpiringCache;
+
+/**
+ * The work items of an RTC server as seen by one user: their details ("id:
+ * summary") as shown in the change log.
+ *
+ * Work items that do not exist are remembered for a shorter time, so an id
+ * that is mentioned in a commit but unknown to RTC is not requested again by
+ * every build. Failed requests are not cached.
+ *
+ * The settings are read from system properties prefixed with the name of this
+ * class: <code>maxEntries</code>, <code>ttl</code> and
+ * <code>negativeTtl</code> (in seconds).
+ */
+final class WorkItemDetailsCache {
+
+	private static final String PROPERTY_PREFIX = WorkItemDetailsCache.class.getName() + "."; //$NON-NLS-1$
+
+	private static final int MAX_ENTRIES = Math.max(0, Integer.getInteger(PROPERTY_PREFIX + "maxEntries", 5000)); //$NON-NLS-1$
+
+	private static final long TTL_MILLIS = TimeUnit.SECONDS.toMillis(
+			Integer.getInteger(PROPERTY_PREFIX + "ttl", 600)); //$NON-NLS-1$
+
+	private static final long NEGATIVE_TTL_MILLIS = TimeUnit.SECONDS.toMillis(
+			Integer.getInteger(PROPERTY_PREFIX + "negativeTtl", 60)); //$NON-NLS-1$
+
+	private static final Map<String, WorkItemDetailsCache> CACHES = new ConcurrentHashMap<String, WorkItemDetailsCache>();
+
+	/**
+	 * Requests the details of work items from RTC
+	 */
+	interface DetailsRequest {
+		/**
+		 * @return The details ("id: summary") of the work items RTC knows,
+		 *         <code>null</code> if they could not be obtained
+		 */
+		String[] get(String[] workItems) throws IOException, InvalidCredentialsException, GeneralSecurityException;
+	}
+
+	private final ExpiringCache<String, String> details;
+
+	private WorkItemDetailsCache() {
+		this(MAX_ENTRIES, TTL_MILLIS, NEGATIVE_TTL_MILLIS, System::currentTimeMillis);
+	}
+
+	/**
+	 * @param maxEntries The maximum number of details
+	 * @param ttlMillis How long the details are kept
+	 * @param negativeTtlMillis How long unknown work items are remembered
+	 * @param clock The current time in milliseconds
+	 */
+	WorkItemDetailsCache(int maxEntries, long ttlMillis, long negativeTtlMillis, LongSupplier clock) {
+		this.details = new ExpiringCache<String, String>(maxEntries, ttlMillis, negativeTtlMillis, clock);
+	}
+
+	/**
+	 * @param serverURI The URI of the RTC server
+	 * @param userId The user the work items are requested as
+	 * @return The cache of the work items of the server as seen by the user
+	 */
+	static WorkItemDetailsCache get(String serverURI, String userId) {
+		return CACHES.computeIfAbsent(RTCUtils.formatURI(serverURI) + " " + userId, //$NON-NLS-1$
+				key -> new WorkItemDetailsCache());
+	}
+
+	/**
+	 * @return The caches keyed by server URI and user
+	 */
+	static Map<String, WorkItemDetailsCache> getCaches() {
+		return Collections.unmodifiableMap(CACHES);
+	}
+
+	/**
+	 * Get the details of work items, requesting only those which are not
+	 * cached, in a single request
+	 *
+	 * @param workItems The ids of the work items
+	 * @param request Requests the details of the missing work items
+	 * @return The details of the work items that exist, in the order of the
+	 *         ids. <code>null</code> if some were not cached and could not be
+	 *         obtained.
+	 */
+	String[] getDetails(String[] workItems, DetailsRequest request)
+			throws IOException, InvalidCredentialsException, GeneralSecurityException {
+		String[] found = new String[workItems.length];
+		List<String> missing = new ArrayList<String>();
+		for (int i = 0; i < workItems.length; i++) {
+			ExpiringCache.Entry<String> entry = details.get(workItems[i]);
+			if (entry == null) {
+				missing.add(workItems[i]);
+			} else {
+				found[i] = entry.getValue();
+			}
+		}
+		if (!missing.isEmpty()) {
+			String[] fetched = request.get(missing.toArray(new String[0]));
+			if (fetched == null) {
+				return null;
+			}
+			Map<String, String> fetchedById = BuildParameterAction.toWorkItemDetailsById(fetched);
+			for (int i = 0; i < workItems.length; i++) {
+				if (found[i] == null) {
+					found[i] = fetchedById.get(workItems[i]);
+				}
+			}
+			for (String workItem : missing) {
+				// remember the ones RTC does not know too
+				details.put(workItem, fetchedById.get(workItem));
+			}
+		}
+		List<String> result = new ArrayList<String>(workItems.length);
+		for (String detail : found) {
+			if (detail != null) {
+				result.add(detail);
+			}
+		}
+		return result.toArray(new String[0]);
+	}
+
+	/**
+	 * @return The cache of the work item details, for its statistics
+	 */
+	ExpiringCache<String, String> getDetailsCache() {
+		return details;
+	}
+}
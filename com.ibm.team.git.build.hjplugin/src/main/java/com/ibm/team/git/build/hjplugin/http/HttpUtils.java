@@ -1,5 +1,5 @@
 /******************************************************************************
- * Copyright (c) 2013, 2020 IBM Corporation and others.
+ * Copyright (c) 2013, 2026 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,26 +12,42 @@
 package com.ibm.team.git.build.hjplugin.http;
 
 import hudson.model.TaskListener;
+import hudson.util.DaemonThreadFactory;
 import hudson.util.IOUtils;
+import hudson.util.NamingThreadFactory;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.net.UnknownHostException;
 import java.nio.channels.UnresolvedAddressException;
 import java.nio.charset.Charset;
 import java.security.GeneralSecurityException;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
@@ -49,6 +65,7 @@ import net.sf.json.JSONException;
 import net.sf.json.JSONObject;
 import net.sf.json.JSONSerializer;
 
+import org.apache.http.ConnectionClosedException;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHost;
@@ -56,6 +73,7 @@ import org.apache.http.HttpMessage;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
+import org.apache.http.MalformedChunkCodingException;
 import org.apache.http.NameValuePair;
 import org.apache.http.NoHttpResponseException;
 import org.apache.http.auth.AuthState;
@@ -91,7 +109,11 @@ import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.client.utils.HttpClientUtils;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.config.Lookup;
+import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.X509HostnameVerifier;
 import org.apache.http.cookie.Cookie;
@@ -107,7 +129,9 @@ import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.DefaultRedirectStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.protocol.HTTP;
 import org.apache.http.protocol.HttpContext;
 import org.apache.http.protocol.HttpCoreContext;
@@ -159,7 +183,30 @@ public class HttpUtils {
 			.compile("^[Bb][Aa][Ss][Ii][Cc]\\s+.*"); //$NON-NLS-1$
 
 	private static final String LOCATION = "Location"; //$NON-NLS-1$
-	private static CloseableHttpClient HTTP_CLIENT = null;
+	private static final RtcConnectionPools CONNECTION_POOLS = new RtcConnectionPools();
+	private static volatile Registry<ConnectionSocketFactory> SOCKET_FACTORY_REGISTRY;
+
+	/**
+	 * Upper bound on the size (in characters) of a response that is read
+	 */
+	private static final long MAX_RESPONSE_CHARS = Long.getLong(HttpUtils.class.getName() + ".maxResponseChars", 32L * 1024 * 1024); //$NON-NLS-1$
+
+	/**
+	 * Number of threads running the asynchronous requests
+	 */
+	private static final int ASYNC_THREADS = Integer.getInteger(HttpUtils.class.getName() + ".asyncThreads", 8); //$NON-NLS-1$
+
+	/**
+	 * Number of asynchronous requests that may wait for a thread. Requests
+	 * beyond it fail instead of piling up.
+	 */
+	private static final int ASYNC_QUEUE_SIZE = Integer.getInteger(HttpUtils.class.getName() + ".asyncQueueSize", 256); //$NON-NLS-1$
+
+	/**
+	 * Request configurations by timeout (in seconds). They are immutable, so one
+	 * instance per timeout value is shared by all requests.
+	 */
+	private static final Map<Integer, RequestConfig> REQUEST_CONFIGS = new ConcurrentHashMap<Integer, RequestConfig>();
 
 	private static SSLConnectionSocketFactory SSL_CONNECTION_SOCKET_FACTORY;
 	
@@ -171,6 +218,36 @@ public class HttpUtils {
             .asList(new String[] { AuthSchemeBearer, AuthSchemes.SPNEGO, AuthSchemes.BASIC });
  // the default is USERIDPASSWD. This is mostly to cater for JUNITS
     private static volatile AuthenticationType _authenticationType = AuthenticationType.USERIDPASSWD;
+
+    // authenticated sessions reused across requests and builds
+    private static final RtcSessionCache SESSIONS = new RtcSessionCache();
+
+    private static final RtcRequestCoalescer COALESCER = new RtcRequestCoalescer();
+
+    private static final Map<String, RtcCircuitBreaker> CIRCUIT_BREAKERS = new ConcurrentHashMap<String, RtcCircuitBreaker>();
+
+    /**
+     * The kinds of authentication challenge a RTC server can answer with
+     */
+    private enum AuthChallenge {
+        FORM, BASIC, BEARER, APP_PASSWORD
+    }
+
+    /**
+     * How a server challenged us the last time. Used to authenticate up front.
+     */
+    private static final class LearnedAuthentication {
+        private final AuthChallenge challenge;
+        // the delegated authentication URI for application passwords
+        private final String appPasswordURI;
+
+        private LearnedAuthentication(AuthChallenge challenge, String appPasswordURI) {
+            this.challenge = challenge;
+            this.appPasswordURI = appPasswordURI;
+        }
+    }
+
+    private static final Map<String, LearnedAuthentication> LEARNED_AUTHENTICATION = new ConcurrentHashMap<String, LearnedAuthentication>();
     
 	// static {
 	// LOGGER.setLevel(Level.FINER);
@@ -446,17 +523,183 @@ public class HttpUtils {
         context.removeAttribute(HttpClientContext.CREDS_PROVIDER);
     }
 
+	/**
+	 * Asynchronous counterpart of
+	 * {@link #performPost(String, String, String, String, int, List, TaskListener, HttpClientContext)}.
+	 * 
+	 * The request (including any authentication it needs) runs on a bounded
+	 * pool of threads so the calling thread is free to do other work. When
+	 * all the threads are busy and the queue of waiting requests is full, the
+	 * future fails with a {@link RejectedExecutionException} instead of
+	 * blocking the caller. An {@link HttpClientContext} must not be used by
+	 * two requests at the same time, so pass a context from
+	 * {@link #getSessionContext} per request or <code>null</code>.
+	 * 
+	 * @return The future result of the POST. It completes exceptionally with
+	 *         the exception the synchronous call would have thrown.
+	 */
+	public static CompletableFuture<RtcHttpResult> performPostAsync(final String serverURI, final String uri,
+			final String userId, final String password, final int timeout,
+			final List<NameValuePair> params, final TaskListener listener, final HttpClientContext httpContext) {
+		return submitAsync(AsyncExecutorHolder.EXECUTOR, new Callable<RtcHttpResult>() {
+			@Override
+			public RtcHttpResult call() throws Exception {
+				return performPost(serverURI, uri, userId, password, timeout, params, listener, httpContext);
+			}
+		});
+	}
+
+	/**
+	 * Asynchronous counterpart of
+	 * {@link #performGet(String, String, String, String, int, HttpClientContext, TaskListener)}.
+	 * See {@link #performPostAsync} for the threading rules.
+	 * 
+	 * @return The future result of the GET
+	 */
+	public static CompletableFuture<RtcHttpResult> performGetAsync(final String serverURI, final String uri,
+			final String userId, final String password, final int timeout,
+			final HttpClientContext httpContext, final TaskListener listener) {
+		return submitAsync(AsyncExecutorHolder.EXECUTOR, new Callable<RtcHttpResult>() {
+			@Override
+			public RtcHttpResult call() throws Exception {
+				return performGet(serverURI, uri, userId, password, timeout, httpContext, listener);
+			}
+		});
+	}
+
+	/**
+	 * Asynchronous counterpart of
+	 * {@link #performPut(String, String, String, String, int, JSONObject, HttpClientContext, TaskListener)}.
+	 * See {@link #performPostAsync} for the threading rules.
+	 * 
+	 * @return The future result of the PUT. It has the context of the request
+	 *         and no JSON.
+	 */
+	public static CompletableFuture<RtcHttpResult> performPutAsync(final String serverURI, final String uri,
+			final String userId, final String password, final int timeout, final JSONObject json,
+			final HttpClientContext httpContext, final TaskListener listener) {
+		return submitAsync(AsyncExecutorHolder.EXECUTOR, new Callable<RtcHttpResult>() {
+			@Override
+			public RtcHttpResult call() throws Exception {
+				return new RtcHttpResult(performPut(serverURI, uri, userId, password, timeout, json,
+						httpContext, listener), null);
+			}
+		});
+	}
+
+	static <T> CompletableFuture<T> submitAsync(Executor executor, final Callable<T> request) {
+		final CompletableFuture<T> future = new CompletableFuture<T>();
+		try {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						future.complete(request.call());
+					} catch (Throwable e) {
+						future.completeExceptionally(e);
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	/**
+	 * @return A pool of at most <code>threads</code> threads holding at most
+	 *         <code>queueSize</code> waiting requests. Idle threads time out.
+	 */
+	static ThreadPoolExecutor newAsyncExecutor(int threads, int queueSize) {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<Runnable>(queueSize),
+				new NamingThreadFactory(new DaemonThreadFactory(), "RTC HTTP async")); //$NON-NLS-1$
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * Lazily creates the threads for the asynchronous requests so there is no
+	 * cost unless the asynchronous requests are used.
+	 */
+	private static final class AsyncExecutorHolder {
+		private static final Executor EXECUTOR = newAsyncExecutor(ASYNC_THREADS, ASYNC_QUEUE_SIZE);
+	}
+
+	/**
+	 * Perform a POST against a RTC service that only reads data, so the request
+	 * can safely be sent again. Requests failing with a 5xx response or a
+	 * connection problem are retried as described by {@link RtcRetryPolicy}.
+	 * Concurrent identical requests share one call, see
+	 * {@link RtcRequestCoalescer}.
+	 * 
+	 * @param retryBudget
+	 *            The retry budget of the build the request is made for.
+	 *            <code>null</code> if it is not made for a build.
+	 * @see #performPost(String, String, String, String, int, List, TaskListener, HttpClientContext)
+	 */
+	public static RtcHttpResult performIdempotentPost(String serverURI, String uri,
+			String userId, String password, int timeout,
+			List<NameValuePair> params, TaskListener listener, HttpClientContext httpContext,
+			RtcRetryPolicy.Budget retryBudget)
+			throws IOException, InvalidCredentialsException,
+			GeneralSecurityException {
+		String fullURI = getFullURI(serverURI, uri);
+		try {
+			String key = getCoalescingKey(HttpPost.METHOD_NAME, fullURI, userId, password, timeout, params);
+			// every caller retries on its own budget, only the attempts are shared
+			return RtcRetryPolicy.execute(fullURI, retryBudget,
+					() -> withContext(COALESCER.execute(fullURI, key, TimeUnit.SECONDS.toMillis(timeout),
+							() -> performPostOnce(serverURI, uri, userId, password, timeout, params, listener, httpContext)),
+							httpContext));
+		} catch (RtcHttpStatusException e) {
+			// reported once the retries are exhausted, not for every attempt
+			reportFailure(listener, Messages.HttpUtils_POST_failed(fullURI, e.getStatusCode()));
+			throw e;
+		}
+	}
+
 	public static RtcHttpResult performPost(String serverURI, String uri,
 			String userId, String password, int timeout,
 			List<NameValuePair> params, TaskListener listener, HttpClientContext httpContext)
 			throws IOException, InvalidCredentialsException,
 			GeneralSecurityException {
+		try {
+			return performPostOnce(serverURI, uri, userId, password, timeout, params, listener, httpContext);
+		} catch (RtcHttpStatusException e) {
+			reportFailure(listener, Messages.HttpUtils_POST_failed(getFullURI(serverURI, uri), e.getStatusCode()));
+			throw e;
+		}
+	}
+
+	private static RtcHttpResult performPostOnce(String serverURI, String uri,
+			String userId, String password, int timeout,
+			List<NameValuePair> params, TaskListener listener, HttpClientContext httpContext)
+			throws IOException, InvalidCredentialsException,
+			GeneralSecurityException {
+		RtcCircuitBreaker circuitBreaker = acquireCircuit(serverURI);
+		Throwable failure = null;
+		try {
+			return doPerformPost(serverURI, uri, userId, password, timeout, params, listener, httpContext);
+		} catch (Throwable e) {
+			failure = e;
+			throw e;
+		} finally {
+			releaseCircuit(circuitBreaker, failure);
+		}
+	}
+
+	private static RtcHttpResult doPerformPost(String serverURI, String uri,
+			String userId, String password, int timeout,
+			List<NameValuePair> params, TaskListener listener, HttpClientContext httpContext)
+			throws IOException, InvalidCredentialsException,
+			GeneralSecurityException {
 
 		String fullURI = getFullURI(serverURI, uri);
 		HttpPost request = getPOSTWithJson(fullURI, timeout);
 		
 		request.setEntity(new UrlEncodedFormEntity(params));
-		CloseableHttpClient httpClient = getClient();
+		CloseableHttpClient httpClient = getClient(serverURI);
 		
 		if(httpContext == null) {
 			httpContext = createHttpContext();
@@ -483,11 +726,10 @@ public class HttpUtils {
 			int statusCode = response.getStatusLine().getStatusCode();
 			
 			if (statusCode == 200) {
-				InputStreamReader inputStream = new InputStreamReader(response
-						.getEntity().getContent(), UTF_8);
+				BufferedReader inputStream = new BufferedReader(new InputStreamReader(response
+						.getEntity().getContent(), UTF_8));
 				try {
-					String responseContent = IOUtils.toString(inputStream);
-					JSON resultJson = JSONSerializer.toJSON(responseContent);
+					JSON resultJson = RtcJsonUtil.readJson(inputStream, MAX_RESPONSE_CHARS);
 					return new RtcHttpResult(httpContext, resultJson);
 				} finally {
 					try {
@@ -501,14 +743,11 @@ public class HttpUtils {
 			} else if (statusCode == 401) {
 				// if still un-authorized, then there is a good chance the basic
 				// credentials are bad.
-				throw new InvalidCredentialsException(Messages.HttpUtils_authentication_failed(userId, serverURI));
+				throw authenticationFailed(httpContext, userId, serverURI);
 
 			} else {
 				// capture details about the error
 				LOGGER.warning(Messages.HttpUtils_POST_failed(fullURI, statusCode));
-				if (listener != null) {
-					listener.fatalError(Messages.HttpUtils_POST_failed(fullURI, statusCode));
-				}
 				throw logError(fullURI, response,
 						Messages.HttpUtils_POST_failed(fullURI, statusCode));
 			}
@@ -549,8 +788,104 @@ public class HttpUtils {
 			HttpClientContext httpContext, TaskListener listener)
 			throws IOException, InvalidCredentialsException,
 			GeneralSecurityException {
+		return performGet(serverURI, uri, userId, password, timeout, httpContext, listener, null);
+	}
+
+	/**
+	 * Perform GET request against an RTC server. Requests failing with a 5xx
+	 * response or a connection problem are retried as described by
+	 * {@link RtcRetryPolicy}.
+	 * Concurrent identical requests share one call, see
+	 * {@link RtcRequestCoalescer}.
+	 * 
+	 * @param retryBudget
+	 *            The retry budget of the build the request is made for.
+	 *            <code>null</code> if it is not made for a build.
+	 * @see #performGet(String, String, String, String, int, HttpClientContext, TaskListener)
+	 */
+	public static RtcHttpResult performGet(String serverURI, String uri,
+			String userId, String password, int timeout,
+			HttpClientContext httpContext, TaskListener listener,
+			RtcRetryPolicy.Budget retryBudget)
+			throws IOException, InvalidCredentialsException,
+			GeneralSecurityException {
+		String fullURI = getFullURI(serverURI, uri);
+		try {
+			String key = getCoalescingKey(HttpGet.METHOD_NAME, fullURI, userId, password, timeout, null);
+			// every caller retries on its own budget, only the attempts are shared
+			return RtcRetryPolicy.execute(fullURI, retryBudget,
+					() -> withContext(COALESCER.execute(fullURI, key, TimeUnit.SECONDS.toMillis(timeout),
+							() -> performGetOnce(serverURI, uri, userId, password, timeout, httpContext, listener)),
+							httpContext));
+		} catch (RtcHttpStatusException e) {
+			// reported once the retries are exhausted, not for every attempt
+			reportFailure(listener, Messages.HttpUtils_GET_failed(fullURI, e.getStatusCode()));
+			throw e;
+		}
+	}
+
+	private static void reportFailure(TaskListener listener, String message) {
+		if (listener != null) {
+			listener.fatalError(message);
+		}
+	}
+
+	/**
+	 * @return The key under which concurrent identical requests share one
+	 *         call. A caller with a different password or timeout never gets
+	 *         the result of a call made with another one. Only a digest of the
+	 *         password is part of the key.
+	 */
+	static String getCoalescingKey(String method, String fullURI, String userId, String password,
+			int timeout, List<NameValuePair> params) {
+		StringBuilder key = new StringBuilder(method).append(' ').append(fullURI)
+				.append('\n').append(userId)
+				.append('\n').append(Base64.getEncoder().encodeToString(RtcSessionCache.digest(password)))
+				.append('\n').append(timeout);
+		if (params != null) {
+			for (NameValuePair param : params) {
+				key.append('\n').append(param.getName()).append('=').append(param.getValue());
+			}
+		}
+		return key.toString();
+	}
+
+	/**
+	 * @return The result with the context of the caller. A result shared by
+	 *         {@link RtcRequestCoalescer} carries the context of the caller
+	 *         that made the call, which must not be used by another thread.
+	 */
+	private static RtcHttpResult withContext(RtcHttpResult result, HttpClientContext httpContext) {
+		if (result.getHttpContext() == httpContext) {
+			return result;
+		}
+		return new RtcHttpResult(httpContext != null ? httpContext : createHttpContext(), result.getJson());
+	}
+
+	private static RtcHttpResult performGetOnce(String serverURI, String uri,
+			String userId, String password, int timeout,
+			HttpClientContext httpContext, TaskListener listener)
+			throws IOException, InvalidCredentialsException,
+			GeneralSecurityException {
+		RtcCircuitBreaker circuitBreaker = acquireCircuit(serverURI);
+		Throwable failure = null;
+		try {
+			return doPerformGet(serverURI, uri, userId, password, timeout, httpContext, listener);
+		} catch (Throwable e) {
+			failure = e;
+			throw e;
+		} finally {
+			releaseCircuit(circuitBreaker, failure);
+		}
+	}
+
+	private static RtcHttpResult doPerformGet(String serverURI, String uri,
+			String userId, String password, int timeout,
+			HttpClientContext httpContext, TaskListener listener)
+			throws IOException, InvalidCredentialsException,
+			GeneralSecurityException {
 		
-		CloseableHttpClient httpClient = getClient();
+		CloseableHttpClient httpClient = getClient(serverURI);
 		String fullURI = getFullURI(serverURI, uri);
 		HttpGet request = getGET(fullURI, timeout);
 		if (httpContext == null) {
@@ -581,13 +916,14 @@ public class HttpUtils {
 			}
 
 			if (statusCode == 200) {
-				InputStreamReader inputStream = new InputStreamReader(response
-						.getEntity().getContent(), UTF_8);
+				BufferedReader inputStream = new BufferedReader(new InputStreamReader(response
+						.getEntity().getContent(), UTF_8));
 				try {
-					String responseContent = IOUtils.toString(inputStream);
-					LOGGER.info("Response " + responseContent + " for URI "+ fullURI); //$NON-NLS-1$ //$NON-NLS-2$
-					RtcHttpResult result = new RtcHttpResult(httpContext,
-							JSONSerializer.toJSON(responseContent));
+					JSON resultJson = RtcJsonUtil.readJson(inputStream, MAX_RESPONSE_CHARS);
+					if (LOGGER.isLoggable(Level.FINEST)) {
+						LOGGER.finest("Response " + resultJson + " for URI "+ fullURI); //$NON-NLS-1$ //$NON-NLS-2$
+					}
+					RtcHttpResult result = new RtcHttpResult(httpContext, resultJson);
 					return result;
 				} finally {
 					try {
@@ -601,14 +937,11 @@ public class HttpUtils {
 			} else if (statusCode == 401) {
 				// if still un-authorized, then there is a good chance the basic
 				// credentials are bad.
-				throw new InvalidCredentialsException(Messages.HttpUtils_authentication_failed(userId, serverURI));
+				throw authenticationFailed(httpContext, userId, serverURI);
 
 			} else {
 				// capture details about the error
 				LOGGER.warning(Messages.HttpUtils_GET_failed(fullURI, statusCode));
-				if (listener != null) {
-					listener.fatalError(Messages.HttpUtils_GET_failed(fullURI, statusCode));
-				}
 				throw logError(fullURI, response,
 						Messages.HttpUtils_GET_failed(fullURI, statusCode));
 			}
@@ -652,8 +985,29 @@ public class HttpUtils {
 			HttpClientContext httpContext, TaskListener listener)
 			throws IOException, InvalidCredentialsException,
 			GeneralSecurityException {
+		RtcCircuitBreaker circuitBreaker = acquireCircuit(serverURI);
+		Throwable failure = null;
+		try {
+			return doPerformPut(serverURI, uri, userId, password, timeout, json, httpContext, listener);
+		} catch (RtcHttpStatusException e) {
+			failure = e;
+			reportFailure(listener, Messages.HttpUtils_PUT_failed(getFullURI(serverURI, uri), e.getStatusCode()));
+			throw e;
+		} catch (Throwable e) {
+			failure = e;
+			throw e;
+		} finally {
+			releaseCircuit(circuitBreaker, failure);
+		}
+	}
+
+	private static HttpClientContext doPerformPut(String serverURI, String uri,
+			String userId, String password, int timeout, final JSONObject json,
+			HttpClientContext httpContext, TaskListener listener)
+			throws IOException, InvalidCredentialsException,
+			GeneralSecurityException {
 
-		CloseableHttpClient httpClient = getClient();
+		CloseableHttpClient httpClient = getClient(serverURI);
 		// How to fill the request body (Clone doesn't work)
 		ContentProducer cp = new ContentProducer() {
 			public void writeTo(OutputStream outstream) throws IOException {
@@ -696,16 +1050,11 @@ public class HttpUtils {
 				// the user has become unauthenticated since the previous
 				// request
 				// (i.e. the get of the value about to put back)
-				throw new InvalidCredentialsException(
-						Messages.HttpUtils_authentication_failed(userId, serverURI));
+				throw authenticationFailed(httpContext, userId, serverURI);
 
 			} else {
 				int responseClass = statusCode / 100;
 				if (responseClass != 2) {
-					if (listener != null) {
-						listener.fatalError(Messages.HttpUtils_PUT_failed(fullURI, statusCode));
-					}
-
 					throw logError(fullURI, response,
 							Messages.HttpUtils_PUT_failed(fullURI, statusCode));
 				}
@@ -736,15 +1085,35 @@ public class HttpUtils {
 	public static void validateCredentials(String serverURI, String userId,
 			String password, int timeout, HttpClientContext httpContext) throws IOException,
 			GeneralSecurityException, InvalidCredentialsException {
+		RtcCircuitBreaker circuitBreaker = acquireCircuit(serverURI);
+		Throwable failure = null;
+		try {
+			doValidateCredentials(serverURI, userId, password, timeout, httpContext);
+		} catch (Throwable e) {
+			failure = e;
+			throw e;
+		} finally {
+			releaseCircuit(circuitBreaker, failure);
+		}
+	}
+
+	private static void doValidateCredentials(String serverURI, String userId,
+			String password, int timeout, HttpClientContext httpContext) throws IOException,
+			GeneralSecurityException, InvalidCredentialsException {
 		// We can't directly do a post because we need a JSession id cookie.
 		// Instead attempt to do a get and then verify the credentials when we
 		// need to do the form based auth. Don't bother to re-issue the get though. We just
 		// want to know if the Login works
-		CloseableHttpClient httpClient = getClient();
-		HttpGet request = getGET(serverURI, timeout);
+		CloseableHttpClient httpClient = getClient(serverURI);
 		if(httpContext == null) {
 			httpContext = createHttpContext();
 		}
+		// If we already know how the server authenticates, log in without
+		// waiting for the server to challenge the probe
+		if (authenticateUpFront(httpContext, serverURI, userId, password)) {
+			return;
+		}
+		HttpGet request = getGET(serverURI, timeout);
 		
 		LOGGER.finer("GET: " + request.getURI()); //$NON-NLS-1$
 		CloseableHttpResponse response = httpClient.execute(request,
@@ -761,8 +1130,7 @@ public class HttpUtils {
 				response = httpClient.execute(request, httpContext);
 				if (response.getStatusLine().getStatusCode() == 401) {
 					// still not authorized
-					throw new InvalidCredentialsException(
-							Messages.HttpUtils_authentication_failed(userId, serverURI));
+					throw authenticationFailed(httpContext, userId, serverURI);
 				}
 			}
 
@@ -790,7 +1158,8 @@ public class HttpUtils {
 			CloseableHttpResponse httpResponse, String message) {
 		printMessageHeaders(httpResponse);
 
-		IOException error = new IOException(message);
+		int statusCode = httpResponse.getStatusLine().getStatusCode();
+		IOException error = new RtcHttpStatusException(message, statusCode);
 		try {
 			InputStreamReader inputStream = new InputStreamReader(httpResponse
 					.getEntity().getContent(), UTF_8);
@@ -807,7 +1176,7 @@ public class HttpUtils {
 						JSONObject jsonObject = (JSONObject) json;
 						String errorMessage = jsonObject
 								.getString("errorMessage"); //$NON-NLS-1$
-						error = new IOException(errorMessage);
+						error = new RtcHttpStatusException(errorMessage, statusCode);
 						JSONArray trace = jsonObject
 								.getJSONArray("errorTraceMarshall"); //$NON-NLS-1$
 						List<StackTraceElement> stackElements = new ArrayList<StackTraceElement>(
@@ -859,77 +1228,142 @@ public class HttpUtils {
 
 	/**
 	 * Because the creation of the SSLConnectionSocketFactory is expensive
-	 * (reads from disk the certs file) we will cache the client. The client is
-	 * re-used so doesn't have any target RTC server info associated with it.
+	 * (reads from disk the certs file) we will cache the clients. Each RTC
+	 * server gets its own client and connection pool, so a slow server cannot
+	 * take the connections needed for another one. The client for a server is
+	 * looked up without locking.
 	 * 
+	 * @param serverURI
+	 *            The RTC server the client will talk to
 	 * @return an HttpClient
 	 * @throws GeneralSecurityException
 	 */
-	public synchronized static CloseableHttpClient getClient()
+	public static CloseableHttpClient getClient(String serverURI)
 			throws GeneralSecurityException {
-		if (HTTP_CLIENT == null) {
-			HttpClientBuilder clientBuilder = HttpClientBuilder.create();
-
-			clientBuilder.setSSLSocketFactory(getSSLConnectionSocketFactory());
-
-			// TODO to find out if this is sufficient, we can periodically dump
-			// the PoolStats
-			clientBuilder.setMaxConnPerRoute(10);
-			clientBuilder.setMaxConnTotal(100);
-
-			RegistryBuilder<AuthSchemeProvider> authSchemeRegistryBuilder = RegistryBuilder.<AuthSchemeProvider> create();
-
-	        // we are always at least supporting bearer
-	        authSchemeRegistryBuilder.register(AuthSchemeBearer, new BearerSchemeProvider());
-	        
-	        switch (_authenticationType) {
-	        case USERIDPASSWD:
-	            // if we use user creds, we do not want to handle spnego, but deal with it in the main body, but we do want to support basic
-	            authSchemeRegistryBuilder.register(AuthSchemes.BASIC, new BasicSchemeFactory(Charset.forName("UTF-8"))); //$NON-NLS-1$
-	            break;
-	        default:
-	            // in all other cases, we don't want to deal with basic or spnego, notably clien creds
-	            break;
-	        }
-	        
-			
-	        Lookup<AuthSchemeProvider> authSchemeRegistry = authSchemeRegistryBuilder.build();
-	        clientBuilder.setDefaultAuthSchemeRegistry(authSchemeRegistry);
-			
-			// allow redirects on POST
-			clientBuilder.setRedirectStrategy(new AuthRedirectStrategy());
+		return CONNECTION_POOLS.getClient(getServerKey(serverURI), getSocketFactoryRegistry(),
+				new RtcConnectionPools.ClientFactory() {
+					@Override
+					public CloseableHttpClient create(PoolingHttpClientConnectionManager connectionManager,
+							RtcConnectionPools.Settings settings) throws GeneralSecurityException {
+						return buildClient(connectionManager, settings);
+					}
+				});
+	}
 
-			// How long to wait to get a connection from our connection manager.
-			// The default
-			// timeouts are forever which is probably not good.
-			// TODO If we set it when creating the GET, PUT & POST maybe its not
-			// really needed here
-			clientBuilder.setDefaultRequestConfig(getRequestConfig(CONNECTION_REQUEST_TIMEOUT_MILLIS).build());
+	/**
+	 * Statistics of the connection pools, for sizing them
+	 * 
+	 * @return For each RTC server the leased, available and pending connections
+	 *         and the maximum of each route in its pool
+	 */
+	public static Map<String, Map<String, PoolStats>> getConnectionPoolStats() {
+		return CONNECTION_POOLS.getStats();
+	}
 
-			clientBuilder.setUserAgent(JAZZ_NATIVE_CLIENT);
-			
-			 /* We occasionally see NoHttpResponseException.  Evidently this can
-		         * happen when the server shuts down a connection but the client has not
-		         * noticed yet.  One suggested workaround is to retry. */
-		        HttpRequestRetryHandler retryHandler = new HttpRequestRetryHandler() {
-		            @Override
-		            public boolean retryRequest(IOException exception, int executionCount, HttpContext context) {
-		                if (executionCount > HTTP_RETRY_REQUEST_COUNT) {
-		                    LOGGER.finer("httpClient retry overflow"); //$NON-NLS-1$
-		                    return false;
-		                } else if (exception instanceof NoHttpResponseException) {
-		                    LOGGER.finer("httpClient retry on NoHttpResponseException"); //$NON-NLS-1$
-		                    return true;
-		                } else
-		                    return false;
-		            }
-		        };
-		        clientBuilder.setRetryHandler(retryHandler);
-			
-			HTTP_CLIENT = clientBuilder.build();
+	/**
+	 * Close the connection pools of the RTC servers that are no longer used.
+	 * Called periodically.
+	 */
+	public static void closeUnusedConnectionPools() {
+		CONNECTION_POOLS.closeUnused();
+	}
+
+	/**
+	 * Close the connection pools of all the RTC servers, when Jenkins stops
+	 */
+	public static void closeConnectionPools() {
+		CONNECTION_POOLS.closeAll();
+	}
+
+	/**
+	 * @return For each RTC server the statistics of its whole connection pool
+	 */
+	public static Map<String, PoolStats> getConnectionPoolTotalStats() {
+		return CONNECTION_POOLS.getTotalStats();
+	}
+
+	/**
+	 * @return The number of requests that shared the call of an identical
+	 *         request in flight instead of making their own
+	 */
+	public static long getCoalescedRequestCount() {
+		return COALESCER.getCoalescedCount();
+	}
+
+	private static CloseableHttpClient buildClient(PoolingHttpClientConnectionManager connectionManager,
+			RtcConnectionPools.Settings settings) throws GeneralSecurityException {
+		HttpClientBuilder clientBuilder = HttpClientBuilder.create();
+
+		// the connection manager is owned by the client, closing the client
+		// closes the pool
+		clientBuilder.setConnectionManager(connectionManager);
+		clientBuilder.evictExpiredConnections();
+		if (settings.maxIdleTimeSeconds > 0) {
+			clientBuilder.evictIdleConnections(settings.maxIdleTimeSeconds, TimeUnit.SECONDS);
 		}
 
-		return HTTP_CLIENT;
+		RegistryBuilder<AuthSchemeProvider> authSchemeRegistryBuilder = RegistryBuilder.<AuthSchemeProvider> create();
+
+        // we are always at least supporting bearer
+        authSchemeRegistryBuilder.register(AuthSchemeBearer, new BearerSchemeProvider());
+        
+        switch (_authenticationType) {
+        case USERIDPASSWD:
+            // if we use user creds, we do not want to handle spnego, but deal with it in the main body, but we do want to support basic
+            authSchemeRegistryBuilder.register(AuthSchemes.BASIC, new BasicSchemeFactory(Charset.forName("UTF-8"))); //$NON-NLS-1$
+            break;
+        default:
+            // in all other cases, we don't want to deal with basic or spnego, notably clien creds
+            break;
+        }
+        
+		
+        Lookup<AuthSchemeProvider> authSchemeRegistry = authSchemeRegistryBuilder.build();
+        clientBuilder.setDefaultAuthSchemeRegistry(authSchemeRegistry);
+		
+		// allow redirects on POST
+		clientBuilder.setRedirectStrategy(new AuthRedirectStrategy());
+
+		// How long to wait to get a connection from our connection manager.
+		// The default
+		// timeouts are forever which is probably not good.
+		// TODO If we set it when creating the GET, PUT & POST maybe its not
+		// really needed here
+		clientBuilder.setDefaultRequestConfig(getRequestConfig(CONNECTION_REQUEST_TIMEOUT_MILLIS));
+
+		clientBuilder.setUserAgent(JAZZ_NATIVE_CLIENT);
+		
+		 /* We occasionally see NoHttpResponseException.  Evidently this can
+	         * happen when the server shuts down a connection but the client has not
+	         * noticed yet.  One suggested workaround is to retry. */
+	        HttpRequestRetryHandler retryHandler = new HttpRequestRetryHandler() {
+	            @Override
+	            public boolean retryRequest(IOException exception, int executionCount, HttpContext context) {
+	                if (executionCount > HTTP_RETRY_REQUEST_COUNT) {
+	                    LOGGER.finer("httpClient retry overflow"); //$NON-NLS-1$
+	                    return false;
+	                } else if (exception instanceof NoHttpResponseException) {
+	                    LOGGER.finer("httpClient retry on NoHttpResponseException"); //$NON-NLS-1$
+	                    return true;
+	                } else
+	                    return false;
+	            }
+	        };
+	        clientBuilder.setRetryHandler(retryHandler);
+		
+		return clientBuilder.build();
+	}
+
+	private static Registry<ConnectionSocketFactory> getSocketFactoryRegistry() throws GeneralSecurityException {
+		Registry<ConnectionSocketFactory> registry = SOCKET_FACTORY_REGISTRY;
+		if (registry == null) {
+			registry = RegistryBuilder.<ConnectionSocketFactory> create()
+					.register(SCHEME_HTTP, PlainConnectionSocketFactory.getSocketFactory())
+					.register(SCHEME_HTTPS, getSSLConnectionSocketFactory())
+					.build();
+			SOCKET_FACTORY_REGISTRY = registry;
+		}
+		return registry;
 	}
 	
 	private static synchronized SSLConnectionSocketFactory getSSLConnectionSocketFactory()
@@ -995,7 +1429,7 @@ public class HttpUtils {
 		HttpGet get = new HttpGet(fullURI);
 		get.setHeader("Accept-Charset", UTF_8); //$NON-NLS-1$
 		get.addHeader("Accept", TEXT_JSON); //$NON-NLS-1$
-		get.setConfig(getRequestConfig(timeout).build());
+		get.setConfig(getRequestConfig(timeout));
 		return get;
 	}
 
@@ -1013,7 +1447,7 @@ public class HttpUtils {
 		put.setHeader("Accept-Charset", UTF_8); //$NON-NLS-1$
 		put.addHeader("Accept", TEXT_JSON); //$NON-NLS-1$
 		put.addHeader("Content-type", TEXT_JSON); //$NON-NLS-1$
-		put.setConfig(getRequestConfig(timeout).build());
+		put.setConfig(getRequestConfig(timeout));
 
 		return put;
 	}
@@ -1029,7 +1463,7 @@ public class HttpUtils {
 	 */
 	private static HttpPost getPOST(String fullURI, int timeout) {
 		HttpPost post = new HttpPost(fullURI);
-		post.setConfig(getRequestConfig(timeout).build());
+		post.setConfig(getRequestConfig(timeout));
 		return post;
 	}
 	
@@ -1037,7 +1471,7 @@ public class HttpUtils {
 		HttpPost post = new HttpPost(fullURI);
 		post.setHeader("Accept-Charset", UTF_8); //$NON-NLS-1$
 		post.addHeader("Accept", TEXT_JSON); //$NON-NLS-1$
-		post.setConfig(getRequestConfig(timeout).build());
+		post.setConfig(getRequestConfig(timeout));
 		return post;
 	}
 
@@ -1050,17 +1484,29 @@ public class HttpUtils {
 	 *            The timout period in seconds
 	 * @return The request configuration
 	 */
-	private static RequestConfig.Builder getRequestConfig(int timeout) {
+	private static RequestConfig getRequestConfig(int timeout) {
+		RequestConfig requestConfig = REQUEST_CONFIGS.get(timeout);
+		if (requestConfig == null) {
+			requestConfig = createRequestConfig(timeout);
+			RequestConfig existing = REQUEST_CONFIGS.putIfAbsent(timeout, requestConfig);
+			if (existing != null) {
+				requestConfig = existing;
+			}
+		}
+		return requestConfig;
+	}
+
+	private static RequestConfig createRequestConfig(int timeout) {
 		return RequestConfig.custom()
                 .setConnectionRequestTimeout(timeout * 1000)
                 .setConnectTimeout(timeout * 1000) // changed form timeouts[1]
                 .setCookieSpec(CookieSpecs.STANDARD)
                 .setSocketTimeout(timeout * 1000)
-                .setStaleConnectionCheckEnabled(true)
                 .setAuthenticationEnabled(true)
                 .setCircularRedirectsAllowed(true)
                 .setTargetPreferredAuthSchemes(authSchemePreferences)
-                .setRedirectsEnabled(true);
+                .setRedirectsEnabled(true)
+                .build();
 	}
 
 	private static String getFullURI(String serverURI, String relativeURI) {
@@ -1075,7 +1521,7 @@ public class HttpUtils {
 
 	/**
 	 * Creates and returns a new HttpContext with a new cookie store, for use
-	 * with the singleton HTTP_CLIENT.
+	 * with the shared http clients.
 	 * 
 	 * @return a new HttpContext
 	 */
@@ -1086,6 +1532,223 @@ public class HttpUtils {
 		return httpContext;
 	}
 
+	/**
+	 * Returns a context for a request that belongs to the cached authenticated
+	 * session of the given user with the RTC server. The user is logged in only
+	 * if there is no such session yet (or it expired). Afterwards the session
+	 * is re-authenticated only when a request is challenged by the server.
+	 *
+	 * @param serverURI
+	 *            The RTC server
+	 * @param userId
+	 *            The userId to authenticate as
+	 * @param password
+	 *            The password to authenticate with
+	 * @param timeout
+	 *            The timeout period for the connection (in seconds)
+	 * @return a new HttpContext that shares the state of the session
+	 * @throws IOException
+	 *             Thrown if things go wrong
+	 * @throws InvalidCredentialsException
+	 *             if authentication fails
+	 * @throws GeneralSecurityException
+	 */
+	public static HttpClientContext getSessionContext(String serverURI, String userId,
+			String password, int timeout) throws IOException,
+			GeneralSecurityException, InvalidCredentialsException {
+		RtcSessionCache.Session session = SESSIONS.acquire(serverURI, userId, password);
+		if (!session.isAuthenticated()) {
+			// Only one login per session, other callers wait for it
+			synchronized (session) {
+				if (!session.isAuthenticated()) {
+					LOGGER.finer("Logging in to " + serverURI + " as " + userId); //$NON-NLS-1$ //$NON-NLS-2$
+					HttpClientContext loginContext = session.newContext();
+					validateCredentials(serverURI, userId, password, timeout, loginContext);
+					session.update(loginContext);
+					session.setAuthenticated();
+				}
+			}
+		}
+		return session.newContext();
+	}
+
+	/**
+	 * Forget the cached session of the given user with the RTC server. The next
+	 * request will log in again.
+	 *
+	 * @param serverURI
+	 *            The RTC server
+	 * @param userId
+	 *            The userId of the session
+	 */
+	public static void invalidateSession(String serverURI, String userId) {
+		SESSIONS.invalidate(serverURI, userId);
+	}
+
+	/**
+	 * Get permission from the circuit breaker of the server to send a request
+	 * 
+	 * @return The circuit breaker to report the outcome to, <code>null</code>
+	 *         if circuit breakers are disabled
+	 * @throws RtcServerUnavailableException
+	 *             If the server is known to be down
+	 */
+	private static RtcCircuitBreaker acquireCircuit(String serverURI) throws RtcServerUnavailableException {
+		if (!RtcCircuitBreaker.ENABLED) {
+			return null;
+		}
+		RtcCircuitBreaker circuitBreaker = CIRCUIT_BREAKERS.computeIfAbsent(getServerKey(serverURI),
+				RtcCircuitBreaker::new);
+		if (!circuitBreaker.tryAcquire()) {
+			throw new RtcServerUnavailableException(Messages.HttpUtils_server_unavailable(serverURI,
+					TimeUnit.MILLISECONDS.toSeconds(RtcCircuitBreaker.OPEN_DURATION_MILLIS)));
+		}
+		return circuitBreaker;
+	}
+
+	/**
+	 * Report the outcome of a request to the circuit breaker. Connect or read
+	 * failures and 5xx responses are failures, anything else the server answered
+	 * (including rejected credentials) is a success. Interrupted requests and
+	 * errors raised by the plugin itself (like a response too large to be read)
+	 * say nothing about the server and are ignored.
+	 */
+	static void releaseCircuit(RtcCircuitBreaker circuitBreaker, Throwable failure) {
+		if (circuitBreaker == null) {
+			return;
+		}
+		if (failure == null || failure instanceof InvalidCredentialsException) {
+			circuitBreaker.onSuccess();
+		} else if (failure instanceof RtcHttpStatusException) {
+			if (((RtcHttpStatusException) failure).getStatusCode() >= 500) {
+				circuitBreaker.onFailure();
+			} else {
+				circuitBreaker.onSuccess();
+			}
+		} else if (isConnectionFailure(failure)) {
+			circuitBreaker.onFailure();
+		} else {
+			circuitBreaker.onIgnored();
+		}
+	}
+
+	/**
+	 * Whether the request failed to connect to the server or to read its
+	 * response. Timeouts are connection failures, other interruptions are not.
+	 */
+	private static boolean isConnectionFailure(Throwable failure) {
+		if (failure instanceof SocketTimeoutException || failure instanceof ConnectTimeoutException) {
+			return true;
+		}
+		if (failure instanceof InterruptedIOException) {
+			return false;
+		}
+		return failure instanceof SocketException
+				|| failure instanceof UnknownHostException
+				|| failure instanceof NoHttpResponseException
+				|| failure instanceof ConnectionClosedException
+				|| failure instanceof MalformedChunkCodingException;
+	}
+
+	private static RtcSessionCache.Session getSession(HttpContext httpContext) {
+		Object session = httpContext.getAttribute(RtcSessionCache.SESSION_ATTRIBUTE);
+		if (session instanceof RtcSessionCache.Session) {
+			return (RtcSessionCache.Session) session;
+		}
+		return null;
+	}
+
+	/**
+	 * Build the exception for credentials rejected by the server. If the request
+	 * was made in a cached session, the session is dropped.
+	 */
+	private static InvalidCredentialsException authenticationFailed(HttpClientContext httpContext,
+			String userId, String serverURI) {
+		if (httpContext != null) {
+			SESSIONS.invalidate(getSession(httpContext));
+		}
+		return new InvalidCredentialsException(Messages.HttpUtils_authentication_failed(userId, serverURI));
+	}
+
+	/**
+	 * @return the key used to hold state per RTC server
+	 */
+	static String getServerKey(String serverURI) {
+		String key = serverURI == null ? "" : serverURI; //$NON-NLS-1$
+		while (key.endsWith(SLASH)) {
+			key = key.substring(0, key.length() - 1);
+		}
+		return key;
+	}
+
+	private static void learnAuthentication(String serverURI, AuthChallenge challenge, String appPasswordURI) {
+		LearnedAuthentication previous = LEARNED_AUTHENTICATION.put(getServerKey(serverURI),
+				new LearnedAuthentication(challenge, appPasswordURI));
+		if (LOGGER.isLoggable(Level.FINER) && (previous == null || previous.challenge != challenge)) {
+			LOGGER.finer("Server " + serverURI + " uses " + challenge + " authentication"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+	}
+
+	private static void forgetAuthentication(String serverURI, LearnedAuthentication learned) {
+		LOGGER.finer("Forgetting " + learned.challenge + " authentication for server " + serverURI); //$NON-NLS-1$ //$NON-NLS-2$
+		LEARNED_AUTHENTICATION.remove(getServerKey(serverURI), learned);
+	}
+
+	/**
+	 * Authenticate using the scheme the server challenged with the last time,
+	 * without sending an unauthenticated probe first. Basic credentials are
+	 * only set up to be sent pre-emptively with the probe. Form based auth
+	 * always needs the probe, the server only accepts the login form in the
+	 * session it opened for it. If the up front login does not work, the
+	 * learned scheme is forgotten so that the probe finds out what the server
+	 * wants now.
+	 *
+	 * @return <code>true</code> if the login is complete and verified by the
+	 *         server, so no probe is required, <code>false</code> otherwise.
+	 */
+	private static boolean authenticateUpFront(HttpClientContext httpContext,
+			String serverURI, String userId, String password)
+			throws InvalidCredentialsException, GeneralSecurityException {
+		LearnedAuthentication learned = LEARNED_AUTHENTICATION.get(getServerKey(serverURI));
+		if (learned == null) {
+			return false;
+		}
+		try {
+			switch (learned.challenge) {
+			case BASIC:
+				handleBasicAuthChallenge(httpContext, serverURI, userId, password, null);
+				return false;
+			case FORM:
+				// the login form can only be posted in the session the server
+				// opens for the probe (JSESSIONID cookie)
+				return false;
+			case APP_PASSWORD:
+				LOGGER.finer("Logging in to " + serverURI + " with application password up front"); //$NON-NLS-1$ //$NON-NLS-2$
+				CloseableHttpResponse response = handleAppPasswordChallenge(httpContext, learned.appPasswordURI,
+						serverURI, userId, password);
+				int statusCode = response.getStatusLine().getStatusCode();
+				closeResponse(response);
+				if (statusCode == 200) {
+					return true;
+				}
+				break;
+			default:
+				// the bearer flow needs the redirect sent with the challenge
+				return false;
+			}
+		} catch (IOException | URISyntaxException e) {
+			LOGGER.log(Level.FINER, "Up front authentication failed for " + serverURI, e); //$NON-NLS-1$
+		}
+		forgetAuthentication(serverURI, learned);
+		// start over with a clean context
+		clearCredentialsInContext(httpContext);
+		CookieStore cookieStore = httpContext.getCookieStore();
+		if (cookieStore != null) {
+			cookieStore.clear();
+		}
+		return false;
+	}
+
 	/**
 	 * Perform any authentication required (Form or Basic) if the previous
 	 * request did not succeed.
@@ -1133,28 +1796,53 @@ public class HttpUtils {
 		for(Header b:bearer)
 			bearerHeader += b.getValue();
 		
-		if (formHeader != null
-				&& FORM_AUTHREQUIRED_HEADER_VALUE.equals(formHeader.getValue())) {
-			closeResponse(response);
-
-			// login using Form based auth
-			return handleFormBasedChallenge(httpClient, httpContext, serverURI,
-					userId, password, timeout, listener);
-		}else if(statusCode == 401 && bearerHeader.toLowerCase().matches("(.*)bearer(.*)")){
-			return handleBearerChallenge(response, httpClient, httpContext, serverURI, userId, password);
-		} else if (statusCode == 401 && basicHeader != null) {
-			if (JAUTH_PATTERN.matcher(basicHeader.getValue()).matches()) {
-				throw new UnsupportedOperationException();
-
-			} else if (BASIC_PATTERN.matcher(basicHeader.getValue()).matches()) {
+		// When the request belongs to a cached session, the login is kept in the
+		// session and the original request is always re-issued afterwards
+		RtcSessionCache.Session session = getSession(httpContext);
+		try {
+			if (formHeader != null
+					&& FORM_AUTHREQUIRED_HEADER_VALUE.equals(formHeader.getValue())) {
 				closeResponse(response);
+				learnAuthentication(serverURI, AuthChallenge.FORM, null);
 
-				// setup the context to use Basic auth
-				handleBasicAuthChallenge(httpContext, serverURI, userId,
-						password, listener);
-				return null;
-			}
+				// login using Form based auth
+				CloseableHttpResponse formResponse = handleFormBasedChallenge(httpClient, httpContext, serverURI,
+						userId, password, timeout, listener);
+				if (session != null) {
+					session.update(httpContext);
+					return null;
+				}
+				return formResponse;
+			}else if(statusCode == 401 && bearerHeader.toLowerCase().matches("(.*)bearer(.*)")){
+				learnAuthentication(serverURI, AuthChallenge.BEARER, null);
+				CloseableHttpResponse bearerResponse = handleBearerChallenge(response, httpClient, httpContext, serverURI, userId, password);
+				if (session != null) {
+					closeResponse(bearerResponse);
+					session.update(httpContext);
+					return null;
+				}
+				return bearerResponse;
+			} else if (statusCode == 401 && basicHeader != null) {
+				if (JAUTH_PATTERN.matcher(basicHeader.getValue()).matches()) {
+					throw new UnsupportedOperationException();
+
+				} else if (BASIC_PATTERN.matcher(basicHeader.getValue()).matches()) {
+					closeResponse(response);
+					learnAuthentication(serverURI, AuthChallenge.BASIC, null);
+
+					// setup the context to use Basic auth
+					handleBasicAuthChallenge(httpContext, serverURI, userId,
+							password, listener);
+					if (session != null) {
+						session.update(httpContext);
+					}
+					return null;
+				}
 
+			}
+		} catch (InvalidCredentialsException e) {
+			SESSIONS.invalidate(session);
+			throw e;
 		}
 		return response;
 	}
@@ -1194,7 +1882,7 @@ public class HttpUtils {
 	         
 	         // This request will fail if this client is connecting for the first time. It may succeed
 	         // if an OP session is already in place in which case some previous level-setting had already been done
-	          CloseableHttpResponse closeableResponse = executePrimitiveRequest(noPromptAuthorizationRequest, opHost, httpContext);
+	          CloseableHttpResponse closeableResponse = executePrimitiveRequest(noPromptAuthorizationRequest, opHost, serverURI, httpContext);
 	          int status = closeableResponse.getStatusLine().getStatusCode();
 	          
 	          if (status == 200) {
@@ -1219,6 +1907,7 @@ public class HttpUtils {
 						HttpClientUtils.closeQuietly(closeableResponse);
 						
 						LOGGER.finer("Using password as an application password for a delegated authentication challenge"); //$NON-NLS-1$
+						learnAuthentication(serverURI, AuthChallenge.APP_PASSWORD, appPasswordRequestHeader.getValue());
 						httpResponse = handleAppPasswordChallenge(httpContext, appPasswordRequestHeader.getValue(), serverURI
 	                    		, userId, password);
 	                }
@@ -1257,7 +1946,7 @@ public class HttpUtils {
         httpContext.setAttribute(RETRYING_AUTH_SERVER_CHALLENGE, Boolean.TRUE);
         CloseableHttpResponse appPasswordResponse;
         try {
-            appPasswordResponse = executePrimitiveRequest(appPasswordRequest, _targetHost, httpContext);
+            appPasswordResponse = executePrimitiveRequest(appPasswordRequest, _targetHost, serverURI, httpContext);
         } finally {
             httpContext.removeAttribute(RETRYING_AUTH_SERVER_CHALLENGE);
         }
@@ -1279,7 +1968,7 @@ public class HttpUtils {
        HttpHost _idpHost = opHost;
 
        LOGGER.finer("OIDC resending authorization request without prompt = none"); //$NON-NLS-1$
-        CloseableHttpResponse closeableResponse = executePrimitiveRequest(authorizationRequest, opHost, httpContext);
+        CloseableHttpResponse closeableResponse = executePrimitiveRequest(authorizationRequest, opHost, serverURI, httpContext);
      // so if we see a 200 at this stage, we are dealing with a FORM produced by the OP or some other IDP
         // in which case we will simply set http client to send Basic Creds to the last request preemptively
         if (closeableResponse.getStatusLine().getStatusCode() == 200) {
@@ -1303,7 +1992,7 @@ public class HttpUtils {
              // This is used by the getRedirect method to clear the cached credentials after auth server authentication succeeds,
              // to avoid sending credentials to the target server when it has the same hostname as the auth server.
              httpContext.setAttribute(RETRYING_AUTH_SERVER_CHALLENGE, Boolean.TRUE);
-             closeableResponse = executePrimitiveRequest(authorizationRequest, opHost, httpContext);
+             closeableResponse = executePrimitiveRequest(authorizationRequest, opHost, serverURI, httpContext);
              httpContext.removeAttribute(RETRYING_AUTH_SERVER_CHALLENGE);
              
              // In case the redirect interceptor didn't clear the cached credentials, do it now
@@ -1318,7 +2007,7 @@ public class HttpUtils {
         return closeableResponse;
  }
 
-private static CloseableHttpResponse executePrimitiveRequest(HttpRequest request, HttpHost targetHost, HttpClientContext context) throws IOException, GeneralSecurityException {
+private static CloseableHttpResponse executePrimitiveRequest(HttpRequest request, HttpHost targetHost, String serverURI, HttpClientContext context) throws IOException, GeneralSecurityException {
 	LOGGER.finer("Entering executePrimitiveRequest"); //$NON-NLS-1$
     try {
     	LOGGER.finer("PRIOR REQUEST EXECUTION CONTEXT "+context); //$NON-NLS-1$
@@ -1330,7 +2019,7 @@ private static CloseableHttpResponse executePrimitiveRequest(HttpRequest request
             LOGGER.finer("Adjusted user agent to: " + newUserAgent); //$NON-NLS-1$
             request.setHeader(HTTP.USER_AGENT, newUserAgent);
        }
-        CloseableHttpResponse response = getClient().execute(targetHost, request, context);
+        CloseableHttpResponse response = getClient(serverURI).execute(targetHost, request, context);
         LOGGER.finer("AFTER REQUEST EXECUTION CONTEXT " + context); //$NON-NLS-1$
         return response;
     }
@@ -1349,7 +2038,7 @@ private static CloseableHttpResponse executePrimitiveRequest(HttpRequest request
 	 *            The httpClient to use for the requests
 	 * @param httpContext
 	 *            httpContext with it's own cookie store for use with the
-	 *            singleton HTTP_CLIENT Not <code>null</code>
+	 *            shared http client Not <code>null</code>
 	 * @param serverURI
 	 *            The RTC server
 	 * @param userId
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.team.git.build.hjplugin.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Circuit breaker for the requests to one RTC server.
+ *
+ * While CLOSED requests go through and the outcome of the last
+ * <code>windowSize</code> requests is recorded. Once at least
+ * <code>minimumCalls</code> requests are recorded and the percentage of
+ * failures reaches <code>failureRateThreshold</code> the circuit OPENs and
+ * requests are rejected without contacting the server. After
+ * <code>openDuration</code> seconds the circuit is HALF_OPEN: the next request
+ * is let through as a probe while the others are still rejected. If the probe
+ * succeeds the circuit closes, otherwise it opens again.
+ *
+ * A failure is a transport error (connection refused, timeout...) or a 5xx
+ * response. Any other response shows the server is up and counts as a success.
+ *
+ * The settings are read from system properties prefixed with the name of this
+ * class, e.g.
+ * <code>com.ibm.team.git.build.hjplugin.http.RtcCircuitBreaker.openDuration=60</code>.
+ * Setting <code>enabled</code> to false turns the circuit breakers off.
+ */
+final class RtcCircuitBreaker {
+
+	private static final Logger LOGGER = Logger.getLogger(RtcCircuitBreaker.class.getName());
+
+	private static final String PROPERTY_PREFIX = RtcCircuitBreaker.class.getName() + "."; //$NON-NLS-1$
+
+	static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty(PROPERTY_PREFIX + "enabled")); //$NON-NLS-1$ //$NON-NLS-2$
+
+	private static final int WINDOW_SIZE = Math.max(1, Integer.getInteger(PROPERTY_PREFIX + "windowSize", 20)); //$NON-NLS-1$
+
+	private static final int MINIMUM_CALLS = Math.min(WINDOW_SIZE,
+			Math.max(1, Integer.getInteger(PROPERTY_PREFIX + "minimumCalls", 5))); //$NON-NLS-1$
+
+	private static final int FAILURE_RATE_THRESHOLD = Integer.getInteger(PROPERTY_PREFIX + "failureRateThreshold", 50); //$NON-NLS-1$
+
+	static final long OPEN_DURATION_MILLIS = TimeUnit.SECONDS.toMillis(
+			Integer.getInteger(PROPERTY_PREFIX + "openDuration", 60)); //$NON-NLS-1$
+
+	enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	private final String serverKey;
+	private final LongSupplier clock;
+	private final boolean[] outcomes = new boolean[WINDOW_SIZE];
+	private int recorded;
+	private int next;
+	private int failures;
+	private State state = State.CLOSED;
+	private long openedAt;
+	private boolean probeInFlight;
+
+	RtcCircuitBreaker(String serverKey) {
+		this(serverKey, System::currentTimeMillis);
+	}
+
+	/**
+	 * @param clock The current time in milliseconds
+	 */
+	RtcCircuitBreaker(String serverKey, LongSupplier clock) {
+		this.serverKey = serverKey;
+		this.clock = clock;
+	}
+
+	/**
+	 * Ask to send a request to the server. Every permitted request must be
+	 * followed by a call to {@link #onSuccess()}, {@link #onFailure()} or
+	 * {@link #onIgnored()}.
+	 *
+	 * @return <code>true</code> if the request may be sent,
+	 *         <code>false</code> if it should fail fast
+	 */
+	synchronized boolean tryAcquire() {
+		switch (state) {
+		case OPEN:
+			if (clock.getAsLong() - openedAt < OPEN_DURATION_MILLIS) {
+				return false;
+			}
+			LOGGER.info("Sending a probe request to RTC server " + serverKey); //$NON-NLS-1$
+			state = State.HALF_OPEN;
+			probeInFlight = true;
+			return true;
+		case HALF_OPEN:
+			if (probeInFlight) {
+				return false;
+			}
+			probeInFlight = true;
+			return true;
+		default:
+			return true;
+		}
+	}
+
+	/**
+	 * The server answered a permitted request
+	 */
+	synchronized void onSuccess() {
+		if (state == State.HALF_OPEN) {
+			LOGGER.info("RTC server " + serverKey + " is available again"); //$NON-NLS-1$ //$NON-NLS-2$
+			reset();
+			state = State.CLOSED;
+		} else if (state == State.CLOSED) {
+			record(false);
+		}
+	}
+
+	/**
+	 * A permitted request failed because of the server
+	 */
+	synchronized void onFailure() {
+		if (state == State.HALF_OPEN) {
+			open();
+		} else if (state == State.CLOSED) {
+			record(true);
+			if (recorded >= MINIMUM_CALLS && failures * 100 >= FAILURE_RATE_THRESHOLD * recorded) {
+				open();
+			}
+		}
+	}
+
+	/**
+	 * A permitted request failed without telling anything about the server
+	 */
+	synchronized void onIgnored() {
+		if (state == State.HALF_OPEN) {
+			probeInFlight = false;
+		}
+	}
+
+	synchronized State getState() {
+		return state;
+	}
+
+	private void open() {
+		LOGGER.warning("RTC server " + serverKey + " is unavailable, requests fail fast for the next " //$NON-NLS-1$ //$NON-NLS-2$
+				+ TimeUnit.MILLISECONDS.toSeconds(OPEN_DURATION_MILLIS) + " seconds"); //$NON-NLS-1$
+		reset();
+		state = State.OPEN;
+		openedAt = clock.getAsLong();
+	}
+
+	private void record(boolean failure) {
+		if (recorded == WINDOW_SIZE) {
+			if (outcomes[next]) {
+				failures--;
+			}
+		} else {
+			recorded++;
+		}
+		outcomes[next] = failure;
+		if (failure) {
+			failures++;
+		}
+		next = (next + 1) % WINDOW_SIZE;
+	}
+
+	private void reset() {
+		recorded = 0;
+		next = 0;
+		failures = 0;
+		probeInFlight = false;
+	}
+}
@@ -0,0 +1,306 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.team.git.build.hjplugin.http;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.http.config.Registry;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+/**
+ * One connection pool (and http client) per RTC server, so a slow server can
+ * only use up its own connections.
+ *
+ * The pool settings are read from system properties. Each setting can be
+ * overridden for a single server by appending its host name to the property
+ * name, e.g.
+ * <code>com.ibm.team.git.build.hjplugin.http.RtcConnectionPools.maxConnPerRoute.rtc.example.com=20</code>
+ * <ul>
+ * <li><code>maxConnPerRoute</code> connections per route (default 10)</li>
+ * <li><code>maxConnTotal</code> connections for the server (default 100)</li>
+ * <li><code>maxIdleTime</code> seconds before an idle connection is evicted
+ * (default 60)</li>
+ * <li><code>validateAfterInactivity</code> milliseconds of inactivity after
+ * which a pooled connection is checked before it is reused (default 2000)</li>
+ * </ul>
+ *
+ * A pool is only kept while its server is in use, so a mistyped URL does not
+ * hold a pool and its eviction thread for the life of Jenkins. These settings
+ * cannot be overridden per server:
+ * <ul>
+ * <li><code>maxPools</code> pools kept. Beyond it the least recently used one
+ * is dropped (default 50)</li>
+ * <li><code>maxUnusedTime</code> seconds after which a pool that was not used
+ * is dropped by {@link #closeUnused()} (default 1800)</li>
+ * </ul>
+ * A dropped pool is closed by the next call of {@link #closeUnused()} that
+ * finds none of its connections leased, so the requests still using it can
+ * finish.
+ */
+final class RtcConnectionPools {
+
+	private static final Logger LOGGER = Logger.getLogger(RtcConnectionPools.class.getName());
+
+	private static final String PROPERTY_PREFIX = RtcConnectionPools.class.getName() + "."; //$NON-NLS-1$
+
+	/**
+	 * Creates the http client for a server's connection manager
+	 */
+	interface ClientFactory {
+		CloseableHttpClient create(PoolingHttpClientConnectionManager connectionManager, Settings settings)
+				throws GeneralSecurityException;
+	}
+
+	/**
+	 * The pool settings of one server
+	 */
+	static final class Settings {
+		final int maxConnPerRoute;
+		final int maxConnTotal;
+		final long maxIdleTimeSeconds;
+		final int validateAfterInactivityMillis;
+
+		private Settings(String host) {
+			this.maxConnPerRoute = getSetting("maxConnPerRoute", host, 10); //$NON-NLS-1$
+			this.maxConnTotal = getSetting("maxConnTotal", host, 100); //$NON-NLS-1$
+			this.maxIdleTimeSeconds = getSetting("maxIdleTime", host, 60); //$NON-NLS-1$
+			this.validateAfterInactivityMillis = getSetting("validateAfterInactivity", host, 2000); //$NON-NLS-1$
+		}
+
+		private static int getSetting(String name, String host, int defaultValue) {
+			int value = Integer.getInteger(PROPERTY_PREFIX + name, defaultValue);
+			if (host != null) {
+				value = Integer.getInteger(PROPERTY_PREFIX + name + "." + host, value); //$NON-NLS-1$
+			}
+			return value;
+		}
+	}
+
+	private static final class Pool {
+		private final PoolingHttpClientConnectionManager connectionManager;
+		private final CloseableHttpClient httpClient;
+		private volatile long lastUsed;
+
+		private Pool(PoolingHttpClientConnectionManager connectionManager, CloseableHttpClient httpClient,
+				long lastUsed) {
+			this.connectionManager = connectionManager;
+			this.httpClient = httpClient;
+			this.lastUsed = lastUsed;
+		}
+	}
+
+	/**
+	 * How often (in milliseconds) at most the last use of a pool is recorded,
+	 * so the lookup of a busy pool does not write to it on every request
+	 */
+	private static final long LAST_USED_RESOLUTION_MILLIS = 1000;
+
+	private final ConcurrentMap<String, Pool> pools = new ConcurrentHashMap<String, Pool>();
+
+	/**
+	 * The pools dropped but not closed yet, guarded by itself
+	 */
+	private final List<Pool> retired = new ArrayList<Pool>();
+
+	private final int maxPools;
+	private final long maxUnusedMillis;
+	private final LongSupplier clock;
+
+	RtcConnectionPools() {
+		this(Settings.getSetting("maxPools", null, 50), //$NON-NLS-1$
+				TimeUnit.SECONDS.toMillis(Settings.getSetting("maxUnusedTime", null, 1800)), //$NON-NLS-1$
+				System::currentTimeMillis);
+	}
+
+	/**
+	 * @param maxPools The number of pools kept
+	 * @param maxUnusedMillis How long a pool is kept without being used
+	 * @param clock The current time in milliseconds
+	 */
+	RtcConnectionPools(int maxPools, long maxUnusedMillis, LongSupplier clock) {
+		this.maxPools = Math.max(1, maxPools);
+		this.maxUnusedMillis = maxUnusedMillis;
+		this.clock = clock;
+	}
+
+	/**
+	 * Returns the client of the server, creating the server's pool on first use.
+	 * The lookup is lock free. Threads that race to create the same pool each
+	 * build one, the first one published wins and the others are closed again.
+	 *
+	 * @param serverKey The normalized server URI
+	 * @param socketFactories The socket factories for the connection manager
+	 * @param factory Creates the client for a new connection manager
+	 * @return The client for the server
+	 * @throws GeneralSecurityException
+	 */
+	CloseableHttpClient getClient(String serverKey, Registry<ConnectionSocketFactory> socketFactories,
+			ClientFactory factory) throws GeneralSecurityException {
+		Pool pool = pools.get(serverKey);
+		if (pool != null) {
+			long now = clock.getAsLong();
+			if (now - pool.lastUsed >= LAST_USED_RESOLUTION_MILLIS) {
+				pool.lastUsed = now;
+			}
+		} else {
+			Settings settings = new Settings(getHost(serverKey));
+			PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(socketFactories);
+			connectionManager.setDefaultMaxPerRoute(settings.maxConnPerRoute);
+			connectionManager.setMaxTotal(settings.maxConnTotal);
+			connectionManager.setValidateAfterInactivity(settings.validateAfterInactivityMillis);
+			Pool newPool = new Pool(connectionManager, factory.create(connectionManager, settings),
+					clock.getAsLong());
+			pool = pools.putIfAbsent(serverKey, newPool);
+			if (pool == null) {
+				pool = newPool;
+				if (LOGGER.isLoggable(Level.FINE)) {
+					LOGGER.fine("Created connection pool for " + serverKey + " maxConnPerRoute=" //$NON-NLS-1$ //$NON-NLS-2$
+							+ settings.maxConnPerRoute + " maxConnTotal=" + settings.maxConnTotal); //$NON-NLS-1$
+				}
+				if (pools.size() > maxPools) {
+					retireLeastRecentlyUsed(serverKey);
+				}
+			} else {
+				close(newPool);
+			}
+		}
+		return pool.httpClient;
+	}
+
+	/**
+	 * Drop the pools that were not used for the configured time and close the
+	 * pools dropped before whose connections are all released. Called
+	 * periodically.
+	 */
+	void closeUnused() {
+		closeRetired(false);
+		long now = clock.getAsLong();
+		for (Map.Entry<String, Pool> entry : pools.entrySet()) {
+			if (now - entry.getValue().lastUsed >= maxUnusedMillis) {
+				retire(entry.getKey(), entry.getValue(), "unused"); //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * Close all the pools, when Jenkins stops
+	 */
+	void closeAll() {
+		for (Map.Entry<String, Pool> entry : pools.entrySet()) {
+			retire(entry.getKey(), entry.getValue(), "closed"); //$NON-NLS-1$
+		}
+		closeRetired(true);
+	}
+
+	private void retireLeastRecentlyUsed(String exceptServerKey) {
+		Map.Entry<String, Pool> leastRecentlyUsed = null;
+		for (Map.Entry<String, Pool> entry : pools.entrySet()) {
+			if (!entry.getKey().equals(exceptServerKey) && (leastRecentlyUsed == null
+					|| entry.getValue().lastUsed < leastRecentlyUsed.getValue().lastUsed)) {
+				leastRecentlyUsed = entry;
+			}
+		}
+		if (leastRecentlyUsed != null) {
+			retire(leastRecentlyUsed.getKey(), leastRecentlyUsed.getValue(), "least recently used"); //$NON-NLS-1$
+		}
+	}
+
+	private void retire(String serverKey, Pool pool, String reason) {
+		if (pools.remove(serverKey, pool)) {
+			if (LOGGER.isLoggable(Level.FINE)) {
+				LOGGER.fine("Dropped connection pool for " + serverKey + " (" + reason + ")"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+			synchronized (retired) {
+				retired.add(pool);
+			}
+		}
+	}
+
+	private void closeRetired(boolean evenIfLeased) {
+		List<Pool> closing = new ArrayList<Pool>();
+		synchronized (retired) {
+			for (Iterator<Pool> it = retired.iterator(); it.hasNext();) {
+				Pool pool = it.next();
+				if (evenIfLeased || pool.connectionManager.getTotalStats().getLeased() == 0) {
+					it.remove();
+					closing.add(pool);
+				}
+			}
+		}
+		for (Pool pool : closing) {
+			close(pool);
+		}
+	}
+
+	/**
+	 * @return For each server the statistics of each route in its pool, keyed
+	 *         by the route
+	 */
+	Map<String, Map<String, PoolStats>> getStats() {
+		Map<String, Map<String, PoolStats>> stats = new TreeMap<String, Map<String, PoolStats>>();
+		for (Map.Entry<String, Pool> entry : pools.entrySet()) {
+			PoolingHttpClientConnectionManager connectionManager = entry.getValue().connectionManager;
+			Map<String, PoolStats> routeStats = new TreeMap<String, PoolStats>();
+			for (HttpRoute route : connectionManager.getRoutes()) {
+				routeStats.put(route.toString(), connectionManager.getStats(route));
+			}
+			stats.put(entry.getKey(), Collections.unmodifiableMap(routeStats));
+		}
+		return Collections.unmodifiableMap(stats);
+	}
+
+	/**
+	 * @return For each server the statistics of its whole pool
+	 */
+	Map<String, PoolStats> getTotalStats() {
+		Map<String, PoolStats> stats = new TreeMap<String, PoolStats>();
+		for (Map.Entry<String, Pool> entry : pools.entrySet()) {
+			stats.put(entry.getKey(), entry.getValue().connectionManager.getTotalStats());
+		}
+		return Collections.unmodifiableMap(stats);
+	}
+
+	private static void close(Pool pool) {
+		try {
+			pool.httpClient.close();
+		} catch (IOException e) {
+			LOGGER.log(Level.FINER, "Failed to close http client", e); //$NON-NLS-1$
+		}
+	}
+
+	private static String getHost(String serverKey) {
+		try {
+			return new URI(serverKey).getHost();
+		} catch (URISyntaxException e) {
+			return null;
+		}
+	}
+}
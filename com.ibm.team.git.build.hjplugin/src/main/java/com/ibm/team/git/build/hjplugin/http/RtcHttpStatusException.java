@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin.http;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the RTC server answered a request with an unexpected status code
+ */
+@SuppressWarnings("serial")
+public class RtcHttpStatusException extends IOException {
+
+	private final int statusCode;
+
+	public RtcHttpStatusException(String errorMessage, int statusCode) {
+		super(errorMessage);
+		this.statusCode = statusCode;
+	}
+
+	/**
+	 * @return The status code of the response
+	 */
+	public int getStatusCode() {
+		return statusCode;
+	}
+}
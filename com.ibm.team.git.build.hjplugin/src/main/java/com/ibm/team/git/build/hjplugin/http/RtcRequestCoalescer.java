@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.team.git.build.hjplugin.http;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.security.GeneralSecurityException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.http.auth.InvalidCredentialsException;
+
+/**
+ * Lets concurrent identical requests share one call to the RTC server. When
+ * many builds start together they all validate the same build definition and
+ * ask for the same work items at the same moment; the first caller makes the
+ * request and the others wait for its result instead of sending their own.
+ *
+ * Only requests that read data may be coalesced. A result is shared only
+ * while the request is in flight, nothing is cached. If the request fails all
+ * callers waiting for it get the same exception. A caller waits at most as
+ * long as its own request may take, then it makes its own request.
+ *
+ * Only single attempts are shared: each caller retries a failed attempt on its
+ * own retry budget and reports the failure to its own listener.
+ *
+ * Coalescing is turned off with the system property <code>disabled</code>
+ * prefixed with the name of this class.
+ */
+final class RtcRequestCoalescer {
+
+	private static final Logger LOGGER = Logger.getLogger(RtcRequestCoalescer.class.getName());
+
+	private static final boolean DISABLED = Boolean.getBoolean(RtcRequestCoalescer.class.getName() + ".disabled"); //$NON-NLS-1$
+
+	private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<String, CompletableFuture<Object>>();
+
+	private final AtomicLong coalesced = new AtomicLong();
+
+	/**
+	 * Execute the request, or wait for the identical request another thread
+	 * is executing
+	 *
+	 * @param fullURI The URI of the request, for logging
+	 * @param key Identifies the request: the method, URI, parameters,
+	 *            timeout and credentials
+	 * @param waitMillis How long to wait for the request of another thread
+	 *            before making the request, the request is made at once if
+	 *            it is 0 or less
+	 * @param request The request
+	 * @return The result of the request
+	 * @throws InterruptedIOException If the thread is interrupted while waiting
+	 *             for the request of another thread
+	 */
+	@SuppressWarnings("unchecked")
+	<T> T execute(String fullURI, String key, long waitMillis, RtcRetryPolicy.Request<T> request)
+			throws IOException, InvalidCredentialsException, GeneralSecurityException {
+		if (DISABLED) {
+			return request.execute();
+		}
+		CompletableFuture<Object> future = new CompletableFuture<Object>();
+		CompletableFuture<Object> current = inFlight.putIfAbsent(key, future);
+		if (current != null && waitMillis > 0) {
+			if (LOGGER.isLoggable(Level.FINER)) {
+				LOGGER.finer("Waiting for the identical request in flight: " + fullURI); //$NON-NLS-1$
+			}
+			try {
+				return (T) await(current, waitMillis);
+			} catch (TimeoutException e) {
+				if (LOGGER.isLoggable(Level.FINE)) {
+					LOGGER.fine("The identical request in flight did not complete in " + waitMillis //$NON-NLS-1$
+							+ " ms, sending the request: " + fullURI); //$NON-NLS-1$
+				}
+			}
+		}
+		if (current != null) {
+			return request.execute();
+		}
+		try {
+			T result = request.execute();
+			future.complete(result);
+			return result;
+		} catch (Throwable e) {
+			future.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, future);
+		}
+	}
+
+	/**
+	 * @return The number of requests that were answered by the request of
+	 *         another thread
+	 */
+	long getCoalescedCount() {
+		return coalesced.get();
+	}
+
+	private Object await(CompletableFuture<Object> future, long waitMillis)
+			throws IOException, InvalidCredentialsException, GeneralSecurityException, TimeoutException {
+		try {
+			Object result = future.get(waitMillis, TimeUnit.MILLISECONDS);
+			coalesced.incrementAndGet();
+			return result;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			InterruptedIOException interrupted = new InterruptedIOException();
+			interrupted.initCause(e);
+			throw interrupted;
+		} catch (ExecutionException e) {
+			coalesced.incrementAndGet();
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof InvalidCredentialsException) {
+				throw (InvalidCredentialsException) cause;
+			} else if (cause instanceof GeneralSecurityException) {
+				throw (GeneralSecurityException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+}
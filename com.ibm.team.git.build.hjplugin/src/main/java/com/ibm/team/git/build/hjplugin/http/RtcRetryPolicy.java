@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.team.git.build.hjplugin.http;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.http.ConnectionClosedException;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.auth.InvalidCredentialsException;
+import org.apache.http.conn.ConnectTimeoutException;
+
+/**
+ * Retries idempotent requests that failed because the RTC server was
+ * (temporarily) unable to answer: a 5xx response, a reset or refused
+ * connection or a timeout.
+ *
+ * The delay before a retry is chosen at random between 0 and
+ * <code>baseDelay * 2^(attempt - 1)</code> milliseconds, capped at
+ * <code>maxDelay</code> ("full jitter"), so builds that failed together do not
+ * retry together. A request is tried at most <code>maxAttempts</code> times
+ * and all the requests of a build share a {@link Budget} of
+ * <code>buildBudget</code> retries.
+ *
+ * Requests rejected by the circuit breaker of the server are not retried.
+ *
+ * The settings are read from system properties prefixed with the name of this
+ * class.
+ */
+public final class RtcRetryPolicy {
+
+	private static final Logger LOGGER = Logger.getLogger(RtcRetryPolicy.class.getName());
+
+	private static final String PROPERTY_PREFIX = RtcRetryPolicy.class.getName() + "."; //$NON-NLS-1$
+
+	private static final int MAX_ATTEMPTS = Math.max(1, Integer.getInteger(PROPERTY_PREFIX + "maxAttempts", 4)); //$NON-NLS-1$
+
+	private static final long BASE_DELAY_MILLIS = Math.max(1, Integer.getInteger(PROPERTY_PREFIX + "baseDelay", 500)); //$NON-NLS-1$
+
+	private static final long MAX_DELAY_MILLIS = Math.max(1, Integer.getInteger(PROPERTY_PREFIX + "maxDelay", 10000)); //$NON-NLS-1$
+
+	private static final int BUILD_BUDGET = Math.max(0, Integer.getInteger(PROPERTY_PREFIX + "buildBudget", 10)); //$NON-NLS-1$
+
+	/**
+	 * The number of retries left for a build. Thread safe.
+	 */
+	public static final class Budget {
+		private final AtomicInteger remaining;
+
+		public Budget(int retries) {
+			this.remaining = new AtomicInteger(retries);
+		}
+
+		/**
+		 * @return A budget with the configured number of retries for a build
+		 */
+		public static Budget forBuild() {
+			return new Budget(BUILD_BUDGET);
+		}
+
+		/**
+		 * @return the number of retries left
+		 */
+		public int getRemaining() {
+			return remaining.get();
+		}
+
+		boolean tryConsume() {
+			while (true) {
+				int current = remaining.get();
+				if (current <= 0) {
+					return false;
+				}
+				if (remaining.compareAndSet(current, current - 1)) {
+					return true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * A request that can safely be sent again
+	 */
+	interface Request<T> {
+		T execute() throws IOException, InvalidCredentialsException, GeneralSecurityException;
+	}
+
+	private RtcRetryPolicy() {
+	}
+
+	/**
+	 * Execute the request, retrying it while it fails with a retryable error
+	 * and the limits allow it
+	 *
+	 * @param fullURI The URI of the request, for logging
+	 * @param budget The retry budget of the build. <code>null</code> if the
+	 *            request is not made for a build, then only the attempt limit
+	 *            applies.
+	 * @param request The request
+	 * @return The result of the first successful attempt
+	 * @throws InterruptedIOException If the thread is interrupted while waiting
+	 *             to retry
+	 */
+	static <T> T execute(String fullURI, Budget budget, Request<T> request)
+			throws IOException, InvalidCredentialsException, GeneralSecurityException {
+		for (int attempt = 1;; attempt++) {
+			try {
+				return request.execute();
+			} catch (IOException e) {
+				if (attempt >= MAX_ATTEMPTS || !isRetryable(e)
+						|| (budget != null && !budget.tryConsume())) {
+					throw e;
+				}
+				long delay = getDelay(attempt);
+				if (LOGGER.isLoggable(Level.FINE)) {
+					LOGGER.fine("Retrying " + fullURI + " in " + delay + " ms after attempt " + attempt //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+							+ " failed with " + e); //$NON-NLS-1$
+				}
+				sleep(delay);
+			}
+		}
+	}
+
+	static boolean isRetryable(IOException e) {
+		if (e instanceof RtcHttpStatusException) {
+			return ((RtcHttpStatusException) e).getStatusCode() >= 500;
+		}
+		return e instanceof SocketException
+				|| e instanceof SocketTimeoutException
+				|| e instanceof ConnectTimeoutException
+				|| e instanceof NoHttpResponseException
+				|| e instanceof ConnectionClosedException;
+	}
+
+	static long getDelay(int attempt) {
+		long cap = Math.min(MAX_DELAY_MILLIS, BASE_DELAY_MILLIS << Math.min(attempt - 1, 20));
+		return ThreadLocalRandom.current().nextLong(cap + 1);
+	}
+
+	private static void sleep(long millis) throws InterruptedIOException {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			InterruptedIOException interrupted = new InterruptedIOException();
+			interrupted.initCause(e);
+			throw interrupted;
+		}
+	}
+}
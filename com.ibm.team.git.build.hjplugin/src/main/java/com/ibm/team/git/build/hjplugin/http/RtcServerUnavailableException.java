@@ -0,0 +1,26 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin.http;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of sending a request to a RTC server that is known to be
+ * down. Requests fail fast with this exception until the server has
+ * answered a probe request again.
+ */
+@SuppressWarnings("serial")
+public class RtcServerUnavailableException extends IOException {
+
+	public RtcServerUnavailableException(String errorMessage) {
+		super(errorMessage);
+	}
+}
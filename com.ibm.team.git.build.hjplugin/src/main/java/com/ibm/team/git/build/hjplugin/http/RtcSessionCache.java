@@ -0,0 +1,257 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.team.git.build.hjplugin.http;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.http.client.AuthCache;
+import org.apache.http.client.CookieStore;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.BasicAuthCache;
+import org.apache.http.impl.client.BasicCookieStore;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+
+/**
+ * Cache of authenticated sessions with RTC servers, keyed by server URI and
+ * user id.
+ *
+ * A session holds the state that makes up an authenticated login (cookie store,
+ * auth cache and credentials provider). Every request gets its own
+ * {@link HttpClientContext}, so the per request state (such as the auth state
+ * of the target) is never shared between threads. The cookie store, auth cache
+ * and credentials provider of the session are shared by all the concurrent
+ * requests of the session, which is why only thread safe implementations are
+ * kept: {@link BasicCookieStore}, {@link BasicAuthCache} and
+ * {@link BasicCredentialsProvider}. The auth cache hands out a copy of a cached
+ * auth scheme on every lookup, so requests do not share the schemes
+ * themselves. Anything learned while answering an authentication challenge is
+ * written back to the session.
+ *
+ * Sessions which have not been used for the idle timeout are evicted. When
+ * there are more than the maximum number of sessions once the expired ones are
+ * evicted, the least recently used ones are evicted.
+ */
+final class RtcSessionCache {
+
+	private static final Logger LOGGER = Logger.getLogger(RtcSessionCache.class.getName());
+
+	/**
+	 * Context attribute which links a request context back to its session
+	 */
+	static final String SESSION_ATTRIBUTE = RtcSessionCache.class.getName() + ".session"; //$NON-NLS-1$
+
+	/**
+	 * How long (in seconds) an unused session is kept around
+	 */
+	private static final long IDLE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(
+			Integer.getInteger(RtcSessionCache.class.getName() + ".idleTimeout", 600)); //$NON-NLS-1$
+
+	/**
+	 * Upper bound on the number of sessions
+	 */
+	private static final int MAX_SESSIONS = Integer.getInteger(RtcSessionCache.class.getName() + ".maxSessions", 256); //$NON-NLS-1$
+
+	private final Map<String, Session> sessions = new ConcurrentHashMap<String, Session>();
+
+	private final int maxSessions;
+
+	private final LongSupplier clock;
+
+	RtcSessionCache() {
+		this(MAX_SESSIONS, System::currentTimeMillis);
+	}
+
+	/**
+	 * @param maxSessions The maximum number of sessions
+	 * @param clock The current time in milliseconds
+	 */
+	RtcSessionCache(int maxSessions, LongSupplier clock) {
+		this.maxSessions = Math.max(1, maxSessions);
+		this.clock = clock;
+	}
+
+	/**
+	 * Returns the session for the given server and user, creating a new one if
+	 * there is none, if it expired or if it was created for a different password.
+	 *
+	 * @param serverURI The RTC server
+	 * @param userId The user id
+	 * @param password The password. Only a digest of it is kept.
+	 * @return The session, never <code>null</code>
+	 */
+	Session acquire(String serverURI, String userId, String password) {
+		final String key = getKey(serverURI, userId);
+		final byte[] passwordDigest = digest(password);
+		final long now = clock.getAsLong();
+		Session session = sessions.compute(key, (k, current) -> {
+			if (current != null && !current.isExpired(now) && current.matches(passwordDigest)) {
+				return current;
+			}
+			if (current != null && LOGGER.isLoggable(Level.FINER)) {
+				LOGGER.finer("Discarding RTC session for " + k); //$NON-NLS-1$
+			}
+			return new Session(k, passwordDigest, now);
+		});
+		session.touch(now);
+		if (sessions.size() > maxSessions) {
+			evict(session, now);
+		}
+		return session;
+	}
+
+	/**
+	 * Drop the session if it is still the cached one for its key. Used when the
+	 * server rejected the credentials of the session.
+	 *
+	 * @param session The session to drop
+	 */
+	void invalidate(Session session) {
+		if (session != null) {
+			session.authenticated = false;
+			sessions.remove(session.key, session);
+		}
+	}
+
+	/**
+	 * Drop the session for the given server and user, if any
+	 */
+	void invalidate(String serverURI, String userId) {
+		Session session = sessions.remove(getKey(serverURI, userId));
+		if (session != null) {
+			session.authenticated = false;
+		}
+	}
+
+	/**
+	 * Evict the expired sessions, then the least recently used ones until
+	 * there are no more than the maximum
+	 *
+	 * @param acquired The session being acquired, which is kept
+	 */
+	private void evict(Session acquired, long now) {
+		for (Iterator<Session> it = sessions.values().iterator(); it.hasNext();) {
+			Session session = it.next();
+			if (session != acquired && session.isExpired(now)) {
+				it.remove();
+			}
+		}
+		while (sessions.size() > maxSessions) {
+			Session leastRecentlyUsed = null;
+			for (Session session : sessions.values()) {
+				if (session != acquired && (leastRecentlyUsed == null || session.lastUsed < leastRecentlyUsed.lastUsed)) {
+					leastRecentlyUsed = session;
+				}
+			}
+			if (leastRecentlyUsed == null) {
+				return;
+			}
+			if (sessions.remove(leastRecentlyUsed.key, leastRecentlyUsed) && LOGGER.isLoggable(Level.FINER)) {
+				LOGGER.finer("Evicting least recently used RTC session for " + leastRecentlyUsed.key); //$NON-NLS-1$
+			}
+		}
+	}
+
+	private static String getKey(String serverURI, String userId) {
+		return HttpUtils.getServerKey(serverURI) + '\n' + userId;
+	}
+
+	static byte[] digest(String password) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest( //$NON-NLS-1$
+					(password == null ? "" : password).getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * The shared state of an authenticated login with a RTC server
+	 */
+	static final class Session {
+		private final String key;
+		private final byte[] passwordDigest;
+		private final CookieStore cookieStore = new BasicCookieStore();
+		private volatile AuthCache authCache;
+		private volatile CredentialsProvider credentialsProvider;
+		private volatile boolean authenticated;
+		private volatile long lastUsed;
+
+		private Session(String key, byte[] passwordDigest, long now) {
+			this.key = key;
+			this.passwordDigest = passwordDigest;
+			this.lastUsed = now;
+		}
+
+		/**
+		 * @return a new request context that shares the cookie store, auth
+		 *         cache and credentials provider of this session
+		 */
+		HttpClientContext newContext() {
+			HttpClientContext httpContext = new HttpClientContext();
+			httpContext.setAttribute(HttpClientContext.COOKIE_STORE, cookieStore);
+			AuthCache cache = authCache;
+			if (cache != null) {
+				httpContext.setAuthCache(cache);
+			}
+			CredentialsProvider provider = credentialsProvider;
+			if (provider != null) {
+				httpContext.setCredentialsProvider(provider);
+			}
+			httpContext.setAttribute(SESSION_ATTRIBUTE, this);
+			return httpContext;
+		}
+
+		/**
+		 * Keep the authentication state of a request context that went through
+		 * an authentication challenge
+		 *
+		 * @param httpContext A context created by {@link #newContext()}
+		 */
+		void update(HttpClientContext httpContext) {
+			AuthCache cache = httpContext.getAuthCache();
+			this.authCache = cache instanceof BasicAuthCache ? cache : null;
+			CredentialsProvider provider = httpContext.getCredentialsProvider();
+			this.credentialsProvider = provider instanceof BasicCredentialsProvider ? provider : null;
+		}
+
+		boolean isAuthenticated() {
+			return authenticated;
+		}
+
+		void setAuthenticated() {
+			this.authenticated = true;
+		}
+
+		private boolean matches(byte[] digest) {
+			return MessageDigest.isEqual(passwordDigest, digest);
+		}
+
+		private boolean isExpired(long now) {
+			return now - lastUsed > IDLE_TIMEOUT_MILLIS;
+		}
+
+		private void touch(long now) {
+			this.lastUsed = now;
+		}
+	}
+}
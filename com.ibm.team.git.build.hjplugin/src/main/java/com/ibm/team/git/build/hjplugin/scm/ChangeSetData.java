@@ -18,6 +18,7 @@ public class ChangeSetData {
 	public final String id;
 	public final String comment;
 	public final String userName;
+	private ChangeSetKey changeSetKey;
 	
 	public ChangeSetData(String id, String comment, String userName) {
 		this.id = id;
@@ -25,11 +26,27 @@ public class ChangeSetData {
 		this.userName = userName;
 	}
 	
+	/**
+	 * Return the fixed size identity of this change set
+	 * 
+	 * @return the key of this change set
+	 */
+	public ChangeSetKey getChangeSetKey() {
+		ChangeSetKey key = changeSetKey;
+		if (key == null) {
+			key = ChangeSetKey.of(id, comment, userName);
+			changeSetKey = key;
+		}
+		return key;
+	}
+	
 	/**
 	 * Return the unique identifier for this change set
 	 * 
 	 * @return a string that represents this change set 
+	 * @deprecated includes the whole comment, use {@link #getChangeSetKey()}
 	 */
+	@Deprecated
 	public String getChangeSetId() {
 		// Concatenate all the strings
 		StringBuffer bf = new StringBuffer(); 
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin.scm;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Fixed size identity of a change set: the first 128 bits of the SHA-256 hash
+ * of its commit id, comment and author, in the order
+ * {@link ChangeSetData#getChangeSetId()} concatenated them. Keys can
+ * therefore also be computed from the change set ids recorded by older
+ * builds.
+ */
+public final class ChangeSetKey {
+
+	private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+		try {
+			return MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform supports SHA-256
+			throw new IllegalStateException(e);
+		}
+	});
+
+	private final long high;
+	private final long low;
+
+	public ChangeSetKey(long high, long low) {
+		this.high = high;
+		this.low = low;
+	}
+
+	/**
+	 * @param commitId The id of the commit
+	 * @param comment The comment of the commit
+	 * @param userName The author of the commit
+	 * @return The key of the change set
+	 */
+	public static ChangeSetKey of(String commitId, String comment, String userName) {
+		MessageDigest digest = DIGEST.get();
+		digest.update(String.valueOf(commitId).getBytes(StandardCharsets.UTF_8));
+		digest.update(String.valueOf(comment).getBytes(StandardCharsets.UTF_8));
+		digest.update(String.valueOf(userName).getBytes(StandardCharsets.UTF_8));
+		return fromDigest(digest.digest());
+	}
+
+	/**
+	 * @param changeSetId A change set id as returned by
+	 *            {@link ChangeSetData#getChangeSetId()}
+	 * @return The key of the change set
+	 */
+	public static ChangeSetKey ofChangeSetId(String changeSetId) {
+		MessageDigest digest = DIGEST.get();
+		return fromDigest(digest.digest(changeSetId.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static ChangeSetKey fromDigest(byte[] hash) {
+		ByteBuffer buffer = ByteBuffer.wrap(hash);
+		return new ChangeSetKey(buffer.getLong(), buffer.getLong());
+	}
+
+	/**
+	 * Pack keys into an array of two longs per key
+	 *
+	 * @param keys The keys
+	 * @return The packed keys
+	 */
+	public static long[] pack(ChangeSetKey[] keys) {
+		long[] packed = new long[keys.length * 2];
+		for (int i = 0; i < keys.length; i++) {
+			packed[2 * i] = keys[i].high;
+			packed[2 * i + 1] = keys[i].low;
+		}
+		return packed;
+	}
+
+	/**
+	 * @param packed Keys packed by {@link #pack(ChangeSetKey[])}
+	 * @param index The index of a key
+	 * @return The key at the index
+	 */
+	public static ChangeSetKey unpack(long[] packed, int index) {
+		return new ChangeSetKey(packed[2 * index], packed[2 * index + 1]);
+	}
+
+	public long getHigh() {
+		return high;
+	}
+
+	public long getLow() {
+		return low;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ChangeSetKey)) {
+			return false;
+		}
+		ChangeSetKey other = (ChangeSetKey) obj;
+		return high == other.high && low == other.low;
+	}
+
+	@Override
+	public int hashCode() {
+		// the bits are already uniformly distributed
+		return (int) low;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%016x%016x", high, low); //$NON-NLS-1$
+	}
+}
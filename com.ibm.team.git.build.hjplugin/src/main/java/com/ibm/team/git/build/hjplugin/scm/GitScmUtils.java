@@ -12,9 +12,14 @@
 package com.ibm.team.git.build.hjplugin.scm;
 
 import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -32,6 +37,71 @@ public class GitScmUtils {
 	private static String GIT_SCM_CLASS_NAME = "hudson.plugins.git.GitSCM"; //$NON-NLS-1$
 	public static String GIT_CHANGELOGSET_ENTRY_CLASS_NAME = "hudson.plugins.git.GitChangeSet"; //$NON-NLS-1$
 	
+	private static final MethodType GET_COMMENT_TYPE = MethodType.methodType(String.class, Entry.class);
+	private static final MethodType GET_CHANGE_SETS_TYPE = MethodType.methodType(List.class, Run.class);
+
+	/**
+	 * Whether a changelog entry class is the Git one. The name is only compared
+	 * once per class.
+	 */
+	private static final ClassValue<Boolean> IS_GIT_ENTRY = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			return GIT_CHANGELOGSET_ENTRY_CLASS_NAME.equals(type.getName());
+		}
+	};
+
+	/**
+	 * The getComment() method of a changelog entry class, looked up once per
+	 * class. Empty if the class has none.
+	 */
+	private static final ClassValue<Accessor> GET_COMMENT = new ClassValue<Accessor>() {
+		@Override
+		protected Accessor computeValue(Class<?> type) {
+			return Accessor.find(type, "getComment", GET_COMMENT_TYPE); //$NON-NLS-1$
+		}
+	};
+
+	/**
+	 * The getChangeSets() method of a run class, looked up once per class.
+	 * Empty if the class has none.
+	 */
+	private static final ClassValue<Accessor> GET_CHANGE_SETS = new ClassValue<Accessor>() {
+		@Override
+		protected Accessor computeValue(Class<?> type) {
+			return Accessor.find(type, "getChangeSets", GET_CHANGE_SETS_TYPE); //$NON-NLS-1$
+		}
+	};
+
+	/**
+	 * A public method found by name, or the reason why it could not be used
+	 */
+	private static final class Accessor {
+		final MethodHandle handle;
+		final ReflectiveOperationException error;
+
+		private Accessor(MethodHandle handle, ReflectiveOperationException error) {
+			this.handle = handle;
+			this.error = error;
+		}
+
+		static Accessor find(Class<?> type, String name, MethodType methodType) {
+			try {
+				MethodHandle handle = MethodHandles.publicLookup().unreflect(type.getMethod(name));
+				return new Accessor(handle.asType(methodType), null);
+			} catch (NoSuchMethodException | IllegalAccessException e) {
+				return new Accessor(null, e);
+			}
+		}
+
+		MethodHandle get() throws ReflectiveOperationException {
+			if (handle == null) {
+				throw error;
+			}
+			return handle;
+		}
+	}
+
 	public static boolean isGitScmBuild(Run<?, ?> run, PrintStream logger) {
 		// Check whether it has change sets which are from Git
 	    if (run instanceof AbstractBuild) {
@@ -48,12 +118,29 @@ public class GitScmUtils {
 
 	public static List<ChangeSetData> getIncludedCommits(Run<?,?> run, PrintStream logger) {
 		LOGGER.finest("GitScmUtils:getIncludedCommits Begin"); //$NON-NLS-1$
-		List<ChangeSetData> changeSetDataList = new ArrayList<>();
+		List<ChangeSetData> csList = new ArrayList<ChangeSetData>();
+		if (!visitIncludedCommits(run, logger, csList::add)) {
+			return null;
+		}
+		return csList;
+	}
+
+	/**
+	 * Pass the Git commits of a build to the visitor one at a time, without
+	 * collecting them, so a very large change log is not held in memory.
+	 * 
+	 * @param run The build
+	 * @param logger The build log. May be <code>null</code>.
+	 * @param visitor Receives the commits, in the order of the change log
+	 * @return <code>false</code> if reading the commits failed, in which case
+	 *         the visitor may have received some of them. A build which cannot
+	 *         report its change sets has no commits.
+	 */
+	public static boolean visitIncludedCommits(Run<?,?> run, PrintStream logger, Consumer<ChangeSetData> visitor) {
 		if (run instanceof AbstractBuild) {
 			AbstractBuild<?,?> build = (AbstractBuild<?,?>)run;
-			List<ChangeLogSet<?>> changeLogSetList = new ArrayList<ChangeLogSet<?>>();
-			changeLogSetList.add((ChangeLogSet<?>)build.getChangeSet());
-			return getIncludedCommits(changeLogSetList, logger);
+			return visitIncludedCommits(Collections.<ChangeLogSet<?>>singletonList(build.getChangeSet()),
+					logger, visitor);
 		} else {
 			/**
 			 * The getChangeSets() method was introduced through issue #24141.
@@ -62,12 +149,13 @@ public class GitScmUtils {
 			 * use the getChangeSets() method through reflection. Once we reach 2.60, we can directly 
 			 * use the method .
 			 */
-			try {if (run.getClass().getMethod("getChangeSets") != null)  { //$NON-NLS-1$
-	    		@SuppressWarnings("unchecked")
-				List<ChangeLogSet<?>> changeLogSets = (List<ChangeLogSet<?>>)run.getClass().getMethod("getChangeSets").invoke(run); //$NON-NLS-1$
-	    		return getIncludedCommits(changeLogSets, logger);
-			}} catch (NoSuchMethodException | SecurityException | IllegalAccessException 
-					| IllegalArgumentException | InvocationTargetException e){
+			List<ChangeLogSet<?>> changeLogSets;
+			try {
+				@SuppressWarnings("unchecked")
+				List<ChangeLogSet<?>> result = (List<ChangeLogSet<?>>) invoke(
+						GET_CHANGE_SETS.get(run.getClass()).get(), run);
+				changeLogSets = result;
+			} catch (ReflectiveOperationException | SecurityException | IllegalArgumentException e) {
 				// We could massage this and throw a proper exception.
 				// Otherwise user doesn't know that the plugin has failed and they have to upgrade workflow and Jenkins
 				LOGGER.log(Level.WARNING, "Error getting changeSets from build", e); //$NON-NLS-1$
@@ -77,18 +165,18 @@ public class GitScmUtils {
 					LOGGER.warning("If you are using a pipeline project, then upgrade workflow-job plugin to 2.11 and above"); //$NON-NLS-1$
 					RTCUtils.LogMessage(logger, Messages.Upgrade_Jenkins());
 				}
+				return true;
 			}
+			return visitIncludedCommits(changeLogSets, logger, visitor);
 		}
-		return changeSetDataList;
 	}
 	
-	private static List<ChangeSetData> getIncludedCommits(List<ChangeLogSet<?>> changeLogSets, PrintStream logger) {
-		LOGGER.finest("GitScmUtils:getIncludedCommits Begin"); //$NON-NLS-1$ 
-		List<ChangeSetData> csList = new ArrayList<ChangeSetData>();
+	private static boolean visitIncludedCommits(List<ChangeLogSet<?>> changeLogSets, PrintStream logger,
+			Consumer<ChangeSetData> visitor) {
+		LOGGER.finest("GitScmUtils:visitIncludedCommits Begin"); //$NON-NLS-1$ 
     	try {
     		for(ChangeLogSet<?> changeLogSet : changeLogSets){
-    			Object [] changeSetEntries = changeLogSet.getItems();
-    			for (Object o : changeSetEntries) {
+    			for (Object o : changeLogSet) {
 	    			ChangeLogSet.Entry csEntry = (ChangeLogSet.Entry) o;
 	    			if (isGitScmChangeLogSetEntry(csEntry)) {
 	    				ChangeSetData csData = createChangeSetData(csEntry);
@@ -98,7 +186,7 @@ public class GitScmUtils {
 		    							  "comment : " + csData.comment	+ "\n" + //$NON-NLS-1$ //$NON-NLS-2$
 		    							  "authorId : " + csData.userName); //$NON-NLS-1$
 	    				}
-	    				csList.add(csData);    		
+	    				visitor.accept(csData);
 	    			}
     			}
     		}
@@ -106,9 +194,9 @@ public class GitScmUtils {
     		RTCUtils.LogMessage(logger, Messages.Error_CalculatingChanges());
     		RTCUtils.LogMessage(logger, e.getMessage());
     		LOGGER.log(Level.WARNING, "Error getting Git commit details from the build", e); //$NON-NLS-1$
-    		csList = null;
+    		return false;
     	}	
-    	return csList;
+    	return true;
 	}
 	
 	public static ChangeSetData getChangeSetData(Entry csEntry, PrintStream logger) {
@@ -133,13 +221,40 @@ public class GitScmUtils {
 	 * otherwise
 	 */
 	public static boolean isGitScmChangeLogSetEntry(Entry change) {
-		return change != null && 
-				change.getClass().getName().equals(GIT_CHANGELOGSET_ENTRY_CLASS_NAME);
+		return change != null && IS_GIT_ENTRY.get(change.getClass());
+	}
+	
+	/**
+	 * Returns the comment of a changelog entry which has a
+	 * <code>getComment()</code> method, as GitChangeSet does.
+	 * 
+	 * @param csEntry The changelog entry
+	 * @return The comment of the entry
+	 * @throws ReflectiveOperationException If the entry has no
+	 *             <code>getComment()</code> method or it fails
+	 */
+	public static String getComment(Entry csEntry) throws ReflectiveOperationException {
+		return (String) invoke(GET_COMMENT.get(csEntry.getClass()).get(), csEntry);
+	}
+	
+	/**
+	 * Invoke a handle of type (Object)Object, reporting failures of the
+	 * invoked method as {@link InvocationTargetException} like
+	 * {@link java.lang.reflect.Method#invoke(Object, Object...)}
+	 */
+	private static Object invoke(MethodHandle handle, Object target) throws InvocationTargetException {
+		try {
+			return handle.invoke(target);
+		} catch (Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new InvocationTargetException(e);
+		}
 	}
 	
 	private static ChangeSetData createChangeSetData(Entry csEntry) throws Exception {
 		// Since we know we are using GitChangeSet, we can look for getComment
-		String comment = (String) csEntry.getClass().getMethod("getComment").invoke(csEntry); //$NON-NLS-1$
+		String comment = getComment(csEntry);
 		ChangeSetData csData = new ChangeSetData(csEntry.getCommitId(), comment, 
 									csEntry.getAuthor().getId());
 		return csData;
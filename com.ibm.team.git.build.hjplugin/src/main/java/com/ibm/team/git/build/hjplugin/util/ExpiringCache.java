@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A cache of at most <code>maxEntries</code> entries which expire a fixed
+ * time after they were added. When the cache is full the least recently used
+ * entry is evicted.
+ *
+ * A <code>null</code> value can be cached, to remember that there is no value
+ * for a key (negative caching). Such entries expire after their own, usually
+ * shorter, time.
+ *
+ * Thread safe.
+ */
+public final class ExpiringCache<K, V> {
+
+	/**
+	 * A cached value
+	 */
+	public static final class Entry<V> {
+		private final V value;
+		private final long expiresAt;
+
+		Entry(V value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+
+		/**
+		 * @return The value, <code>null</code> if it is known that there is
+		 *         none
+		 */
+		public V getValue() {
+			return value;
+		}
+	}
+
+	private final int maxEntries;
+	private final long ttlMillis;
+	private final long negativeTtlMillis;
+	private final LongSupplier clock;
+	private final Map<K, Entry<V>> entries;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * @param maxEntries The maximum number of entries
+	 * @param ttlMillis How long a value is kept
+	 * @param negativeTtlMillis How long a <code>null</code> value is kept
+	 */
+	public ExpiringCache(int maxEntries, long ttlMillis, long negativeTtlMillis) {
+		this(maxEntries, ttlMillis, negativeTtlMillis, System::currentTimeMillis);
+	}
+
+	/**
+	 * @param maxEntries The maximum number of entries
+	 * @param ttlMillis How long a value is kept
+	 * @param negativeTtlMillis How long a <code>null</code> value is kept
+	 * @param clock The current time in milliseconds
+	 */
+	public ExpiringCache(final int maxEntries, long ttlMillis, long negativeTtlMillis, LongSupplier clock) {
+		this.maxEntries = maxEntries;
+		this.ttlMillis = ttlMillis;
+		this.negativeTtlMillis = negativeTtlMillis;
+		this.clock = clock;
+		this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+				if (size() > maxEntries) {
+					evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * @param key The key
+	 * @return The entry of the key, <code>null</code> if it is not cached or
+	 *         has expired
+	 */
+	public Entry<V> get(K key) {
+		long now = clock.getAsLong();
+		synchronized (entries) {
+			Entry<V> entry = entries.get(key);
+			if (entry != null && entry.expiresAt - now <= 0) {
+				entries.remove(key);
+				evictions.incrementAndGet();
+				entry = null;
+			}
+			if (entry == null) {
+				misses.incrementAndGet();
+			} else {
+				hits.incrementAndGet();
+			}
+			return entry;
+		}
+	}
+
+	/**
+	 * @param key The key
+	 * @param value The value, <code>null</code> to remember that there is none
+	 */
+	public void put(K key, V value) {
+		long ttl = value != null ? ttlMillis : negativeTtlMillis;
+		if (ttl <= 0 || maxEntries <= 0) {
+			return;
+		}
+		Entry<V> entry = new Entry<V>(value, clock.getAsLong() + ttl);
+		synchronized (entries) {
+			entries.put(key, entry);
+		}
+	}
+
+	/**
+	 * @param key The key whose entry is removed
+	 */
+	public void invalidate(K key) {
+		synchronized (entries) {
+			entries.remove(key);
+		}
+	}
+
+	public void invalidateAll() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	/**
+	 * Remove the entries which have expired
+	 */
+	public void cleanUp() {
+		long now = clock.getAsLong();
+		synchronized (entries) {
+			for (Iterator<Entry<V>> it = entries.values().iterator(); it.hasNext();) {
+				if (it.next().expiresAt - now <= 0) {
+					it.remove();
+					evictions.incrementAndGet();
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return The number of entries, including the expired ones which were
+	 *         not removed yet
+	 */
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * @return The number of lookups which found a value
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * @return The number of lookups which found no value
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * @return The number of entries removed because the cache was full or
+	 *         they expired
+	 */
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+}
@@ -17,6 +17,7 @@ import java.util.logging.Logger;
 
 import com.ibm.team.git.build.hjplugin.RTCUtils;
 
+import hudson.EnvVars;
 import hudson.Util;
 import hudson.model.AbstractBuild;
 import hudson.model.ParameterValue;
@@ -30,6 +31,74 @@ public class Helper {
 
 	private static final Logger LOGGER = Logger.getLogger(Helper.class.getName());
 
+	/**
+	 * The innermost {@link MemoizedEnvironment} opened by the current thread
+	 */
+	private static final ThreadLocal<MemoizedEnvironment> MEMOIZED_ENVIRONMENT = new ThreadLocal<MemoizedEnvironment>();
+
+	/**
+	 * Remembers the environment of a build while it is open, so the methods
+	 * of {@link Helper} called for the build by the same thread resolve the
+	 * environment only once. {@link Run#getEnvironment(TaskListener)} asks
+	 * every EnvironmentContributor, which is expensive on large instances.
+	 *
+	 * The environment of a running build changes between its steps (e.g. by
+	 * parameters or environment variables set by a pipeline), so it is only
+	 * remembered for the duration of a single step or listener call: open it
+	 * at the start of the call and close it at the end.
+	 */
+	public static final class MemoizedEnvironment implements AutoCloseable {
+		private final Run<?, ?> build;
+		private final MemoizedEnvironment outer;
+		private EnvVars environment;
+
+		private MemoizedEnvironment(Run<?, ?> build, MemoizedEnvironment outer) {
+			this.build = build;
+			this.outer = outer;
+		}
+
+		@Override
+		public void close() {
+			if (outer == null) {
+				MEMOIZED_ENVIRONMENT.remove();
+			} else {
+				MEMOIZED_ENVIRONMENT.set(outer);
+			}
+		}
+	}
+
+	/**
+	 * Remember the environment of the build for the current thread until the
+	 * returned object is closed
+	 * 
+	 * @param build The Jenkins build. Cannot be <code>null</code>
+	 * @return The memoized environment, to be closed at the end of the step
+	 */
+	public static MemoizedEnvironment memoizeEnvironment(Run<?, ?> build) {
+		MemoizedEnvironment memoized = new MemoizedEnvironment(build, MEMOIZED_ENVIRONMENT.get());
+		MEMOIZED_ENVIRONMENT.set(memoized);
+		return memoized;
+	}
+
+	/**
+	 * @return The environment of the build, as memoized for the current thread
+	 *         if it is. The caller must not modify it.
+	 */
+	private static EnvVars getEnvironment(Run<?, ?> build, TaskListener listener)
+			throws IOException, InterruptedException {
+		MemoizedEnvironment memoized = MEMOIZED_ENVIRONMENT.get();
+		while (memoized != null && memoized.build != build) {
+			memoized = memoized.outer;
+		}
+		if (memoized == null) {
+			return build.getEnvironment(listener);
+		}
+		if (memoized.environment == null) {
+			memoized.environment = build.getEnvironment(listener);
+		}
+		return memoized.environment;
+	}
+
 	/** 
 	 * merge two results, if both are errors only one stack trace can be included
 	 * @param firstCheck The first validation done
@@ -81,7 +150,7 @@ public class Helper {
 		 if (LOGGER.isLoggable(Level.FINE)) {
 			 LOGGER.fine("Helper.getStringBuildProperty: Finding value for property '" + property + "' in the build environment variables.");	  //$NON-NLS-1$ //$NON-NLS-2$
 		 }
-		 String value = Util.fixEmptyAndTrim(build.getEnvironment(listener).get(property));
+		 String value = Util.fixEmptyAndTrim(getEnvironment(build, listener).get(property));
 		 if (value == null) {
 			if (LOGGER.isLoggable(Level.FINE)) {
 				LOGGER.fine("Helper.getStringBuildProperty: Cannot find value for property '" + property + "' in the build environment variables. Looking in the build parameters."); //$NON-NLS-1$ //$NON-NLS-2$
@@ -150,7 +219,7 @@ public class Helper {
 		// this replace is required to retain consecutive $, like $$, in the template string. 		
 		fieldValue = fieldValue.replaceAll("\\$\\$", "\\$\\$\\$\\$"); //$NON-NLS-1$ //$NON-NLS-2$
 		// lookup and resolve environment variables
-		String s = build.getEnvironment(listener).expand(fieldValue);
+		String s = getEnvironment(build, listener).expand(fieldValue);
 
 		if (build instanceof AbstractBuild) {
 			// Util.replaceMacro() replaces $$ with a single $
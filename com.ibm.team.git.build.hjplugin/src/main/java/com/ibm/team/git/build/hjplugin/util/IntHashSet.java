@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin.util;
+
+import java.util.Arrays;
+
+/**
+ * A set of <code>int</code>s which does not box its elements. The elements
+ * are returned in the order they were first added.
+ *
+ * Not thread safe.
+ */
+public final class IntHashSet {
+
+	private static final int MIN_CAPACITY = 8;
+
+	/**
+	 * Open addressing table with linear probing: the index in
+	 * <code>elements</code> plus one, <code>0</code> for a free slot
+	 */
+	private int[] table;
+
+	/**
+	 * The elements in insertion order
+	 */
+	private int[] elements;
+
+	private int size;
+
+	public IntHashSet() {
+		this(MIN_CAPACITY);
+	}
+
+	/**
+	 * @param expectedSize The number of elements to make room for
+	 */
+	public IntHashSet(int expectedSize) {
+		int capacity = Math.max(MIN_CAPACITY, expectedSize);
+		this.elements = new int[capacity];
+		this.table = new int[tableSize(capacity)];
+	}
+
+	/**
+	 * @param value The element to add
+	 * @return <code>true</code> if the element was not in the set yet
+	 */
+	public boolean add(int value) {
+		int mask = table.length - 1;
+		int slot = hash(value) & mask;
+		int index;
+		while ((index = table[slot]) != 0) {
+			if (elements[index - 1] == value) {
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+		if (size == elements.length) {
+			grow();
+			return add(value);
+		}
+		elements[size++] = value;
+		table[slot] = size;
+		return true;
+	}
+
+	/**
+	 * Add all the elements of another set
+	 *
+	 * @param other The set to add
+	 */
+	public void addAll(IntHashSet other) {
+		for (int i = 0; i < other.size; i++) {
+			add(other.elements[i]);
+		}
+	}
+
+	/**
+	 * @param value An element
+	 * @return <code>true</code> if the element is in the set
+	 */
+	public boolean contains(int value) {
+		int mask = table.length - 1;
+		int slot = hash(value) & mask;
+		int index;
+		while ((index = table[slot]) != 0) {
+			if (elements[index - 1] == value) {
+				return true;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return false;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return The elements in the order they were first added
+	 */
+	public int[] toArray() {
+		return Arrays.copyOf(elements, size);
+	}
+
+	private void grow() {
+		elements = Arrays.copyOf(elements, elements.length * 2);
+		table = new int[tableSize(elements.length)];
+		int mask = table.length - 1;
+		for (int i = 0; i < size; i++) {
+			int slot = hash(elements[i]) & mask;
+			while (table[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			table[slot] = i + 1;
+		}
+	}
+
+	/**
+	 * A power of two at least twice the capacity, so the table is never more
+	 * than half full
+	 */
+	private static int tableSize(int capacity) {
+		return Integer.highestOneBit(capacity * 2 - 1) << 1;
+	}
+
+	private static int hash(int value) {
+		int h = value * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
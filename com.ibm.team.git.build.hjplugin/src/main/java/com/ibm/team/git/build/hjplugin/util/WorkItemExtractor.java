@@ -0,0 +1,286 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.IntConsumer;
+
+/**
+ * Finds the work item ids in commit comments.
+ *
+ * A work item id is a number that follows one of the keywords (case
+ * insensitive, ASCII only), e.g. <code>bug 123</code> or
+ * <code>task-45</code>.
+ * <ul>
+ * <li>The keyword is at the start of the comment or follows one of
+ * <code>- = : _ . , ;</code> or a whitespace</li>
+ * <li>The keyword and the number are separated by one of
+ * <code>- _ : =</code> or by whitespace</li>
+ * <li>The number is at the end of the comment or is followed by one of
+ * <code>- = : _ . , ;</code> or a whitespace</li>
+ * </ul>
+ * A leading and a trailing double quote of the comment are ignored and
+ * <code>work item</code> is treated as the single word <code>workitem</code>.
+ * Numbers that do not fit in an <code>int</code> are ignored.
+ *
+ * These are the rules of the regular expression this class replaces. The
+ * keywords are compiled into a trie once and each comment is scanned in a
+ * single pass without creating any objects.
+ *
+ * Instances are immutable and thread safe.
+ */
+public final class WorkItemExtractor {
+
+	private static final int[] NO_IDS = new int[0];
+
+	private static final int ALPHABET = 128;
+
+	/**
+	 * The transitions of the trie: the child of <code>node</code> for
+	 * character <code>c</code> is <code>next[node * ALPHABET + c] - 1</code>,
+	 * <code>-1</code> if there is none. The root is node 0.
+	 */
+	private final int[] next;
+
+	/**
+	 * Whether a keyword ends at a node
+	 */
+	private final boolean[] terminal;
+
+	/**
+	 * @param keywords The keywords that introduce a work item id. Must be
+	 *            ASCII.
+	 */
+	public WorkItemExtractor(Collection<String> keywords) {
+		int maxNodes = 1;
+		for (String keyword : keywords) {
+			maxNodes += keyword.length();
+		}
+		int[] transitions = new int[maxNodes * ALPHABET];
+		boolean[] terminals = new boolean[maxNodes];
+		int nodes = 1;
+		for (String keyword : keywords) {
+			int node = 0;
+			for (int i = 0; i < keyword.length(); i++) {
+				int c = fold(keyword.charAt(i));
+				if (c >= ALPHABET) {
+					throw new IllegalArgumentException("Keyword is not ASCII: " + keyword); //$NON-NLS-1$
+				}
+				int child = transitions[node * ALPHABET + c] - 1;
+				if (child < 0) {
+					child = nodes++;
+					transitions[node * ALPHABET + c] = child + 1;
+				}
+				node = child;
+			}
+			terminals[node] = true;
+		}
+		this.next = Arrays.copyOf(transitions, nodes * ALPHABET);
+		this.terminal = Arrays.copyOf(terminals, nodes);
+	}
+
+	/**
+	 * @param comment The commit comment. May be <code>null</code>.
+	 * @return The work item ids in the order they appear in the comment,
+	 *         including duplicates
+	 */
+	public int[] extract(String comment) {
+		IdList ids = new IdList();
+		extract(comment, ids);
+		return ids.toArray();
+	}
+
+	/**
+	 * Pass each work item id of the comment to the consumer, in the order they
+	 * appear in the comment (including duplicates)
+	 *
+	 * @param comment The commit comment. May be <code>null</code>.
+	 * @param consumer Receives the ids
+	 */
+	public void extract(String comment, IntConsumer consumer) {
+		if (comment == null) {
+			return;
+		}
+		int length = comment.length();
+		int start = length > 0 && comment.charAt(0) == '"' ? 1 : 0;
+		int closingQuote = getClosingQuote(comment, start);
+		int i = start;
+		while (i < length) {
+			int end = match(comment, i, start, closingQuote, consumer);
+			i = end > i ? end : i + 1;
+		}
+	}
+
+	/**
+	 * Match a keyword followed by a work item id at a position
+	 *
+	 * @return The position after the match, <code>-1</code> if there is no
+	 *         match at the position
+	 */
+	private int match(String comment, int from, int start, int closingQuote, IntConsumer consumer) {
+		if (!isKeywordStart(comment, from, start)) {
+			return -1;
+		}
+		int node = 0;
+		for (int i = from; i < comment.length();) {
+			int c = fold(comment.charAt(i++));
+			if (c >= ALPHABET) {
+				return -1;
+			}
+			node = next[node * ALPHABET + c] - 1;
+			if (node < 0) {
+				return -1;
+			}
+			if (terminal[node]) {
+				int end = matchId(comment, i, closingQuote, consumer);
+				if (end >= 0) {
+					return end;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Match the separator, the id and the character following the id
+	 *
+	 * @return The position after the match, <code>-1</code> if there is no
+	 *         match at the position
+	 */
+	private static int matchId(String comment, int i, int closingQuote, IntConsumer consumer) {
+		int length = comment.length();
+		if (i >= length) {
+			return -1;
+		}
+		char c = comment.charAt(i);
+		if (c == '-' || c == '_' || c == ':' || c == '=') {
+			i++;
+		} else if (isWhitespace(c)) {
+			do {
+				i++;
+			} while (i < length && isWhitespace(comment.charAt(i)));
+		} else {
+			return -1;
+		}
+		int digits = i;
+		long id = 0;
+		while (i < length && (c = comment.charAt(i)) >= '0' && c <= '9') {
+			if (id <= Integer.MAX_VALUE) {
+				id = id * 10 + (c - '0');
+			}
+			i++;
+		}
+		if (i == digits) {
+			return -1;
+		}
+		if (i == closingQuote) {
+			i++;
+		}
+		if (i < length) {
+			c = comment.charAt(i);
+			if (isSeparator(c)) {
+				i++;
+			} else if (!isLineTerminator(c)
+					|| (i != length - 1 && (i != length - 2 || closingQuote != length - 1))) {
+				// a final line terminator counts as the end of the comment
+				return -1;
+			}
+		}
+		if (id <= Integer.MAX_VALUE) {
+			consumer.accept((int) id);
+		}
+		return i;
+	}
+
+	/**
+	 * A keyword can start at the start of the comment or after a separator,
+	 * except for the <code>item</code> in <code>work item</code>
+	 */
+	private static boolean isKeywordStart(String comment, int i, int start) {
+		if (i == start) {
+			return true;
+		}
+		return isSeparator(comment.charAt(i - 1)) && !isWorkItem(comment, i - 5);
+	}
+
+	private static boolean isWorkItem(String comment, int i) {
+		return i >= 0 && i + 9 <= comment.length()
+				&& fold(comment.charAt(i)) == 'w' && fold(comment.charAt(i + 1)) == 'o'
+				&& fold(comment.charAt(i + 2)) == 'r' && fold(comment.charAt(i + 3)) == 'k'
+				&& fold(comment.charAt(i + 4)) == ' '
+				&& fold(comment.charAt(i + 5)) == 'i' && fold(comment.charAt(i + 6)) == 't'
+				&& fold(comment.charAt(i + 7)) == 'e' && fold(comment.charAt(i + 8)) == 'm';
+	}
+
+	/**
+	 * @return The position of the trailing double quote of the comment (which
+	 *         may be followed by a line terminator), <code>-1</code> if there
+	 *         is none
+	 */
+	private static int getClosingQuote(String comment, int start) {
+		int length = comment.length();
+		int quote = -1;
+		if (length >= 1 && comment.charAt(length - 1) == '"') {
+			quote = length - 1;
+		} else if (length >= 2 && isLineTerminator(comment.charAt(length - 1))
+				&& comment.charAt(length - 2) == '"') {
+			quote = length - 2;
+		} else if (length >= 3 && comment.charAt(length - 1) == '\n' && comment.charAt(length - 2) == '\r'
+				&& comment.charAt(length - 3) == '"') {
+			quote = length - 3;
+		}
+		return quote >= start ? quote : -1;
+	}
+
+	/**
+	 * Lower case ASCII letters and turn tabs and line breaks into spaces
+	 */
+	private static int fold(char c) {
+		if (c >= 'A' && c <= 'Z') {
+			return c + ('a' - 'A');
+		}
+		if (c == '\t' || c == '\n' || c == '\r') {
+			return ' ';
+		}
+		return c;
+	}
+
+	private static boolean isSeparator(char c) {
+		return c == '-' || c == '=' || c == ':' || c == '_' || c == '.' || c == ',' || c == ';'
+				|| isWhitespace(c);
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+
+	private static boolean isLineTerminator(char c) {
+		return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+	}
+
+	private static final class IdList implements IntConsumer {
+		private int[] ids = NO_IDS;
+		private int size;
+
+		@Override
+		public void accept(int id) {
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, Math.max(4, size * 2));
+			}
+			ids[size++] = id;
+		}
+
+		int[] toArray() {
+			return size == ids.length ? ids : Arrays.copyOf(ids, size);
+		}
+	}
+}
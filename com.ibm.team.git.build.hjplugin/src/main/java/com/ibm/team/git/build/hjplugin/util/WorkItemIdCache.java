@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Remembers the work item ids found in the comments of the most recently seen
+ * commits, by commit id, so a commit which is part of the change log of many
+ * builds (e.g. of the branches and pull requests of a multibranch project) is
+ * only scanned once.
+ *
+ * A cache belongs to one {@link WorkItemExtractor}: the ids depend on the
+ * keywords, so an extractor with other keywords needs a cache of its own.
+ *
+ * The cache holds at most <code>maxEntries</code> commits, read from the
+ * system property prefixed with the name of this class, and drops the least
+ * recently used ones. <code>0</code> turns it off.
+ *
+ * Thread safe. The commits are spread over up to 16 segments by the hash of
+ * their id, each with its own lock and its share of <code>maxEntries</code>,
+ * so the builds scanning change logs in parallel do not wait for each other.
+ * The least recently used commit is dropped from the segment that is full.
+ */
+public final class WorkItemIdCache {
+
+	private static final int MAX_ENTRIES = Math.max(0,
+			Integer.getInteger(WorkItemIdCache.class.getName() + ".maxEntries", 20000)); //$NON-NLS-1$
+
+	private static final int MAX_SEGMENTS = 16;
+
+	private static final int[] NO_IDS = new int[0];
+
+	/**
+	 * The least recently used commits of a segment
+	 */
+	private static final class Segment extends LinkedHashMap<String, int[]> {
+		private static final long serialVersionUID = 1L;
+
+		private final int maxEntries;
+
+		Segment(int maxEntries) {
+			super(16, 0.75f, true);
+			this.maxEntries = maxEntries;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest) {
+			return size() > maxEntries;
+		}
+	}
+
+	private final WorkItemExtractor extractor;
+	private final int maxEntries;
+	private final Segment[] segments;
+
+	/**
+	 * @param extractor Finds the ids of the commits which are not cached
+	 */
+	public WorkItemIdCache(WorkItemExtractor extractor) {
+		this(extractor, MAX_ENTRIES);
+	}
+
+	/**
+	 * @param extractor Finds the ids of the commits which are not cached
+	 * @param maxEntries The number of commits to remember
+	 */
+	public WorkItemIdCache(WorkItemExtractor extractor, int maxEntries) {
+		this(extractor, maxEntries, MAX_SEGMENTS);
+	}
+
+	/**
+	 * @param extractor Finds the ids of the commits which are not cached
+	 * @param maxEntries The number of commits to remember
+	 * @param maxSegments The number of segments, rounded down to a power of
+	 *            two and at most <code>maxEntries</code>
+	 */
+	WorkItemIdCache(WorkItemExtractor extractor, int maxEntries, int maxSegments) {
+		this.extractor = extractor;
+		this.maxEntries = maxEntries;
+		int count = Integer.highestOneBit(Math.max(1, Math.min(maxSegments, maxEntries)));
+		this.segments = new Segment[count];
+		for (int i = 0; i < count; i++) {
+			// the remainder goes to the first segments, so they add up to
+			// maxEntries
+			segments[i] = new Segment(maxEntries / count + (i < maxEntries % count ? 1 : 0));
+		}
+	}
+
+	/**
+	 * Pass the work item ids of a commit comment to the consumer, in the order
+	 * they appear in the comment (including duplicates)
+	 *
+	 * @param commitId The id of the commit. If <code>null</code> the comment
+	 *            is scanned and the ids are not cached.
+	 * @param comment The comment of the commit. May be <code>null</code>.
+	 * @param consumer Receives the ids
+	 */
+	public void extract(String commitId, String comment, IntConsumer consumer) {
+		if (commitId == null || maxEntries == 0) {
+			extractor.extract(comment, consumer);
+			return;
+		}
+		Segment segment = getSegment(commitId);
+		int[] ids;
+		synchronized (segment) {
+			ids = segment.get(commitId);
+		}
+		if (ids == null) {
+			ids = extractor.extract(comment);
+			if (ids.length == 0) {
+				ids = NO_IDS;
+			}
+			synchronized (segment) {
+				segment.put(commitId, ids);
+			}
+		}
+		for (int id : ids) {
+			consumer.accept(id);
+		}
+	}
+
+	private Segment getSegment(String commitId) {
+		int hash = commitId.hashCode();
+		return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+	}
+
+	/**
+	 * @return The number of commits in the cache
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	public void clear() {
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+}
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin.util;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.IntConsumer;
+
+/**
+ * Collects the distinct work item ids of a sequence of commit comments.
+ *
+ * The first <code>parallelThreshold</code> comments are scanned on the
+ * calling thread. The comments after them are scanned in batches of
+ * <code>batchSize</code> on a shared {@link ForkJoinPool} of
+ * <code>parallelism</code> threads, so a change log of many thousand commits
+ * does not keep a single thread busy. The ids of the batches are merged in
+ * the order of the batches, so the result is the same as that of a scan on a
+ * single thread: the ids in the order they are first mentioned.
+ *
+ * At most <code>4 * parallelism</code> batches are pending at a time, so the
+ * comments waiting to be scanned do not pile up.
+ *
+ * The settings are read from system properties prefixed with the name of this
+ * class. The pool is only created when a change log reaches the threshold.
+ *
+ * Instances are not thread safe.
+ */
+public final class WorkItemIdCollector {
+
+	private static final String PROPERTY_PREFIX = WorkItemIdCollector.class.getName() + "."; //$NON-NLS-1$
+
+	private static final int PARALLEL_THRESHOLD = Math.max(0,
+			Integer.getInteger(PROPERTY_PREFIX + "parallelThreshold", 20000)); //$NON-NLS-1$
+
+	private static final int PARALLELISM = Math.max(1, Integer.getInteger(PROPERTY_PREFIX + "parallelism", //$NON-NLS-1$
+			Math.max(1, Runtime.getRuntime().availableProcessors() / 4)));
+
+	private static final int BATCH_SIZE = Math.max(1, Integer.getInteger(PROPERTY_PREFIX + "batchSize", 1024)); //$NON-NLS-1$
+
+	private static final int MAX_PENDING_BATCHES = 4 * PARALLELISM;
+
+	private static final class Pool {
+		static final ForkJoinPool INSTANCE = new ForkJoinPool(PARALLELISM, pool -> {
+			ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+			thread.setName("RTC work item extraction " + thread.getPoolIndex()); //$NON-NLS-1$
+			return thread;
+		}, null, false);
+	}
+
+	private final WorkItemIdCache cache;
+	private final int parallelThreshold;
+	private final IntHashSet ids = new IntHashSet();
+	private final IntConsumer collector = ids::add;
+	private final ArrayDeque<ForkJoinTask<IntHashSet>> pending = new ArrayDeque<ForkJoinTask<IntHashSet>>();
+	/**
+	 * The ids and comments of the commits of the next batch, alternating
+	 */
+	private String[] batch;
+	private int batchLength;
+	private int count;
+
+	/**
+	 * @param extractor Finds the ids in a comment
+	 */
+	public WorkItemIdCollector(WorkItemExtractor extractor) {
+		this(new WorkItemIdCache(extractor, 0), PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * @param extractor Finds the ids in a comment
+	 * @param parallelThreshold The number of comments scanned on the calling
+	 *            thread before the others are scanned in parallel
+	 */
+	public WorkItemIdCollector(WorkItemExtractor extractor, int parallelThreshold) {
+		this(new WorkItemIdCache(extractor, 0), parallelThreshold);
+	}
+
+	/**
+	 * @param cache Finds the ids in a comment, or remembers them
+	 */
+	public WorkItemIdCollector(WorkItemIdCache cache) {
+		this(cache, PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * @param cache Finds the ids in a comment, or remembers them
+	 * @param parallelThreshold The number of comments scanned on the calling
+	 *            thread before the others are scanned in parallel
+	 */
+	public WorkItemIdCollector(WorkItemIdCache cache, int parallelThreshold) {
+		this.cache = cache;
+		this.parallelThreshold = PARALLELISM > 1 ? parallelThreshold : Integer.MAX_VALUE;
+	}
+
+	/**
+	 * @param comment The comment of a commit. May be <code>null</code>.
+	 */
+	public void add(String comment) {
+		add(null, comment);
+	}
+
+	/**
+	 * @param commitId The id of the commit, under which its ids are cached.
+	 *            May be <code>null</code>.
+	 * @param comment The comment of the commit. May be <code>null</code>.
+	 */
+	public void add(String commitId, String comment) {
+		if (count < parallelThreshold) {
+			count++;
+			cache.extract(commitId, comment, collector);
+			return;
+		}
+		if (batch == null) {
+			batch = new String[2 * BATCH_SIZE];
+		}
+		batch[batchLength++] = commitId;
+		batch[batchLength++] = comment;
+		if (batchLength == batch.length) {
+			submitBatch();
+		}
+	}
+
+	/**
+	 * Wait for the comments added so far to be scanned
+	 *
+	 * @return The distinct ids, in the order they are first mentioned
+	 */
+	public int[] getIds() {
+		if (batchLength > 0) {
+			submitBatch();
+		}
+		while (!pending.isEmpty()) {
+			ids.addAll(pending.poll().join());
+		}
+		return ids.toArray();
+	}
+
+	private void submitBatch() {
+		final String[] commits = batch;
+		final int length = batchLength;
+		batch = null;
+		batchLength = 0;
+		// merge what is done already, keeping the order of the batches
+		while (!pending.isEmpty() && (pending.peek().isDone() || pending.size() >= MAX_PENDING_BATCHES)) {
+			ids.addAll(pending.poll().join());
+		}
+		pending.add(Pool.INSTANCE.submit(() -> {
+			IntHashSet batchIds = new IntHashSet();
+			IntConsumer batchCollector = batchIds::add;
+			for (int i = 0; i < length; i += 2) {
+				cache.extract(commits[i], commits[i + 1], batchCollector);
+			}
+			return batchIds;
+		}));
+	}
+}
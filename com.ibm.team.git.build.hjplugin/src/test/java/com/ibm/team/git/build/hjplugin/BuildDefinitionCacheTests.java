@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.team.git.build.hjplugin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.team.git.build.hjplugin.http.FakeRtcServer;
+import com.ibm.team.git.build.hjplugin.http.HttpUtils;
+
+public class BuildDefinitionCacheTests {
+
+	private static final String SERVER_URI = "https://rtc.example.com:9443/ccm"; //$NON-NLS-1$
+	private static final String USER = "builder"; //$NON-NLS-1$
+	private static final String PASSWORD = "secret"; //$NON-NLS-1$
+	private static final String DEFINITION = "jenkins.build"; //$NON-NLS-1$
+
+	private static final long TTL = 3600000;
+	private static final long NEGATIVE_TTL = 60000;
+
+	private final AtomicLong now = new AtomicLong(1000);
+	private final BuildDefinitionCache cache = new BuildDefinitionCache(100, TTL, NEGATIVE_TTL, now::get);
+
+	private FakeRtcServer server;
+
+	@Before
+	public void setUp() throws Exception {
+		server = new FakeRtcServer(FakeRtcServer.Authentication.NONE, USER, PASSWORD);
+		// the probe of the login is answered before any status code is queued
+		HttpUtils.getSessionContext(server.getURI(), USER, PASSWORD, 30);
+	}
+
+	@After
+	public void tearDown() {
+		server.close();
+	}
+
+	@Test
+	public void testValidDefinitionExpires() {
+		cache.setValid(SERVER_URI, USER, DEFINITION, true);
+		now.addAndGet(TTL - 1);
+		Assert.assertEquals(Boolean.TRUE, cache.isValid(SERVER_URI, USER, DEFINITION));
+		now.addAndGet(1);
+		Assert.assertNull(cache.isValid(SERVER_URI, USER, DEFINITION));
+	}
+
+	@Test
+	public void testInvalidDefinitionExpiresSooner() {
+		cache.setValid(SERVER_URI, USER, DEFINITION, false);
+		now.addAndGet(NEGATIVE_TTL - 1);
+		Assert.assertEquals(Boolean.FALSE, cache.isValid(SERVER_URI, USER, DEFINITION));
+		now.addAndGet(1);
+		// a definition created since is checked again
+		Assert.assertNull(cache.isValid(SERVER_URI, USER, DEFINITION));
+	}
+
+	@Test
+	public void testDefinitionsAreKeptPerServerAndUser() {
+		cache.setValid(SERVER_URI, USER, DEFINITION, true);
+		Assert.assertNull(cache.isValid(SERVER_URI, "other", DEFINITION)); //$NON-NLS-1$
+		Assert.assertNull(cache.isValid("https://other.example.com/ccm", USER, DEFINITION)); //$NON-NLS-1$
+		Assert.assertNull(cache.isValid(SERVER_URI, USER, "other")); //$NON-NLS-1$
+		// the URI as formatted by the connector
+		Assert.assertEquals(Boolean.TRUE, cache.isValid(RTCUtils.formatURI(SERVER_URI), USER, DEFINITION));
+	}
+
+	@Test
+	public void testInvalidateForgetsDefinition() {
+		cache.setValid(SERVER_URI, USER, DEFINITION, true);
+		cache.invalidate(SERVER_URI, USER, DEFINITION);
+		Assert.assertNull(cache.isValid(SERVER_URI, USER, DEFINITION));
+	}
+
+	@Test
+	public void testSuccessfulCreateKeepsDefinition() {
+		RTCConnector connector = newConnector();
+		BuildDefinitionCache.get().setValid(server.getURI(), USER, DEFINITION, true);
+		int requests = server.getRequests();
+		Assert.assertEquals("ok", connector.createRTCBuild(newLog())); //$NON-NLS-1$
+		// not validated again
+		Assert.assertEquals(requests + 1, server.getRequests());
+		Assert.assertEquals(Boolean.TRUE, BuildDefinitionCache.get().isValid(server.getURI(), USER, DEFINITION));
+	}
+
+	@Test
+	public void testFailedCreateInvalidatesDefinition() {
+		RTCConnector connector = newConnector();
+		BuildDefinitionCache.get().setValid(server.getURI(), USER, DEFINITION, true);
+		// the build definition was deleted in RTC
+		server.respondWith(400);
+		Assert.assertNull(connector.createRTCBuild(newLog()));
+		Assert.assertNull(BuildDefinitionCache.get().isValid(server.getURI(), USER, DEFINITION));
+	}
+
+	private RTCConnector newConnector() {
+		return new RTCConnector(server.getURI(), USER, PASSWORD, 30, DEFINITION, null, true, null,
+				"http://jenkins.example.com/", "job/test/1/", "test #1", true); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	private static PrintStream newLog() {
+		return new PrintStream(new ByteArrayOutputStream());
+	}
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.team.git.build.hjplugin;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.team.git.build.hjplugin.scm.ChangeSetData;
+import com.ibm.team.git.build.hjplugin.scm.ChangeSetKey;
+
+import hudson.util.XStream2;
+
+/**
+ * Tests of the conversion of the change set ids recorded by older builds to
+ * {@link ChangeSetKey}s
+ */
+public class BuildParameterActionTests {
+
+	private static final ChangeSetData[] CHANGE_SETS = {
+			new ChangeSetData("9fceb02d0ae598e95dc970b74767f19372d61af8", //$NON-NLS-1$
+					"Fix the login <form> & task 1234\n\nwith a second line", "builder"), //$NON-NLS-1$ //$NON-NLS-2$
+			new ChangeSetData("0a1b2c3d4e5f60718293a4b5c6d7e8f901234567", "bug 42", "Ünïcödé Üser"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			new ChangeSetData("fedcba9876543210fedcba9876543210fedcba98", null, null), //$NON-NLS-1$
+	};
+
+	@SuppressWarnings("deprecation")
+	private static String getOldBuildXml() {
+		StringBuilder xml = new StringBuilder();
+		xml.append("<com.ibm.team.git.build.hjplugin.BuildParameterAction>\n"); //$NON-NLS-1$
+		xml.append("  <rtcURL>https://rtc.example.com:9443/ccm</rtcURL>\n"); //$NON-NLS-1$
+		xml.append("  <shouldAnnotate>true</shouldAnnotate>\n"); //$NON-NLS-1$
+		xml.append("  <ownsBuildCycle>false</ownsBuildCycle>\n"); //$NON-NLS-1$
+		xml.append("  <timeout>480</timeout>\n"); //$NON-NLS-1$
+		xml.append("  <changeSetIds>\n"); //$NON-NLS-1$
+		for (ChangeSetData changeSet : CHANGE_SETS) {
+			xml.append("    <string>").append(escape(changeSet.getChangeSetId())).append("</string>\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		xml.append("  </changeSetIds>\n"); //$NON-NLS-1$
+		xml.append("</com.ibm.team.git.build.hjplugin.BuildParameterAction>\n"); //$NON-NLS-1$
+		return xml.toString();
+	}
+
+	private static String escape(String text) {
+		return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+	}
+
+	@Test
+	public void testChangeSetIdsOfOlderBuildAreConverted() {
+		BuildParameterAction action = (BuildParameterAction) new XStream2().fromXML(getOldBuildXml());
+		ChangeSetKey[] keys = action.getChangeSetKeys();
+		Assert.assertEquals(CHANGE_SETS.length, keys.length);
+		for (int i = 0; i < CHANGE_SETS.length; i++) {
+			// the key of the commit when it is scanned by a new build
+			Assert.assertEquals(CHANGE_SETS[i].getChangeSetKey(), keys[i]);
+		}
+	}
+
+	@Test
+	public void testConvertedActionIsSavedWithKeysOnly() {
+		XStream2 xstream = new XStream2();
+		BuildParameterAction action = (BuildParameterAction) xstream.fromXML(getOldBuildXml());
+		String xml = xstream.toXML(action);
+		Assert.assertFalse(xml, xml.contains("changeSetIds")); //$NON-NLS-1$
+		BuildParameterAction reloaded = (BuildParameterAction) xstream.fromXML(xml);
+		Assert.assertArrayEquals(action.getChangeSetKeys(), reloaded.getChangeSetKeys());
+	}
+
+	@SuppressWarnings("deprecation")
+	@Test
+	public void testDeprecatedSetterComputesSameKeys() {
+		BuildParameterAction action = new BuildParameterAction("credentials", 480, //$NON-NLS-1$
+				"https://rtc.example.com:9443/ccm", null, false, null, true); //$NON-NLS-1$
+		String[] changeSetIds = new String[CHANGE_SETS.length];
+		ChangeSetKey[] keys = new ChangeSetKey[CHANGE_SETS.length];
+		for (int i = 0; i < CHANGE_SETS.length; i++) {
+			changeSetIds[i] = CHANGE_SETS[i].getChangeSetId();
+			keys[i] = CHANGE_SETS[i].getChangeSetKey();
+		}
+		action.setChangeSetIds(changeSetIds);
+		Assert.assertArrayEquals(keys, action.getChangeSetKeys());
+	}
+
+	@SuppressWarnings("deprecation")
+	@Test
+	public void testDeprecatedGetterConvertsKeys() {
+		BuildParameterAction action = (BuildParameterAction) new XStream2().fromXML(getOldBuildXml());
+		String[] changeSetIds = action.getChangeSetIds();
+		Assert.assertEquals(CHANGE_SETS.length, changeSetIds.length);
+		for (int i = 0; i < CHANGE_SETS.length; i++) {
+			Assert.assertEquals(CHANGE_SETS[i].getChangeSetKey().toString(), changeSetIds[i]);
+		}
+	}
+
+	@SuppressWarnings("deprecation")
+	@Test
+	public void testActionWithoutChangeSets() {
+		BuildParameterAction action = (BuildParameterAction) new XStream2().fromXML(
+				"<com.ibm.team.git.build.hjplugin.BuildParameterAction/>"); //$NON-NLS-1$
+		Assert.assertEquals(0, action.getChangeSetKeys().length);
+		Assert.assertEquals(0, action.getChangeSetIds().length);
+	}
+}
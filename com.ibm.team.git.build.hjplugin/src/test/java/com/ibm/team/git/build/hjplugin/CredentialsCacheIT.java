@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.team.git.build.hjplugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import com.cloudbees.plugins.credentials.UserCredentialsProvider;
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
+import com.cloudbees.plugins.credentials.domains.DomainCredentials;
+import com.cloudbees.plugins.credentials.impl.UsernamePasswordCredentialsImpl;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.User;
+
+/**
+ * Integration tests for {@link CredentialsCache}
+ */
+public class CredentialsCacheIT {
+
+	private static final String SERVER_URI = "https://rtc.example.com:9443/ccm"; //$NON-NLS-1$
+	private static final String CREDENTIALS_ID = "rtc"; //$NON-NLS-1$
+	private static final String CONTEXT = "test"; //$NON-NLS-1$
+
+	@Rule public JenkinsRule r = new JenkinsRule();
+
+	private FreeStyleProject project;
+
+	@Before
+	public void setUp() throws Exception {
+		project = r.createFreeStyleProject();
+		setPassword("secret"); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testChangedPasswordIsSeenAfterStoreSave() throws Exception {
+		assertEquals("secret", getPassword()); //$NON-NLS-1$
+		setPassword("changed"); //$NON-NLS-1$
+		assertEquals("changed", getPassword()); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testOtherSavesKeepCachedCredentials() throws Exception {
+		cacheCredentials();
+		project.save();
+		r.jenkins.save();
+		r.createFolder("folder").save(); //$NON-NLS-1$
+		assertNotNull(CredentialsCache.get(CONTEXT, CREDENTIALS_ID, SERVER_URI));
+	}
+
+	@Test
+	public void testUserCredentialsSaveDropsCachedCredentials() throws Exception {
+		User user = User.getById("alice", true); //$NON-NLS-1$
+		user.addProperty(new UserCredentialsProvider.UserCredentialsProperty(new DomainCredentials[0]));
+		cacheCredentials();
+		user.save();
+		assertNull(CredentialsCache.get(CONTEXT, CREDENTIALS_ID, SERVER_URI));
+	}
+
+	private String getPassword() throws Exception {
+		return new RTCLoginInfo(project, SERVER_URI, CREDENTIALS_ID, 30).getPassword();
+	}
+
+	private static void cacheCredentials() {
+		StandardUsernamePasswordCredentials credentials = new UsernamePasswordCredentialsImpl(
+				CredentialsScope.GLOBAL, CREDENTIALS_ID, null, "builder", "secret"); //$NON-NLS-1$ //$NON-NLS-2$
+		CredentialsCache.put(CONTEXT, CREDENTIALS_ID, SERVER_URI, credentials);
+	}
+
+	private static void setPassword(String password) throws Exception {
+		SystemCredentialsProvider provider = SystemCredentialsProvider.getInstance();
+		provider.getCredentials().clear();
+		provider.getCredentials().add(new UsernamePasswordCredentialsImpl(CredentialsScope.GLOBAL,
+				CREDENTIALS_ID, null, "builder", password)); //$NON-NLS-1$
+		provider.save();
+	}
+}
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.team.git.build.hjplugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestBuilder;
+
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import com.cloudbees.plugins.credentials.impl.UsernamePasswordCredentialsImpl;
+
+import hudson.Launcher;
+import hudson.model.AbstractBuild;
+import hudson.model.BuildListener;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+
+/**
+ * Integration tests for {@link RTCBuildContext}
+ */
+public class RTCBuildContextIT {
+
+	private static final String SERVER_URI = "https://rtc.example.com:9443/ccm"; //$NON-NLS-1$
+	private static final String CREDENTIALS_ID = "rtc"; //$NON-NLS-1$
+
+	@Rule public JenkinsRule r = new JenkinsRule();
+
+	@Test
+	public void testContextIsReleasedWhenBuildIsFinalized() throws Exception {
+		final AtomicReference<RTCBuildContext> duringBuild = new AtomicReference<RTCBuildContext>();
+		FreeStyleProject project = r.createFreeStyleProject();
+		project.getBuildersList().add(new TestBuilder() {
+			@Override
+			public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener) {
+				duringBuild.set(RTCBuildContext.get(build));
+				// the same context for every step of the build
+				assertSame(duringBuild.get(), RTCBuildContext.get(build));
+				return true;
+			}
+		});
+		FreeStyleBuild build = r.buildAndAssertSuccess(project);
+
+		long deadline = System.currentTimeMillis() + 30000;
+		while (RTCBuildContext.get(build) == duringBuild.get()) {
+			assertTrue("The context was not released", System.currentTimeMillis() < deadline); //$NON-NLS-1$
+			Thread.sleep(50);
+		}
+	}
+
+	@Test
+	public void testFailedLookupIsNotCached() throws Exception {
+		FreeStyleBuild build = r.buildAndAssertSuccess(r.createFreeStyleProject());
+		RTCBuildContext context = RTCBuildContext.get(build);
+		try {
+			context.getLoginInfo(SERVER_URI, CREDENTIALS_ID, 30);
+			fail();
+		} catch (InvalidCredentialsException e) {
+			// not created yet
+		}
+		addCredentials("secret"); //$NON-NLS-1$
+		assertEquals("secret", context.getLoginInfo(SERVER_URI, CREDENTIALS_ID, 30).getPassword()); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testCredentialsAreResolvedOncePerBuild() throws Exception {
+		addCredentials("secret"); //$NON-NLS-1$
+		FreeStyleProject project = r.createFreeStyleProject();
+		FreeStyleBuild build = r.buildAndAssertSuccess(project);
+		RTCBuildContext context = RTCBuildContext.get(build);
+		RTCLoginInfo loginInfo = context.getLoginInfo(SERVER_URI, CREDENTIALS_ID, 30);
+
+		SystemCredentialsProvider.getInstance().getCredentials().clear();
+		addCredentials("rotated"); //$NON-NLS-1$
+		// kept for the rest of the build
+		assertSame(loginInfo, context.getLoginInfo(SERVER_URI, CREDENTIALS_ID, 30));
+		// looked up again by the next build
+		FreeStyleBuild next = r.buildAndAssertSuccess(project);
+		RTCLoginInfo nextLoginInfo = RTCBuildContext.get(next).getLoginInfo(SERVER_URI, CREDENTIALS_ID, 30);
+		assertNotSame(loginInfo, nextLoginInfo);
+		assertEquals("rotated", nextLoginInfo.getPassword()); //$NON-NLS-1$
+	}
+
+	private static void addCredentials(String password) throws Exception {
+		SystemCredentialsProvider.getInstance().getCredentials().add(
+				new UsernamePasswordCredentialsImpl(CredentialsScope.GLOBAL, CREDENTIALS_ID, null, "builder", password)); //$NON-NLS-1$
+		SystemCredentialsProvider.getInstance().save();
+	}
+}
@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.team.git.build.hjplugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.http.NameValuePair;
+import org.apache.http.message.BasicNameValuePair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import com.cloudbees.plugins.credentials.CredentialsProvider;
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
+import com.cloudbees.plugins.credentials.impl.UsernamePasswordCredentialsImpl;
+import com.ibm.team.git.build.hjplugin.http.FakeRtcServer;
+import com.ibm.team.git.build.hjplugin.http.HttpUtils;
+import com.ibm.team.git.build.hjplugin.http.RtcHttpStatusException;
+
+import hudson.model.FreeStyleBuild;
+import hudson.util.StreamTaskListener;
+
+/**
+ * Integration tests for {@link RTCOutbox}
+ */
+public class RTCOutboxIT {
+
+	private static final String USER = "builder"; //$NON-NLS-1$
+	private static final String PASSWORD = "secret"; //$NON-NLS-1$
+	private static final String CREDENTIALS_ID = "rtc"; //$NON-NLS-1$
+	private static final String SERVICE = "service/test"; //$NON-NLS-1$
+	private static final String TARGET = "1234"; //$NON-NLS-1$
+
+	@Rule public JenkinsRule r = new JenkinsRule();
+	@Rule public TemporaryFolder folder = new TemporaryFolder();
+
+	private FakeRtcServer server;
+	private FreeStyleBuild build;
+	private File directory;
+	private int loginRequests;
+
+	@Before
+	public void setUp() throws Exception {
+		server = new FakeRtcServer(FakeRtcServer.Authentication.NONE, USER, PASSWORD);
+		SystemCredentialsProvider.getInstance().getCredentials().add(
+				new UsernamePasswordCredentialsImpl(CredentialsScope.GLOBAL, CREDENTIALS_ID, null, USER, PASSWORD));
+		SystemCredentialsProvider.getInstance().save();
+		build = r.buildAndAssertSuccess(r.createFreeStyleProject());
+		directory = folder.newFolder();
+		// the requests of the login are not the ones of the outbox
+		HttpUtils.getSessionContext(server.getURI(), USER, PASSWORD, 30);
+		loginRequests = server.getBodies().size();
+	}
+
+	@After
+	public void tearDown() {
+		server.close();
+	}
+
+	@Test
+	public void testEnqueuedEntriesAreDeliveredInOrder() throws Exception {
+		RTCOutbox outbox = new RTCOutbox(directory);
+		ByteArrayOutputStream log = new ByteArrayOutputStream();
+		StreamTaskListener listener = new StreamTaskListener(log, StandardCharsets.UTF_8);
+		server.setDelay(500);
+		for (String comment : new String[] {"first", "second", "third"}) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			outbox.enqueue(build, server.getURI(), TARGET, CREDENTIALS_ID, 30, SERVICE, params(comment),
+					"failed", false, listener); //$NON-NLS-1$
+		}
+		// persisted before they are sent
+		assertEquals(3, directory.list().length);
+		assertTrue(log.toString("UTF-8").contains(SERVICE)); //$NON-NLS-1$
+
+		awaitDelivery(outbox);
+		assertEquals(Arrays.asList("comment=first", "comment=second", "comment=third"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				getDelivered());
+		assertEquals(0, directory.list().length);
+	}
+
+	@Test
+	public void testReloadedEntriesAreDeliveredInOrder() throws Exception {
+		RTCOutbox.Entry first = newEntry("first", 1); //$NON-NLS-1$
+		RTCOutbox.Entry second = newEntry("second", 2); //$NON-NLS-1$
+		RTCOutbox.Entry third = newEntry("third", 3); //$NON-NLS-1$
+		// persisted by an outbox that stopped before sending them
+		RTCOutbox stopped = new RTCOutbox(directory);
+		stopped.save(third);
+		stopped.save(first);
+		stopped.save(second);
+
+		RTCOutbox outbox = new RTCOutbox(directory);
+		outbox.reload();
+		awaitDelivery(outbox);
+		assertEquals(Arrays.asList("comment=first", "comment=second", "comment=third"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				getDelivered());
+		assertEquals(0, directory.list().length);
+	}
+
+	@Test
+	public void testRejectedEntryIsDropped() throws Exception {
+		RTCOutbox outbox = new RTCOutbox(directory);
+		server.respondWith(404);
+		outbox.enqueue(build, server.getURI(), TARGET, CREDENTIALS_ID, 30, SERVICE, params("first"), //$NON-NLS-1$
+				"failed", false, null); //$NON-NLS-1$
+		outbox.enqueue(build, server.getURI(), TARGET, CREDENTIALS_ID, 30, SERVICE, params("second"), //$NON-NLS-1$
+				"failed", false, null); //$NON-NLS-1$
+		awaitDelivery(outbox);
+		// not sent again, the next entry is not held up
+		assertEquals(Arrays.asList("comment=first", "comment=second"), getDelivered()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(0, directory.list().length);
+	}
+
+	@Test
+	public void testEntryIsDroppedAfterMaxAttempts() throws Exception {
+		RTCOutbox.Entry first = newEntry("first", 1); //$NON-NLS-1$
+		first.attempts = RTCOutbox.MAX_ATTEMPTS - 1;
+		RTCOutbox.Entry second = newEntry("second", 2); //$NON-NLS-1$
+		RTCOutbox outbox = new RTCOutbox(directory);
+		outbox.save(first);
+		outbox.save(second);
+
+		server.respondWith(503);
+		outbox.reload();
+		awaitDelivery(outbox);
+		assertEquals(Arrays.asList("comment=first", "comment=second"), getDelivered()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(0, directory.list().length);
+	}
+
+	@Test
+	public void testEntryWithoutCredentialsIsDroppedAtOnce() throws Exception {
+		RTCOutbox outbox = new RTCOutbox(directory);
+		outbox.enqueue(build, server.getURI(), TARGET, "missing", 30, SERVICE, params("first"), //$NON-NLS-1$ //$NON-NLS-2$
+				"failed", true, null); //$NON-NLS-1$
+		awaitDelivery(outbox);
+		// given up on without a retry, the badge is not left pending
+		assertEquals(Collections.emptyList(), getDelivered());
+		assertEquals(0, directory.list().length);
+		assertEquals("symbol-status-red", build.getAction(RTCCompletionAction.class).getIconClassName()); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testRefusedLoginIsNotRetried() {
+		assertTrue(RTCOutbox.isRejected(new org.apache.http.auth.InvalidCredentialsException()));
+		assertTrue(RTCOutbox.isRejected(new InvalidCredentialsException("missing"))); //$NON-NLS-1$
+		assertTrue(RTCOutbox.isRejected(new RtcHttpStatusException("forbidden", 403))); //$NON-NLS-1$
+		assertFalse(RTCOutbox.isRejected(new RtcHttpStatusException("unavailable", 503))); //$NON-NLS-1$
+		assertFalse(RTCOutbox.isRejected(new IOException()));
+	}
+
+	@Test
+	public void testEntryOfDeletedJobIsDropped() throws Exception {
+		RTCOutbox.Entry first = newEntry("first", 1); //$NON-NLS-1$
+		build.getParent().delete();
+		RTCOutbox outbox = new RTCOutbox(directory);
+		outbox.save(first);
+		outbox.reload();
+		awaitDelivery(outbox);
+		assertEquals(Collections.emptyList(), getDelivered());
+		assertEquals(0, directory.list().length);
+	}
+
+	@Test
+	public void testJobCredentialsAreNotTrackedByTheBuild() throws Exception {
+		RTCOutbox outbox = new RTCOutbox(directory);
+		// the build started comment of freestyle builds
+		outbox.enqueue(build, server.getURI(), TARGET, CREDENTIALS_ID, true, 30, SERVICE, params("started"), //$NON-NLS-1$
+				"failed", false, null); //$NON-NLS-1$
+		awaitDelivery(outbox);
+		assertEquals(Arrays.asList("comment=started"), getDelivered()); //$NON-NLS-1$
+		assertNull(CredentialsProvider.getFingerprintOf(getCredentials()));
+
+		outbox.enqueue(build, server.getURI(), TARGET, CREDENTIALS_ID, 30, SERVICE, params("completed"), //$NON-NLS-1$
+				"failed", false, null); //$NON-NLS-1$
+		awaitDelivery(outbox);
+		assertNotNull(CredentialsProvider.getFingerprintOf(getCredentials()));
+	}
+
+	@Test
+	public void testEntriesAreDeliveredInOrderPerTarget() throws Exception {
+		RTCOutbox outbox = new RTCOutbox(directory);
+		server.setDelay(200);
+		for (String comment : new String[] {"1-first", "2-first", "1-second", "2-second", "1-third"}) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+			outbox.enqueue(build, server.getURI(), comment.substring(0, 1), CREDENTIALS_ID, 30, SERVICE,
+					params(comment), "failed", false, null); //$NON-NLS-1$
+		}
+		awaitDelivery(outbox);
+		List<String> delivered = getDelivered();
+		assertEquals(5, delivered.size());
+		// the targets are sent in parallel, the entries of each in order
+		assertEquals(Arrays.asList("comment=1-first", "comment=1-second", "comment=1-third"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				ofTarget(delivered, "1")); //$NON-NLS-1$
+		assertEquals(Arrays.asList("comment=2-first", "comment=2-second"), ofTarget(delivered, "2")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	@Test
+	public void testCompletionBadgeGoesFromPendingToDelivered() throws Exception {
+		RTCOutbox outbox = new RTCOutbox(directory);
+		server.setDelay(500);
+		outbox.enqueue(build, server.getURI(), TARGET, CREDENTIALS_ID, 30, SERVICE, params("completed"), //$NON-NLS-1$
+				"failed", true, null); //$NON-NLS-1$
+		RTCCompletionAction action = build.getAction(RTCCompletionAction.class);
+		assertNotNull(action);
+		assertFalse(action.isDelivered());
+		assertEquals("symbol-status-nobuilt", action.getIconClassName()); //$NON-NLS-1$
+
+		awaitDelivery(outbox);
+		assertTrue(action.isDelivered());
+		assertEquals("symbol-status-blue", action.getIconClassName()); //$NON-NLS-1$
+		// saved with the build
+		String xml = new String(Files.readAllBytes(new File(build.getRootDir(), "build.xml").toPath()), //$NON-NLS-1$
+				StandardCharsets.UTF_8);
+		assertTrue(xml, xml.contains("<delivered>1</delivered>")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testCompletionBadgeShowsFailure() throws Exception {
+		RTCOutbox outbox = new RTCOutbox(directory);
+		server.respondWith(404);
+		outbox.enqueue(build, server.getURI(), TARGET, CREDENTIALS_ID, 30, SERVICE, params("completed"), //$NON-NLS-1$
+				"failed", true, null); //$NON-NLS-1$
+		awaitDelivery(outbox);
+		RTCCompletionAction action = build.getAction(RTCCompletionAction.class);
+		assertFalse(action.isDelivered());
+		assertEquals("symbol-status-red", action.getIconClassName()); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testCompletionOfDeletedBuildIsNotSaved() throws Exception {
+		RTCCompletionAction.queued(build);
+		build.delete();
+		RTCCompletionAction.done(build, true);
+		assertFalse(build.getRootDir().exists());
+	}
+
+	private static List<String> ofTarget(List<String> delivered, String target) {
+		List<String> bodies = new ArrayList<String>();
+		for (String body : delivered) {
+			if (body.startsWith("comment=" + target)) { //$NON-NLS-1$
+				bodies.add(body);
+			}
+		}
+		return bodies;
+	}
+
+	private RTCOutbox.Entry newEntry(String comment, long sequence) {
+		return new RTCOutbox.Entry(build, server.getURI(), TARGET, CREDENTIALS_ID, false, 30, SERVICE,
+				params(comment), "failed", false, sequence); //$NON-NLS-1$
+	}
+
+	private static StandardUsernamePasswordCredentials getCredentials() {
+		return (StandardUsernamePasswordCredentials) SystemCredentialsProvider.getInstance().getCredentials().get(0);
+	}
+
+	private List<String> getDelivered() {
+		List<String> bodies = server.getBodies();
+		return bodies.subList(loginRequests, bodies.size());
+	}
+
+	private static List<NameValuePair> params(String comment) {
+		return Collections.<NameValuePair> singletonList(new BasicNameValuePair("comment", comment)); //$NON-NLS-1$
+	}
+
+	private static void awaitDelivery(RTCOutbox outbox) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 30000;
+		while (outbox.getQueueDepth() > 0) {
+			assertTrue("The entries were not delivered in time", System.currentTimeMillis() < deadline); //$NON-NLS-1$
+			Thread.sleep(50);
+		}
+	}
+}
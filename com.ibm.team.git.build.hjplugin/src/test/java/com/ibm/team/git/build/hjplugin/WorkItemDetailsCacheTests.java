@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.team.git.build.hjplugin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WorkItemDetailsCacheTests {
+
+	private static final long TTL = 600000;
+	private static final long NEGATIVE_TTL = 60000;
+
+	private final AtomicLong now = new AtomicLong(1000);
+	private final WorkItemDetailsCache cache = new WorkItemDetailsCache(100, TTL, NEGATIVE_TTL, now::get);
+
+	/**
+	 * Answers with the details of the work items with an even id, records the
+	 * ids requested
+	 */
+	private final List<List<String>> requested = new ArrayList<List<String>>();
+	private final WorkItemDetailsCache.DetailsRequest details = workItems -> {
+		requested.add(Arrays.asList(workItems));
+		List<String> found = new ArrayList<String>();
+		// in another order than the one requested
+		for (int i = workItems.length - 1; i >= 0; i--) {
+			if (Integer.parseInt(workItems[i]) % 2 == 0) {
+				found.add(workItems[i] + ": Summary " + workItems[i]); //$NON-NLS-1$
+			}
+		}
+		return found.toArray(new String[0]);
+	};
+
+	@Test
+	public void testOnlyMissingDetailsAreRequested() throws Exception {
+		Assert.assertArrayEquals(new String[] {"2: Summary 2"}, //$NON-NLS-1$
+				cache.getDetails(new String[] {"2", "3"}, details)); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertArrayEquals(new String[] {"4: Summary 4", "2: Summary 2", "6: Summary 6"}, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				cache.getDetails(new String[] {"4", "2", "3", "6", "5"}, details)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		// 2 and the unknown 3 are cached, the others in a single request
+		Assert.assertEquals(Arrays.asList(Arrays.asList("2", "3"), Arrays.asList("4", "6", "5")), requested); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+	}
+
+	@Test
+	public void testCachedDetailsAreNotRequested() throws Exception {
+		cache.getDetails(new String[] {"2", "4"}, details); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertArrayEquals(new String[] {"4: Summary 4", "2: Summary 2"}, //$NON-NLS-1$ //$NON-NLS-2$
+				cache.getDetails(new String[] {"4", "2"}, details)); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertEquals(1, requested.size());
+	}
+
+	@Test
+	public void testFailedRequestIsNotCached() throws Exception {
+		cache.getDetails(new String[] {"2"}, details); //$NON-NLS-1$
+		Assert.assertNull(cache.getDetails(new String[] {"2", "4"}, workItems -> null)); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertArrayEquals(new String[] {"2: Summary 2", "4: Summary 4"}, //$NON-NLS-1$ //$NON-NLS-2$
+				cache.getDetails(new String[] {"2", "4"}, details)); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertEquals(Arrays.asList(Arrays.asList("2"), Arrays.asList("4")), requested); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void testDetailsExpire() throws Exception {
+		cache.getDetails(new String[] {"2"}, details); //$NON-NLS-1$
+		now.addAndGet(TTL - 1);
+		cache.getDetails(new String[] {"2"}, details); //$NON-NLS-1$
+		Assert.assertEquals(1, requested.size());
+		now.addAndGet(1);
+		cache.getDetails(new String[] {"2"}, details); //$NON-NLS-1$
+		Assert.assertEquals(2, requested.size());
+	}
+
+	@Test
+	public void testUnknownWorkItemsExpireSooner() throws Exception {
+		cache.getDetails(new String[] {"2", "3"}, details); //$NON-NLS-1$ //$NON-NLS-2$
+		now.addAndGet(NEGATIVE_TTL - 1);
+		cache.getDetails(new String[] {"2", "3"}, details); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertEquals(1, requested.size());
+		now.addAndGet(1);
+		// only the unknown one is requested again
+		Assert.assertArrayEquals(new String[] {"2: Summary 2"}, //$NON-NLS-1$
+				cache.getDetails(new String[] {"2", "3"}, details)); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertEquals(Arrays.asList("3"), requested.get(1)); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,269 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.team.git.build.hjplugin.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A minimal RTC server on a local port, for the tests of the requests made by
+ * {@link HttpUtils}.
+ *
+ * Every request except the form login is for a protected resource. It is
+ * challenged the way the server is set up to authenticate until the client
+ * logged in. Form based logins only take effect in a session the server
+ * opened before, like a real RTC server. Once authenticated, a request is
+ * answered with the next status code queued with {@link #respondWith(int...)}
+ * or with 200 and a JSON body.
+ *
+ * Public for the tests of the callers of {@link HttpUtils} in other packages.
+ */
+public class FakeRtcServer implements Closeable {
+
+	public enum Authentication {
+		NONE, BASIC, FORM
+	}
+
+	private static final String SESSION_COOKIE = "JSESSIONID"; //$NON-NLS-1$
+
+	private static final String RESPONSE = "{\"soapenv:Body\":{\"response\":{\"returnValue\":{\"value\":\"ok\"}}}}"; //$NON-NLS-1$
+
+	private final HttpServer server;
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private final Authentication authentication;
+	private final String userId;
+	private volatile String password;
+	private volatile long delayMillis;
+
+	private final Set<String> openSessions = ConcurrentHashMap.newKeySet();
+	private final Set<String> authenticatedSessions = ConcurrentHashMap.newKeySet();
+	private final Queue<Integer> statusCodes = new ConcurrentLinkedQueue<Integer>();
+	private final Queue<String> bodies = new ConcurrentLinkedQueue<String>();
+
+	private final AtomicInteger challenges = new AtomicInteger();
+	private final AtomicInteger loginAttempts = new AtomicInteger();
+	private final AtomicInteger logins = new AtomicInteger();
+	private final AtomicInteger requests = new AtomicInteger();
+
+	public FakeRtcServer(Authentication authentication, String userId, String password) throws IOException {
+		this.authentication = authentication;
+		this.userId = userId;
+		this.password = password;
+		this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0); //$NON-NLS-1$
+		this.server.setExecutor(executor);
+		this.server.createContext("/", this::handle); //$NON-NLS-1$
+		this.server.start();
+	}
+
+	/**
+	 * @return The URI of the server, unique to this instance
+	 */
+	public String getURI() {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + "/ccm/"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Change the password of the user. The sessions logged in with the old one
+	 * are closed.
+	 */
+	public void setPassword(String password) {
+		this.password = password;
+		authenticatedSessions.clear();
+	}
+
+	/**
+	 * Answer the next authenticated requests with these status codes, in order
+	 */
+	public void respondWith(int... codes) {
+		for (int code : codes) {
+			statusCodes.add(code);
+		}
+	}
+
+	/**
+	 * Wait before answering an authenticated request
+	 */
+	public void setDelay(long delayMillis) {
+		this.delayMillis = delayMillis;
+	}
+
+	/**
+	 * @return The number of requests that were challenged
+	 */
+	public int getChallenges() {
+		return challenges.get();
+	}
+
+	/**
+	 * @return The number of form logins posted, successful or not
+	 */
+	public int getLoginAttempts() {
+		return loginAttempts.get();
+	}
+
+	/**
+	 * @return The number of form logins that opened an authenticated session
+	 */
+	public int getLogins() {
+		return logins.get();
+	}
+
+	/**
+	 * @return The number of authenticated requests for a protected resource
+	 */
+	public int getRequests() {
+		return requests.get();
+	}
+
+	/**
+	 * @return The bodies of the authenticated requests for a protected
+	 *         resource, in the order they were received
+	 */
+	public List<String> getBodies() {
+		return new ArrayList<String>(bodies);
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			String session = getSession(exchange);
+			if (exchange.getRequestURI().getPath().endsWith("/j_security_check")) { //$NON-NLS-1$
+				login(exchange, session);
+			} else if (isAuthenticated(exchange, session)) {
+				bodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+				requests.incrementAndGet();
+				if (delayMillis > 0) {
+					Thread.sleep(delayMillis);
+				}
+				Integer statusCode = statusCodes.poll();
+				if (statusCode == null) {
+					exchange.getResponseHeaders().add("Content-Type", "text/json"); //$NON-NLS-1$ //$NON-NLS-2$
+					send(exchange, 200, RESPONSE);
+				} else {
+					send(exchange, statusCode, ""); //$NON-NLS-1$
+				}
+			} else {
+				challenge(exchange, session);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private boolean isAuthenticated(HttpExchange exchange, String session) {
+		switch (authentication) {
+		case BASIC:
+			String expected = "Basic " + Base64.getEncoder().encodeToString( //$NON-NLS-1$
+					(userId + ":" + password).getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+			return expected.equals(exchange.getRequestHeaders().getFirst("Authorization")); //$NON-NLS-1$
+		case FORM:
+			return session != null && authenticatedSessions.contains(session);
+		default:
+			return true;
+		}
+	}
+
+	private void challenge(HttpExchange exchange, String session) throws IOException {
+		exchange.getRequestBody().readAllBytes();
+		challenges.incrementAndGet();
+		if (authentication == Authentication.BASIC) {
+			exchange.getResponseHeaders().add("WWW-Authenticate", "Basic realm=\"jazz\""); //$NON-NLS-1$ //$NON-NLS-2$
+			send(exchange, 401, ""); //$NON-NLS-1$
+		} else {
+			if (session == null) {
+				session = UUID.randomUUID().toString();
+				openSessions.add(session);
+				exchange.getResponseHeaders().add("Set-Cookie", SESSION_COOKIE + "=" + session + "; Path=/"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+			exchange.getResponseHeaders().add("X-com-ibm-team-repository-web-auth-msg", "authrequired"); //$NON-NLS-1$ //$NON-NLS-2$
+			send(exchange, 200, ""); //$NON-NLS-1$
+		}
+	}
+
+	private void login(HttpExchange exchange, String session) throws IOException {
+		loginAttempts.incrementAndGet();
+		Map<String, String> form = readForm(exchange.getRequestBody());
+		if (!userId.equals(form.get("j_username")) || !password.equals(form.get("j_password"))) { //$NON-NLS-1$ //$NON-NLS-2$
+			exchange.getResponseHeaders().add("X-com-ibm-team-repository-web-auth-msg", "authfailed"); //$NON-NLS-1$ //$NON-NLS-2$
+		} else if (session != null && openSessions.contains(session)) {
+			logins.incrementAndGet();
+			authenticatedSessions.add(session);
+		}
+		// without a session opened before the login is ignored
+		send(exchange, 200, ""); //$NON-NLS-1$
+	}
+
+	private static String getSession(HttpExchange exchange) {
+		List<String> cookies = exchange.getRequestHeaders().get("Cookie"); //$NON-NLS-1$
+		if (cookies != null) {
+			for (String header : cookies) {
+				for (String cookie : header.split(";")) { //$NON-NLS-1$
+					String[] pair = cookie.trim().split("=", 2); //$NON-NLS-1$
+					if (pair.length == 2 && SESSION_COOKIE.equals(pair[0])) {
+						return pair[1];
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	private static Map<String, String> readForm(InputStream in) throws IOException {
+		Map<String, String> form = new HashMap<String, String>();
+		String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		for (String field : body.split("&")) { //$NON-NLS-1$
+			String[] pair = field.split("=", 2); //$NON-NLS-1$
+			if (pair.length == 2) {
+				form.put(URLDecoder.decode(pair[0], "UTF-8"), URLDecoder.decode(pair[1], "UTF-8")); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+		return form;
+	}
+
+	private static void send(HttpExchange exchange, int statusCode, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.sendResponseHeaders(statusCode, bytes.length == 0 ? -1 : bytes.length);
+		if (bytes.length > 0) {
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(bytes);
+			}
+		}
+	}
+}
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.team.git.build.hjplugin.http;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import net.sf.json.JSONObject;
+
+import org.apache.http.NameValuePair;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.message.BasicNameValuePair;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.team.git.build.hjplugin.http.HttpUtils.RtcHttpResult;
+
+/**
+ * Tests of the asynchronous requests of {@link HttpUtils}
+ */
+public class HttpUtilsAsyncTests {
+
+	private static final String USER = "builder"; //$NON-NLS-1$
+	private static final String PASSWORD = "secret"; //$NON-NLS-1$
+	private static final int TIMEOUT = 30;
+
+	private FakeRtcServer server;
+
+	@Before
+	public void setUp() throws Exception {
+		server = new FakeRtcServer(FakeRtcServer.Authentication.FORM, USER, PASSWORD);
+	}
+
+	@After
+	public void tearDown() {
+		server.close();
+	}
+
+	@Test
+	public void testRequestsCompleteWithTheirResult() throws Exception {
+		HttpClientContext httpContext = HttpUtils.getSessionContext(server.getURI(), USER, PASSWORD, TIMEOUT);
+		int requests = server.getRequests();
+		CompletableFuture<RtcHttpResult> get = HttpUtils.performGetAsync(server.getURI(), "resource", //$NON-NLS-1$
+				USER, PASSWORD, TIMEOUT, httpContext, null);
+		Assert.assertSame(httpContext, get.get(10, TimeUnit.SECONDS).getHttpContext());
+
+		CompletableFuture<RtcHttpResult> post = HttpUtils.performPostAsync(server.getURI(), "resource", //$NON-NLS-1$
+				USER, PASSWORD, TIMEOUT,
+				Collections.<NameValuePair> singletonList(new BasicNameValuePair("id", "1")), //$NON-NLS-1$ //$NON-NLS-2$
+				null, HttpUtils.getSessionContext(server.getURI(), USER, PASSWORD, TIMEOUT));
+		Assert.assertNotNull(post.get(10, TimeUnit.SECONDS).getHttpContext());
+
+		CompletableFuture<RtcHttpResult> put = HttpUtils.performPutAsync(server.getURI(), "resource", //$NON-NLS-1$
+				USER, PASSWORD, TIMEOUT, new JSONObject(),
+				HttpUtils.getSessionContext(server.getURI(), USER, PASSWORD, TIMEOUT), null);
+		RtcHttpResult putResult = put.get(10, TimeUnit.SECONDS);
+		Assert.assertNotNull(putResult.getHttpContext());
+		Assert.assertNull(putResult.getJson());
+
+		Assert.assertEquals(requests + 3, server.getRequests());
+		// the session of the first login is used by every request
+		Assert.assertEquals(1, server.getLogins());
+	}
+
+	@Test
+	public void testFailureCompletesExceptionally() throws Exception {
+		HttpClientContext httpContext = HttpUtils.getSessionContext(server.getURI(), USER, PASSWORD, TIMEOUT);
+		server.respondWith(404);
+		CompletableFuture<RtcHttpResult> get = HttpUtils.performGetAsync(server.getURI(), "resource", //$NON-NLS-1$
+				USER, PASSWORD, TIMEOUT, httpContext, null);
+		try {
+			get.get(10, TimeUnit.SECONDS);
+			Assert.fail();
+		} catch (ExecutionException e) {
+			Assert.assertEquals(404, ((RtcHttpStatusException) e.getCause()).getStatusCode());
+		}
+	}
+
+	@Test
+	public void testFullQueueRejectsWithoutBlocking() throws Exception {
+		ThreadPoolExecutor executor = HttpUtils.newAsyncExecutor(1, 1);
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			CompletableFuture<String> running = HttpUtils.submitAsync(executor, () -> {
+				release.await();
+				return "running"; //$NON-NLS-1$
+			});
+			CompletableFuture<String> queued = HttpUtils.submitAsync(executor, () -> "queued"); //$NON-NLS-1$
+			CompletableFuture<String> rejected = HttpUtils.submitAsync(executor, () -> "rejected"); //$NON-NLS-1$
+
+			Assert.assertTrue(rejected.isCompletedExceptionally());
+			try {
+				rejected.get();
+				Assert.fail();
+			} catch (ExecutionException e) {
+				Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+			}
+			Assert.assertFalse(queued.isDone());
+
+			release.countDown();
+			Assert.assertEquals("running", running.get(10, TimeUnit.SECONDS)); //$NON-NLS-1$
+			Assert.assertEquals("queued", queued.get(10, TimeUnit.SECONDS)); //$NON-NLS-1$
+		} finally {
+			release.countDown();
+			executor.shutdownNow();
+		}
+	}
+}
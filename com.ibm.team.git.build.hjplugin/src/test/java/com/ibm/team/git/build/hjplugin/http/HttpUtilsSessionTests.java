@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.team.git.build.hjplugin.http;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.auth.InvalidCredentialsException;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests of the authenticated sessions {@link HttpUtils} shares between requests
+ */
+public class HttpUtilsSessionTests {
+
+	private static final String USER = "builder"; //$NON-NLS-1$
+	private static final String PASSWORD = "secret"; //$NON-NLS-1$
+	private static final int TIMEOUT = 30;
+
+	@Test
+	public void testFormSessionIsReused() throws Exception {
+		try (FakeRtcServer server = new FakeRtcServer(FakeRtcServer.Authentication.FORM, USER, PASSWORD)) {
+			HttpUtils.getSessionContext(server.getURI(), USER, PASSWORD, TIMEOUT);
+			int requests = server.getRequests();
+			for (int i = 0; i < 3; i++) {
+				HttpClientContext httpContext = HttpUtils.getSessionContext(server.getURI(), USER, PASSWORD, TIMEOUT);
+				HttpUtils.performGet(server.getURI(), "resource", USER, PASSWORD, TIMEOUT, httpContext, null); //$NON-NLS-1$
+			}
+			Assert.assertEquals(1, server.getLoginAttempts());
+			Assert.assertEquals(1, server.getLogins());
+			Assert.assertEquals(requests + 3, server.getRequests());
+		}
+	}
+
+	@Test
+	public void testBasicSessionIsReused() throws Exception {
+		try (FakeRtcServer server = new FakeRtcServer(FakeRtcServer.Authentication.BASIC, USER, PASSWORD)) {
+			for (int i = 0; i < 3; i++) {
+				HttpClientContext httpContext = HttpUtils.getSessionContext(server.getURI(), USER, PASSWORD, TIMEOUT);
+				HttpUtils.performGet(server.getURI(), "resource", USER, PASSWORD, TIMEOUT, httpContext, null); //$NON-NLS-1$
+			}
+			// only the probe of the first login is challenged
+			Assert.assertEquals(1, server.getChallenges());
+		}
+	}
+
+	@Test
+	public void testRejectedCredentialsDropSession() throws Exception {
+		try (FakeRtcServer server = new FakeRtcServer(FakeRtcServer.Authentication.FORM, USER, PASSWORD)) {
+			HttpClientContext httpContext = HttpUtils.getSessionContext(server.getURI(), USER, PASSWORD, TIMEOUT);
+			server.setPassword("changed"); //$NON-NLS-1$
+			try {
+				HttpUtils.performGet(server.getURI(), "resource", USER, PASSWORD, TIMEOUT, httpContext, null); //$NON-NLS-1$
+				Assert.fail("The old password was accepted"); //$NON-NLS-1$
+			} catch (InvalidCredentialsException e) {
+				// expected
+			}
+			int loginAttempts = server.getLoginAttempts();
+			// the session is gone, so the next caller logs in again instead of
+			// getting the rejected session
+			try {
+				HttpUtils.getSessionContext(server.getURI(), USER, PASSWORD, TIMEOUT);
+				Assert.fail("The rejected session was reused"); //$NON-NLS-1$
+			} catch (InvalidCredentialsException e) {
+				// expected
+			}
+			Assert.assertEquals(loginAttempts + 1, server.getLoginAttempts());
+
+			httpContext = HttpUtils.getSessionContext(server.getURI(), USER, "changed", TIMEOUT); //$NON-NLS-1$
+			int requests = server.getRequests();
+			HttpUtils.performGet(server.getURI(), "resource", USER, "changed", TIMEOUT, httpContext, null); //$NON-NLS-1$ //$NON-NLS-2$
+			Assert.assertEquals(requests + 1, server.getRequests());
+		}
+	}
+
+	@Test
+	public void testFormLoginOfKnownServerOpensSession() throws Exception {
+		try (FakeRtcServer server = new FakeRtcServer(FakeRtcServer.Authentication.FORM, USER, PASSWORD)) {
+			HttpUtils.getSessionContext(server.getURI(), USER, PASSWORD, TIMEOUT);
+			HttpUtils.invalidateSession(server.getURI(), USER);
+			// the server is known to use form based auth now
+			HttpClientContext httpContext = HttpUtils.getSessionContext(server.getURI(), USER, PASSWORD, TIMEOUT);
+			Assert.assertEquals(2, server.getLogins());
+			int challenges = server.getChallenges();
+			HttpUtils.performGet(server.getURI(), "resource", USER, PASSWORD, TIMEOUT, httpContext, null); //$NON-NLS-1$
+			Assert.assertEquals(challenges, server.getChallenges());
+		}
+	}
+
+	@Test
+	public void testConcurrentRequestsShareBasicSession() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try (FakeRtcServer server = new FakeRtcServer(FakeRtcServer.Authentication.BASIC, USER, PASSWORD)) {
+			HttpUtils.getSessionContext(server.getURI(), USER, PASSWORD, TIMEOUT);
+			int challenges = server.getChallenges();
+			int sent = server.getRequests();
+			server.setDelay(50);
+			List<Future<?>> requests = new ArrayList<Future<?>>();
+			for (int i = 0; i < 32; i++) {
+				// distinct requests, so they are not coalesced
+				String resource = "resource?n=" + i; //$NON-NLS-1$
+				requests.add(executor.submit(() -> {
+					// the auth cache and credentials of the session are used by
+					// all the requests at the same time
+					HttpClientContext httpContext = HttpUtils.getSessionContext(server.getURI(), USER, PASSWORD, TIMEOUT);
+					return HttpUtils.performGet(server.getURI(), resource, USER, PASSWORD, TIMEOUT, httpContext, null);
+				}));
+			}
+			for (Future<?> request : requests) {
+				request.get(30, TimeUnit.SECONDS);
+			}
+			Assert.assertEquals(sent + 32, server.getRequests());
+			// every request authenticated up front from the shared auth cache
+			Assert.assertEquals(challenges, server.getChallenges());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.team.git.build.hjplugin.http;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.sf.json.JSONObject;
+
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.auth.InvalidCredentialsException;
+import org.apache.http.impl.execchain.RequestAbortedException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests of {@link RtcCircuitBreaker} with the default settings: a window of
+ * 20 requests, at least 5 recorded, 50% failures and 60 seconds open.
+ */
+public class RtcCircuitBreakerTests {
+
+	private final AtomicLong now = new AtomicLong(1000000);
+
+	private RtcCircuitBreaker newCircuitBreaker() {
+		return new RtcCircuitBreaker("https://rtc.example.com/ccm", now::get); //$NON-NLS-1$
+	}
+
+	private static void fail(RtcCircuitBreaker circuitBreaker, int times) {
+		for (int i = 0; i < times; i++) {
+			Assert.assertTrue(circuitBreaker.tryAcquire());
+			circuitBreaker.onFailure();
+		}
+	}
+
+	private static void succeed(RtcCircuitBreaker circuitBreaker, int times) {
+		for (int i = 0; i < times; i++) {
+			Assert.assertTrue(circuitBreaker.tryAcquire());
+			circuitBreaker.onSuccess();
+		}
+	}
+
+	@Test
+	public void testOpensOnlyAfterMinimumCalls() {
+		RtcCircuitBreaker circuitBreaker = newCircuitBreaker();
+		fail(circuitBreaker, 4);
+		Assert.assertEquals(RtcCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+		fail(circuitBreaker, 1);
+		Assert.assertEquals(RtcCircuitBreaker.State.OPEN, circuitBreaker.getState());
+		Assert.assertFalse(circuitBreaker.tryAcquire());
+	}
+
+	@Test
+	public void testOpensAtFailureRate() {
+		RtcCircuitBreaker circuitBreaker = newCircuitBreaker();
+		succeed(circuitBreaker, 6);
+		fail(circuitBreaker, 5);
+		Assert.assertEquals(RtcCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+		fail(circuitBreaker, 1);
+		Assert.assertEquals(RtcCircuitBreaker.State.OPEN, circuitBreaker.getState());
+	}
+
+	@Test
+	public void testOldOutcomesLeaveTheWindow() {
+		RtcCircuitBreaker circuitBreaker = newCircuitBreaker();
+		fail(circuitBreaker, 4);
+		// pushes the failures out of the window of 20
+		succeed(circuitBreaker, 20);
+		fail(circuitBreaker, 9);
+		Assert.assertEquals(RtcCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+		fail(circuitBreaker, 1);
+		Assert.assertEquals(RtcCircuitBreaker.State.OPEN, circuitBreaker.getState());
+	}
+
+	@Test
+	public void testSuccessfulProbeCloses() {
+		RtcCircuitBreaker circuitBreaker = newCircuitBreaker();
+		fail(circuitBreaker, 5);
+		now.addAndGet(RtcCircuitBreaker.OPEN_DURATION_MILLIS - 1);
+		Assert.assertFalse(circuitBreaker.tryAcquire());
+		now.addAndGet(1);
+		Assert.assertTrue(circuitBreaker.tryAcquire());
+		Assert.assertEquals(RtcCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+		// only one probe at a time
+		Assert.assertFalse(circuitBreaker.tryAcquire());
+		circuitBreaker.onSuccess();
+		Assert.assertEquals(RtcCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+		// the failures before are forgotten
+		fail(circuitBreaker, 4);
+		Assert.assertEquals(RtcCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+	}
+
+	@Test
+	public void testFailedProbeOpensAgain() {
+		RtcCircuitBreaker circuitBreaker = newCircuitBreaker();
+		fail(circuitBreaker, 5);
+		now.addAndGet(RtcCircuitBreaker.OPEN_DURATION_MILLIS);
+		Assert.assertTrue(circuitBreaker.tryAcquire());
+		circuitBreaker.onFailure();
+		Assert.assertEquals(RtcCircuitBreaker.State.OPEN, circuitBreaker.getState());
+		Assert.assertFalse(circuitBreaker.tryAcquire());
+		now.addAndGet(RtcCircuitBreaker.OPEN_DURATION_MILLIS);
+		Assert.assertTrue(circuitBreaker.tryAcquire());
+	}
+
+	@Test
+	public void testIgnoredProbeAllowsAnotherProbe() {
+		RtcCircuitBreaker circuitBreaker = newCircuitBreaker();
+		fail(circuitBreaker, 5);
+		now.addAndGet(RtcCircuitBreaker.OPEN_DURATION_MILLIS);
+		Assert.assertTrue(circuitBreaker.tryAcquire());
+		circuitBreaker.onIgnored();
+		Assert.assertEquals(RtcCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+		Assert.assertTrue(circuitBreaker.tryAcquire());
+	}
+
+	@Test
+	public void testServerAnswersAreSuccesses() {
+		RtcCircuitBreaker circuitBreaker = newCircuitBreaker();
+		for (int i = 0; i < 10; i++) {
+			Assert.assertTrue(circuitBreaker.tryAcquire());
+			HttpUtils.releaseCircuit(circuitBreaker, new InvalidCredentialsException("rejected")); //$NON-NLS-1$
+			Assert.assertTrue(circuitBreaker.tryAcquire());
+			HttpUtils.releaseCircuit(circuitBreaker, new RtcHttpStatusException("not found", 404)); //$NON-NLS-1$
+			Assert.assertTrue(circuitBreaker.tryAcquire());
+			HttpUtils.releaseCircuit(circuitBreaker, null);
+		}
+		Assert.assertEquals(RtcCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+	}
+
+	@Test
+	public void testServerErrorsAreFailures() {
+		RtcCircuitBreaker circuitBreaker = newCircuitBreaker();
+		for (int i = 0; i < 3; i++) {
+			Assert.assertTrue(circuitBreaker.tryAcquire());
+			HttpUtils.releaseCircuit(circuitBreaker, new RtcHttpStatusException("unavailable", 503)); //$NON-NLS-1$
+		}
+		for (int i = 0; i < 2; i++) {
+			Assert.assertTrue(circuitBreaker.tryAcquire());
+			HttpUtils.releaseCircuit(circuitBreaker, new ConnectException("refused")); //$NON-NLS-1$
+		}
+		Assert.assertEquals(RtcCircuitBreaker.State.OPEN, circuitBreaker.getState());
+	}
+
+	@Test
+	public void testReadFailuresAreFailures() {
+		RtcCircuitBreaker circuitBreaker = newCircuitBreaker();
+		for (int i = 0; i < 3; i++) {
+			Assert.assertTrue(circuitBreaker.tryAcquire());
+			HttpUtils.releaseCircuit(circuitBreaker, new SocketTimeoutException("Read timed out")); //$NON-NLS-1$
+		}
+		for (int i = 0; i < 2; i++) {
+			Assert.assertTrue(circuitBreaker.tryAcquire());
+			HttpUtils.releaseCircuit(circuitBreaker, new NoHttpResponseException("no response")); //$NON-NLS-1$
+		}
+		Assert.assertEquals(RtcCircuitBreaker.State.OPEN, circuitBreaker.getState());
+	}
+
+	@Test
+	public void testInterruptionsAndLocalErrorsAreIgnored() {
+		RtcCircuitBreaker circuitBreaker = newCircuitBreaker();
+		for (int i = 0; i < 10; i++) {
+			Assert.assertTrue(circuitBreaker.tryAcquire());
+			HttpUtils.releaseCircuit(circuitBreaker, new InterruptedIOException());
+			Assert.assertTrue(circuitBreaker.tryAcquire());
+			HttpUtils.releaseCircuit(circuitBreaker, new RequestAbortedException("aborted")); //$NON-NLS-1$
+			Assert.assertTrue(circuitBreaker.tryAcquire());
+			HttpUtils.releaseCircuit(circuitBreaker, new IOException("response too large")); //$NON-NLS-1$
+		}
+		fail(circuitBreaker, 4);
+		Assert.assertEquals(RtcCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+	}
+
+	@Test
+	public void testOtherErrorsAreIgnored() {
+		RtcCircuitBreaker circuitBreaker = newCircuitBreaker();
+		for (int i = 0; i < 10; i++) {
+			Assert.assertTrue(circuitBreaker.tryAcquire());
+			HttpUtils.releaseCircuit(circuitBreaker, new IllegalStateException());
+		}
+		fail(circuitBreaker, 4);
+		Assert.assertEquals(RtcCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+	}
+
+	@Test
+	public void testRejectedRequestFailsFast() throws Exception {
+		try (FakeRtcServer server = new FakeRtcServer(FakeRtcServer.Authentication.NONE, "user", "secret")) { //$NON-NLS-1$ //$NON-NLS-2$
+			server.respondWith(404, 404, 404, 404, 404);
+			for (int i = 0; i < 5; i++) {
+				try {
+					HttpUtils.performPut(server.getURI(), "resource", "user", "secret", 30, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+							new JSONObject(), null, null);
+					Assert.fail();
+				} catch (RtcHttpStatusException e) {
+					Assert.assertEquals(404, e.getStatusCode());
+				}
+			}
+			server.respondWith(500, 500, 500, 500, 500);
+			for (int i = 0; i < 5; i++) {
+				try {
+					HttpUtils.performPut(server.getURI(), "resource", "user", "secret", 30, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+							new JSONObject(), null, null);
+					Assert.fail();
+				} catch (RtcServerUnavailableException e) {
+					Assert.fail("Opened while half of the requests failed"); //$NON-NLS-1$
+				} catch (IOException e) {
+					// expected
+				}
+			}
+			int requests = server.getRequests();
+			try {
+				HttpUtils.performPut(server.getURI(), "resource", "user", "secret", 30, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+						new JSONObject(), null, null);
+				Assert.fail();
+			} catch (RtcServerUnavailableException e) {
+				// expected
+			}
+			Assert.assertEquals(requests, server.getRequests());
+		}
+	}
+}
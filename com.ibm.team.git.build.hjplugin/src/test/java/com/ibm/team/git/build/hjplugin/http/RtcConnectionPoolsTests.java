@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.team.git.build.hjplugin.http;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests of the lifecycle of the {@link RtcConnectionPools}
+ */
+public class RtcConnectionPoolsTests {
+
+	private static final String SERVER = "http://rtc.example.com/ccm"; //$NON-NLS-1$
+	private static final String OTHER_SERVER = "http://other.example.com/ccm"; //$NON-NLS-1$
+	private static final String THIRD_SERVER = "http://third.example.com/ccm"; //$NON-NLS-1$
+	private static final long MAX_UNUSED = 60000;
+
+	private static final Registry<ConnectionSocketFactory> SOCKET_FACTORIES = RegistryBuilder
+			.<ConnectionSocketFactory> create().register(HttpUtils.SCHEME_HTTP, PlainConnectionSocketFactory.INSTANCE)
+			.build();
+
+	private final AtomicLong now = new AtomicLong(1000);
+	private final List<PoolingHttpClientConnectionManager> created = new ArrayList<PoolingHttpClientConnectionManager>();
+	private final RtcConnectionPools.ClientFactory factory = (connectionManager, settings) -> {
+		created.add(connectionManager);
+		return HttpClients.custom().setConnectionManager(connectionManager).build();
+	};
+
+	private final RtcConnectionPools pools = new RtcConnectionPools(2, MAX_UNUSED, now::get);
+
+	@After
+	public void tearDown() {
+		pools.closeAll();
+	}
+
+	@Test
+	public void testPoolIsReused() throws Exception {
+		CloseableHttpClient client = pools.getClient(SERVER, SOCKET_FACTORIES, factory);
+		Assert.assertSame(client, pools.getClient(SERVER, SOCKET_FACTORIES, factory));
+		Assert.assertEquals(1, created.size());
+	}
+
+	@Test
+	public void testUnusedPoolIsClosed() throws Exception {
+		CloseableHttpClient client = pools.getClient(SERVER, SOCKET_FACTORIES, factory);
+		pools.getClient(OTHER_SERVER, SOCKET_FACTORIES, factory);
+		now.addAndGet(MAX_UNUSED - 1);
+		// only the other server is still in use
+		pools.getClient(OTHER_SERVER, SOCKET_FACTORIES, factory);
+		now.addAndGet(1);
+		pools.closeUnused();
+		Assert.assertEquals(new HashSet<String>(Arrays.asList(OTHER_SERVER)), pools.getTotalStats().keySet());
+		// closed once the requests still using it had the time to finish
+		Assert.assertFalse(isClosed(created.get(0)));
+		pools.closeUnused();
+		Assert.assertTrue(isClosed(created.get(0)));
+		Assert.assertFalse(isClosed(created.get(1)));
+
+		// used again, a new pool is created
+		Assert.assertNotSame(client, pools.getClient(SERVER, SOCKET_FACTORIES, factory));
+		Assert.assertEquals(3, created.size());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedPoolIsDroppedBeyondMaximum() throws Exception {
+		pools.getClient(SERVER, SOCKET_FACTORIES, factory);
+		now.addAndGet(1000);
+		pools.getClient(OTHER_SERVER, SOCKET_FACTORIES, factory);
+		now.addAndGet(1000);
+		pools.getClient(SERVER, SOCKET_FACTORIES, factory);
+		now.addAndGet(1000);
+		pools.getClient(THIRD_SERVER, SOCKET_FACTORIES, factory);
+		Assert.assertEquals(new HashSet<String>(Arrays.asList(SERVER, THIRD_SERVER)), pools.getTotalStats().keySet());
+		pools.closeUnused();
+		Assert.assertTrue(isClosed(created.get(1)));
+		Assert.assertFalse(isClosed(created.get(0)));
+		Assert.assertFalse(isClosed(created.get(2)));
+	}
+
+	@Test
+	public void testPoolWithLeasedConnectionIsClosedOnceReleased() throws Exception {
+		pools.getClient(SERVER, SOCKET_FACTORIES, factory);
+		HttpRoute route = new HttpRoute(new HttpHost("rtc.example.com")); //$NON-NLS-1$
+		HttpClientConnection connection = created.get(0).requestConnection(route, null).get(10, TimeUnit.SECONDS);
+		now.addAndGet(MAX_UNUSED);
+		pools.closeUnused();
+		pools.closeUnused();
+		Assert.assertFalse(isClosed(created.get(0)));
+		created.get(0).releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+		pools.closeUnused();
+		Assert.assertTrue(isClosed(created.get(0)));
+	}
+
+	@Test
+	public void testCloseAllClosesEveryPool() throws Exception {
+		pools.getClient(SERVER, SOCKET_FACTORIES, factory);
+		pools.getClient(OTHER_SERVER, SOCKET_FACTORIES, factory);
+		pools.closeAll();
+		Assert.assertTrue(pools.getTotalStats().isEmpty());
+		Assert.assertTrue(isClosed(created.get(0)));
+		Assert.assertTrue(isClosed(created.get(1)));
+	}
+
+	private static boolean isClosed(PoolingHttpClientConnectionManager connectionManager) {
+		try {
+			connectionManager.requestConnection(new HttpRoute(new HttpHost("localhost")), null) //$NON-NLS-1$
+					.cancel();
+			return false;
+		} catch (IllegalStateException e) {
+			// the pool is shut down
+			return true;
+		}
+	}
+}
@@ -0,0 +1,260 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.team.git.build.hjplugin.http;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.NameValuePair;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.message.BasicNameValuePair;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.ibm.team.git.build.hjplugin.http.HttpUtils.RtcHttpResult;
+
+/**
+ * Tests of {@link RtcRequestCoalescer} and of the requests coalesced by
+ * {@link HttpUtils}
+ */
+public class RtcRequestCoalescerTests {
+
+	private static final String URI = "https://rtc.example.com/ccm/resource"; //$NON-NLS-1$
+	private static final String KEY = "GET " + URI; //$NON-NLS-1$
+	private static final String SERVICE = "service/test"; //$NON-NLS-1$
+	private static final String USER = "builder"; //$NON-NLS-1$
+	private static final String PASSWORD = "secret"; //$NON-NLS-1$
+
+	private final RtcRequestCoalescer coalescer = new RtcRequestCoalescer();
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private FakeRtcServer server;
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+		if (server != null) {
+			server.close();
+		}
+	}
+
+	@Test
+	public void testKeySeparatesCredentialsTimeoutsAndParameters() {
+		List<NameValuePair> params = Collections.<NameValuePair> singletonList(new BasicNameValuePair("id", "1")); //$NON-NLS-1$ //$NON-NLS-2$
+		String key = HttpUtils.getCoalescingKey("POST", URI, USER, PASSWORD, 30, params); //$NON-NLS-1$
+		Assert.assertEquals(key, HttpUtils.getCoalescingKey("POST", URI, USER, PASSWORD, 30, //$NON-NLS-1$
+				Collections.<NameValuePair> singletonList(new BasicNameValuePair("id", "1")))); //$NON-NLS-1$ //$NON-NLS-2$
+
+		Set<String> keys = new HashSet<String>(Arrays.asList(key,
+				HttpUtils.getCoalescingKey("GET", URI, USER, PASSWORD, 30, params), //$NON-NLS-1$
+				HttpUtils.getCoalescingKey("POST", URI + "2", USER, PASSWORD, 30, params), //$NON-NLS-1$ //$NON-NLS-2$
+				HttpUtils.getCoalescingKey("POST", URI, "other", PASSWORD, 30, params), //$NON-NLS-1$ //$NON-NLS-2$
+				HttpUtils.getCoalescingKey("POST", URI, USER, "changed", 30, params), //$NON-NLS-1$ //$NON-NLS-2$
+				HttpUtils.getCoalescingKey("POST", URI, USER, null, 30, params), //$NON-NLS-1$
+				HttpUtils.getCoalescingKey("POST", URI, USER, PASSWORD, 60, params), //$NON-NLS-1$
+				HttpUtils.getCoalescingKey("POST", URI, USER, PASSWORD, 30, //$NON-NLS-1$
+						Collections.<NameValuePair> singletonList(new BasicNameValuePair("id", "2"))), //$NON-NLS-1$ //$NON-NLS-2$
+				HttpUtils.getCoalescingKey("POST", URI, USER, PASSWORD, 30, null))); //$NON-NLS-1$
+		Assert.assertEquals(9, keys.size());
+		// only a digest of the password
+		Assert.assertFalse(key.contains(PASSWORD));
+	}
+
+	@Test
+	public void testConcurrentIdenticalRequestsShareOneCall() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger calls = new AtomicInteger();
+		Future<Object> leader = executor.submit(() -> coalescer.execute(URI, KEY, 30000, () -> {
+			calls.incrementAndGet();
+			awaitRelease(release);
+			return "result"; //$NON-NLS-1$
+		}));
+		awaitCalls(calls, 1);
+		List<Future<Object>> waiters = new ArrayList<Future<Object>>();
+		for (int i = 0; i < 4; i++) {
+			waiters.add(executor.submit(() -> coalescer.execute(URI, KEY, 30000, () -> {
+				calls.incrementAndGet();
+				return "own result"; //$NON-NLS-1$
+			})));
+		}
+		letWaitersBlock();
+		release.countDown();
+		Assert.assertEquals("result", leader.get(10, TimeUnit.SECONDS)); //$NON-NLS-1$
+		for (Future<Object> waiter : waiters) {
+			Assert.assertEquals("result", waiter.get(10, TimeUnit.SECONDS)); //$NON-NLS-1$
+		}
+		Assert.assertEquals(1, calls.get());
+		Assert.assertEquals(4, coalescer.getCoalescedCount());
+	}
+
+	@Test
+	public void testFailureIsPropagatedToWaiters() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger calls = new AtomicInteger();
+		RtcHttpStatusException failure = new RtcHttpStatusException("unavailable", 503); //$NON-NLS-1$
+		Future<Object> leader = executor.submit(() -> coalescer.execute(URI, KEY, 30000, () -> {
+			calls.incrementAndGet();
+			awaitRelease(release);
+			throw failure;
+		}));
+		awaitCalls(calls, 1);
+		Future<Object> waiter = executor.submit(() -> coalescer.execute(URI, KEY, 30000, () -> "own result")); //$NON-NLS-1$
+		letWaitersBlock();
+		Assert.assertFalse(waiter.isDone());
+		release.countDown();
+		for (Future<Object> future : Arrays.asList(leader, waiter)) {
+			try {
+				future.get(10, TimeUnit.SECONDS);
+				Assert.fail();
+			} catch (ExecutionException e) {
+				Assert.assertSame(failure, e.getCause());
+			}
+		}
+		// the next request is not answered with the failure
+		Assert.assertEquals("next", coalescer.execute(URI, KEY, 30000, () -> "next")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void testWaiterSendsOwnRequestAfterWaitLimit() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger calls = new AtomicInteger();
+		Future<Object> leader = executor.submit(() -> coalescer.execute(URI, KEY, 30000, () -> {
+			calls.incrementAndGet();
+			awaitRelease(release);
+			return "result"; //$NON-NLS-1$
+		}));
+		awaitCalls(calls, 1);
+		try {
+			Assert.assertEquals("own result", coalescer.execute(URI, KEY, 100, () -> "own result")); //$NON-NLS-1$ //$NON-NLS-2$
+			Assert.assertEquals("own result", coalescer.execute(URI, KEY, 0, () -> "own result")); //$NON-NLS-1$ //$NON-NLS-2$
+			Assert.assertEquals(0, coalescer.getCoalescedCount());
+		} finally {
+			release.countDown();
+		}
+		Assert.assertEquals("result", leader.get(10, TimeUnit.SECONDS)); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testDifferentRequestsAreNotShared() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger calls = new AtomicInteger();
+		Future<Object> leader = executor.submit(() -> coalescer.execute(URI, KEY, 30000, () -> {
+			calls.incrementAndGet();
+			awaitRelease(release);
+			return "result"; //$NON-NLS-1$
+		}));
+		awaitCalls(calls, 1);
+		try {
+			Assert.assertEquals("other", coalescer.execute(URI, KEY + "2", 30000, () -> "other")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		} finally {
+			release.countDown();
+		}
+		Assert.assertEquals("result", leader.get(10, TimeUnit.SECONDS)); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testSharedResultHasContextOfCaller() throws Exception {
+		server = new FakeRtcServer(FakeRtcServer.Authentication.NONE, USER, PASSWORD);
+		HttpUtils.getSessionContext(server.getURI(), USER, PASSWORD, 30);
+		int requests = server.getRequests();
+		server.setDelay(500);
+		HttpClientContext leaderContext = HttpUtils.getSessionContext(server.getURI(), USER, PASSWORD, 30);
+		HttpClientContext waiterContext = HttpUtils.getSessionContext(server.getURI(), USER, PASSWORD, 30);
+		Future<RtcHttpResult> leader = executor.submit(() -> post(leaderContext, null));
+		awaitRequests(requests + 1);
+		long coalesced = HttpUtils.getCoalescedRequestCount();
+		RtcHttpResult result = post(waiterContext, null);
+
+		Assert.assertEquals(coalesced + 1, HttpUtils.getCoalescedRequestCount());
+		Assert.assertEquals(requests + 1, server.getRequests());
+		Assert.assertSame(waiterContext, result.getHttpContext());
+		Assert.assertSame(leaderContext, leader.get(10, TimeUnit.SECONDS).getHttpContext());
+	}
+
+	@Test
+	public void testCallersRetryOnTheirOwnBudget() throws Exception {
+		server = new FakeRtcServer(FakeRtcServer.Authentication.NONE, USER, PASSWORD);
+		HttpUtils.getSessionContext(server.getURI(), USER, PASSWORD, 30);
+		int requests = server.getRequests();
+		server.setDelay(500);
+		server.respondWith(503);
+		// the budget of the leader is spent, it does not retry
+		Future<RtcHttpResult> leader = executor.submit(() -> post(null, new RtcRetryPolicy.Budget(0)));
+		awaitRequests(requests + 1);
+		RtcRetryPolicy.Budget budget = new RtcRetryPolicy.Budget(1);
+		RtcHttpResult result = post(null, budget);
+
+		Assert.assertNotNull(result.getJson());
+		// the failed attempt was shared, the retry was charged to the waiter
+		Assert.assertEquals(requests + 2, server.getRequests());
+		Assert.assertFalse(budget.tryConsume());
+		try {
+			leader.get(10, TimeUnit.SECONDS);
+			Assert.fail();
+		} catch (ExecutionException e) {
+			Assert.assertEquals(503, ((RtcHttpStatusException) e.getCause()).getStatusCode());
+		}
+	}
+
+	private RtcHttpResult post(HttpClientContext httpContext, RtcRetryPolicy.Budget budget) throws Exception {
+		return HttpUtils.performIdempotentPost(server.getURI(), SERVICE, USER, PASSWORD, 30,
+				Collections.<NameValuePair> singletonList(new BasicNameValuePair("id", "1")), //$NON-NLS-1$ //$NON-NLS-2$
+				null, httpContext, budget);
+	}
+
+	private void awaitRequests(int requests) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10000;
+		while (server.getRequests() < requests) {
+			Assert.assertTrue(System.currentTimeMillis() < deadline);
+			Thread.sleep(10);
+		}
+	}
+
+	private static void awaitCalls(AtomicInteger calls, int count) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10000;
+		while (calls.get() < count) {
+			Assert.assertTrue(System.currentTimeMillis() < deadline);
+			Thread.sleep(10);
+		}
+	}
+
+	/**
+	 * Block the request in flight until the test releases it
+	 */
+	private static void awaitRelease(CountDownLatch release) throws InterruptedIOException {
+		try {
+			release.await();
+		} catch (InterruptedException e) {
+			throw new InterruptedIOException();
+		}
+	}
+
+	/**
+	 * Give the threads started last the time to find the request in flight
+	 * and wait for it
+	 */
+	private static void letWaitersBlock() throws InterruptedException {
+		Thread.sleep(200);
+	}
+}
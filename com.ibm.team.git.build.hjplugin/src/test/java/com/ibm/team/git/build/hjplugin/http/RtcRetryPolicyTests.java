@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.team.git.build.hjplugin.http;
+
+import hudson.util.StreamTaskListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.auth.InvalidCredentialsException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests of {@link RtcRetryPolicy} with the default settings: at most 4
+ * attempts, a base delay of 500 ms and a maximum delay of 10 seconds.
+ */
+public class RtcRetryPolicyTests {
+
+	private static final String URI = "https://rtc.example.com/ccm/resource"; //$NON-NLS-1$
+
+	@Test
+	public void testDelayIsFullJitter() {
+		for (int attempt = 1; attempt <= 10; attempt++) {
+			long cap = Math.min(10000, 500L << (attempt - 1));
+			long max = 0;
+			for (int i = 0; i < 1000; i++) {
+				long delay = RtcRetryPolicy.getDelay(attempt);
+				Assert.assertTrue(delay >= 0 && delay <= cap);
+				max = Math.max(max, delay);
+			}
+			// spread over the whole range, not just around the cap
+			Assert.assertTrue(max > cap / 2);
+		}
+	}
+
+	@Test
+	public void testRetryableErrors() {
+		Assert.assertTrue(RtcRetryPolicy.isRetryable(new RtcHttpStatusException("error", 500))); //$NON-NLS-1$
+		Assert.assertTrue(RtcRetryPolicy.isRetryable(new RtcHttpStatusException("unavailable", 503))); //$NON-NLS-1$
+		Assert.assertTrue(RtcRetryPolicy.isRetryable(new ConnectException("refused"))); //$NON-NLS-1$
+		Assert.assertTrue(RtcRetryPolicy.isRetryable(new SocketTimeoutException()));
+		Assert.assertTrue(RtcRetryPolicy.isRetryable(new NoHttpResponseException("no response"))); //$NON-NLS-1$
+
+		Assert.assertFalse(RtcRetryPolicy.isRetryable(new RtcHttpStatusException("bad request", 400))); //$NON-NLS-1$
+		Assert.assertFalse(RtcRetryPolicy.isRetryable(new RtcHttpStatusException("not found", 404))); //$NON-NLS-1$
+		Assert.assertFalse(RtcRetryPolicy.isRetryable(new RtcServerUnavailableException(URI)));
+		Assert.assertFalse(RtcRetryPolicy.isRetryable(new IOException()));
+	}
+
+	@Test
+	public void testStopsAfterMaxAttempts() throws Exception {
+		AtomicInteger attempts = new AtomicInteger();
+		try {
+			RtcRetryPolicy.execute(URI, null, () -> {
+				attempts.incrementAndGet();
+				throw new RtcHttpStatusException("unavailable", 503); //$NON-NLS-1$
+			});
+			Assert.fail();
+		} catch (RtcHttpStatusException e) {
+			Assert.assertEquals(503, e.getStatusCode());
+		}
+		Assert.assertEquals(4, attempts.get());
+	}
+
+	@Test
+	public void testRetriesUntilSuccess() throws Exception {
+		AtomicInteger attempts = new AtomicInteger();
+		RtcRetryPolicy.Budget budget = new RtcRetryPolicy.Budget(10);
+		String result = RtcRetryPolicy.execute(URI, budget, () -> {
+			if (attempts.incrementAndGet() < 2) {
+				throw new ConnectException("refused"); //$NON-NLS-1$
+			}
+			return "ok"; //$NON-NLS-1$
+		});
+		Assert.assertEquals("ok", result); //$NON-NLS-1$
+		Assert.assertEquals(2, attempts.get());
+		Assert.assertEquals(9, budget.getRemaining());
+	}
+
+	@Test
+	public void testExhaustedBudgetStopsRetries() throws Exception {
+		RtcRetryPolicy.Budget budget = new RtcRetryPolicy.Budget(1);
+		AtomicInteger attempts = new AtomicInteger();
+		for (int i = 0; i < 2; i++) {
+			try {
+				RtcRetryPolicy.execute(URI, budget, () -> {
+					attempts.incrementAndGet();
+					throw new RtcHttpStatusException("unavailable", 503); //$NON-NLS-1$
+				});
+				Assert.fail();
+			} catch (RtcHttpStatusException e) {
+				// expected
+			}
+		}
+		// one retry for the whole build: 2 attempts for the first request,
+		// 1 for the second
+		Assert.assertEquals(3, attempts.get());
+		Assert.assertEquals(0, budget.getRemaining());
+		Assert.assertFalse(budget.tryConsume());
+	}
+
+	@Test
+	public void testClientErrorsAreNotRetried() throws Exception {
+		RtcRetryPolicy.Budget budget = new RtcRetryPolicy.Budget(10);
+		AtomicInteger attempts = new AtomicInteger();
+		try {
+			RtcRetryPolicy.execute(URI, budget, () -> {
+				attempts.incrementAndGet();
+				throw new RtcHttpStatusException("not found", 404); //$NON-NLS-1$
+			});
+			Assert.fail();
+		} catch (RtcHttpStatusException e) {
+			Assert.assertEquals(404, e.getStatusCode());
+		}
+		try {
+			RtcRetryPolicy.execute(URI, budget, () -> {
+				attempts.incrementAndGet();
+				throw new InvalidCredentialsException("rejected"); //$NON-NLS-1$
+			});
+			Assert.fail();
+		} catch (InvalidCredentialsException e) {
+			// expected
+		}
+		Assert.assertEquals(2, attempts.get());
+		Assert.assertEquals(10, budget.getRemaining());
+	}
+
+	@Test
+	public void testFailureReportedOnceRetriesAreExhausted() throws Exception {
+		try (FakeRtcServer server = new FakeRtcServer(FakeRtcServer.Authentication.NONE, "user", "secret")) { //$NON-NLS-1$ //$NON-NLS-2$
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			StreamTaskListener listener = new StreamTaskListener(out, StandardCharsets.UTF_8);
+
+			server.respondWith(503);
+			HttpUtils.performGet(server.getURI(), "retried", "user", "secret", 30, null, listener, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					new RtcRetryPolicy.Budget(10));
+			// the failed attempt was retried, so it is not reported
+			Assert.assertEquals("", out.toString("UTF-8")); //$NON-NLS-1$ //$NON-NLS-2$
+
+			server.respondWith(503, 503);
+			try {
+				HttpUtils.performGet(server.getURI(), "exhausted", "user", "secret", 30, null, listener, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+						new RtcRetryPolicy.Budget(1));
+				Assert.fail();
+			} catch (RtcHttpStatusException e) {
+				Assert.assertEquals(503, e.getStatusCode());
+			}
+			String log = out.toString("UTF-8"); //$NON-NLS-1$
+			Assert.assertEquals(log, 1, log.split("\n").length); //$NON-NLS-1$
+			Assert.assertTrue(log, log.contains(server.getURI() + "exhausted")); //$NON-NLS-1$
+		}
+	}
+}
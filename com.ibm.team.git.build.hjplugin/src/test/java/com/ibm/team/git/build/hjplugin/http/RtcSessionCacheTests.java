@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package com.ibm.team.git.build.hjplugin.http;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.client.AuthCache;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.BasicAuthCache;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.SystemDefaultCredentialsProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RtcSessionCacheTests {
+
+	private static final String SERVER = "https://rtc.example.com:9443/ccm"; //$NON-NLS-1$
+
+	@Test
+	public void testSessionIsShared() {
+		RtcSessionCache cache = new RtcSessionCache();
+		RtcSessionCache.Session session = cache.acquire(SERVER, "user", "secret"); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertSame(session, cache.acquire(SERVER + "/", "user", "secret")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		Assert.assertNotSame(session, cache.acquire(SERVER, "other", "secret")); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertNotSame(session, cache.acquire("https://other.example.com/ccm", "user", "secret")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	@Test
+	public void testNewPasswordStartsNewSession() {
+		RtcSessionCache cache = new RtcSessionCache();
+		RtcSessionCache.Session session = cache.acquire(SERVER, "user", "secret"); //$NON-NLS-1$ //$NON-NLS-2$
+		session.setAuthenticated();
+		RtcSessionCache.Session changed = cache.acquire(SERVER, "user", "changed"); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertNotSame(session, changed);
+		Assert.assertFalse(changed.isAuthenticated());
+		Assert.assertSame(changed, cache.acquire(SERVER, "user", "changed")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void testInvalidateRejectedSession() {
+		RtcSessionCache cache = new RtcSessionCache();
+		RtcSessionCache.Session session = cache.acquire(SERVER, "user", "secret"); //$NON-NLS-1$ //$NON-NLS-2$
+		session.setAuthenticated();
+		cache.invalidate(session);
+		Assert.assertFalse(session.isAuthenticated());
+		RtcSessionCache.Session next = cache.acquire(SERVER, "user", "secret"); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertNotSame(session, next);
+		Assert.assertFalse(next.isAuthenticated());
+	}
+
+	@Test
+	public void testInvalidateStaleSessionKeepsCurrentOne() {
+		RtcSessionCache cache = new RtcSessionCache();
+		RtcSessionCache.Session stale = cache.acquire(SERVER, "user", "secret"); //$NON-NLS-1$ //$NON-NLS-2$
+		RtcSessionCache.Session current = cache.acquire(SERVER, "user", "changed"); //$NON-NLS-1$ //$NON-NLS-2$
+		current.setAuthenticated();
+		// a request of the old session is rejected after the new one logged in
+		cache.invalidate(stale);
+		Assert.assertSame(current, cache.acquire(SERVER, "user", "changed")); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertTrue(current.isAuthenticated());
+	}
+
+	@Test
+	public void testInvalidateByServerAndUser() {
+		RtcSessionCache cache = new RtcSessionCache();
+		RtcSessionCache.Session session = cache.acquire(SERVER, "user", "secret"); //$NON-NLS-1$ //$NON-NLS-2$
+		session.setAuthenticated();
+		cache.invalidate(SERVER + "/", "user"); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertFalse(session.isAuthenticated());
+		Assert.assertNotSame(session, cache.acquire(SERVER, "user", "secret")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void testContextsShareCookiesOnly() {
+		RtcSessionCache cache = new RtcSessionCache();
+		RtcSessionCache.Session session = cache.acquire(SERVER, "user", "secret"); //$NON-NLS-1$ //$NON-NLS-2$
+		HttpClientContext first = session.newContext();
+		HttpClientContext second = session.newContext();
+		Assert.assertNotSame(first, second);
+		Assert.assertSame(first.getCookieStore(), second.getCookieStore());
+		Assert.assertSame(session, first.getAttribute(RtcSessionCache.SESSION_ATTRIBUTE));
+	}
+
+	@Test
+	public void testLeastRecentlyUsedSessionIsEvicted() {
+		AtomicLong now = new AtomicLong(1000);
+		RtcSessionCache cache = new RtcSessionCache(2, now::get);
+		RtcSessionCache.Session first = cache.acquire(SERVER, "first", "secret"); //$NON-NLS-1$ //$NON-NLS-2$
+		now.incrementAndGet();
+		RtcSessionCache.Session second = cache.acquire(SERVER, "second", "secret"); //$NON-NLS-1$ //$NON-NLS-2$
+		now.incrementAndGet();
+		Assert.assertSame(first, cache.acquire(SERVER, "first", "secret")); //$NON-NLS-1$ //$NON-NLS-2$
+		now.incrementAndGet();
+		// none expired, the map is full
+		RtcSessionCache.Session third = cache.acquire(SERVER, "third", "secret"); //$NON-NLS-1$ //$NON-NLS-2$
+		now.incrementAndGet();
+		Assert.assertSame(first, cache.acquire(SERVER, "first", "secret")); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertSame(third, cache.acquire(SERVER, "third", "secret")); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertNotSame(second, cache.acquire(SERVER, "second", "secret")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void testOnlyThreadSafeAuthStateIsShared() {
+		RtcSessionCache cache = new RtcSessionCache();
+		RtcSessionCache.Session session = cache.acquire(SERVER, "user", "secret"); //$NON-NLS-1$ //$NON-NLS-2$
+		HttpClientContext login = session.newContext();
+		AuthCache authCache = new BasicAuthCache();
+		CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+		login.setAuthCache(authCache);
+		login.setCredentialsProvider(credentialsProvider);
+		session.update(login);
+		HttpClientContext request = session.newContext();
+		Assert.assertSame(authCache, request.getAuthCache());
+		Assert.assertSame(credentialsProvider, request.getCredentialsProvider());
+
+		login.setCredentialsProvider(new SystemDefaultCredentialsProvider());
+		session.update(login);
+		Assert.assertNull(session.newContext().getCredentialsProvider());
+	}
+}
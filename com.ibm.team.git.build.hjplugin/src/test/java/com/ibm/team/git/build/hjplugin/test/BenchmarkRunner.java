@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin.test;
+
+import org.junit.Test;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import jenkins.benchmark.jmh.BenchmarkFinder;
+import jenkins.benchmark.jmh.JmhBenchmark;
+
+/**
+ * Runs the JMH benchmarks of the plugin, the classes annotated with
+ * {@link JmhBenchmark}, with the same warmup, measurement and fork settings.
+ * The results are written to <code>target/jmh-report.json</code>.
+ *
+ * Not part of the normal build. Run all benchmarks with
+ * <code>mvn test -Pbenchmark</code>, or only some of them with
+ * <code>mvn test -Pbenchmark -Dbenchmark.include=HelperBenchmark</code> (a
+ * regular expression as understood by JMH).
+ */
+public class BenchmarkRunner {
+
+	@Test
+	public void runJmhBenchmarks() throws Exception {
+		ChainedOptionsBuilder options = new OptionsBuilder()
+				.warmupIterations(3)
+				.warmupTime(TimeValue.seconds(1))
+				.measurementIterations(5)
+				.measurementTime(TimeValue.seconds(1))
+				.forks(1)
+				.shouldFailOnError(true)
+				.resultFormat(ResultFormatType.JSON)
+				.result("target/jmh-report.json"); //$NON-NLS-1$
+		String include = System.getProperty("benchmark.include"); //$NON-NLS-1$
+		if (include != null && !include.isEmpty()) {
+			options.include(include);
+		} else {
+			new BenchmarkFinder(getClass()).findBenchmarks(options);
+		}
+		new Runner(options.build()).run();
+	}
+}
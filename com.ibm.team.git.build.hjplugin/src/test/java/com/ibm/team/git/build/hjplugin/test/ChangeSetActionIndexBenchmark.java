@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.ibm.team.git.build.hjplugin.BuildParameterAction;
+import com.ibm.team.git.build.hjplugin.ChangeSetActionIndex;
+import com.ibm.team.git.build.hjplugin.scm.ChangeSetData;
+import com.ibm.team.git.build.hjplugin.scm.ChangeSetKey;
+
+import jenkins.benchmark.jmh.JmhBenchmark;
+
+/**
+ * Compares finding the action of every entry of a change log by scanning all
+ * the actions with the lookup in a {@link ChangeSetActionIndex}.
+ */
+@JmhBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ChangeSetActionIndexBenchmark {
+
+	@Param({ "10000" })
+	private int entries;
+
+	@Param({ "10" })
+	private int actionCount;
+
+	private List<ChangeSetData> changeLog;
+	private List<BuildParameterAction> actions;
+
+	@Setup
+	public void setup() {
+		changeLog = new ArrayList<ChangeSetData>(entries);
+		for (int i = 0; i < entries; i++) {
+			changeLog.add(new ChangeSetData(String.format("%040x", i), //$NON-NLS-1$
+					"Fix the rendering of the change log, task " + i, "user" + (i % 50))); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		actions = new ArrayList<BuildParameterAction>(actionCount);
+		int perAction = entries / actionCount;
+		for (int a = 0; a < actionCount; a++) {
+			BuildParameterAction action = new BuildParameterAction("creds", 480, "https://rtc:9443/ccm", null, //$NON-NLS-1$ //$NON-NLS-2$
+					false, null, true);
+			ChangeSetKey[] keys = new ChangeSetKey[perAction];
+			for (int i = 0; i < perAction; i++) {
+				keys[i] = changeLog.get(a * perAction + i).getChangeSetKey();
+			}
+			action.setChangeSetKeys(keys);
+			actions.add(action);
+		}
+	}
+
+	@Benchmark
+	public void scanActions(Blackhole blackhole) {
+		for (ChangeSetData csData : changeLog) {
+			BuildParameterAction found = null;
+			for (BuildParameterAction action : actions) {
+				for (ChangeSetKey changeSetKey : action.getChangeSetKeys()) {
+					if (csData.getChangeSetKey().equals(changeSetKey)) {
+						found = action;
+						break;
+					}
+				}
+				if (found != null) {
+					break;
+				}
+			}
+			blackhole.consume(found);
+		}
+	}
+
+	@Benchmark
+	public void index(Blackhole blackhole) {
+		// includes building the index, as on the first page view
+		ChangeSetActionIndex index = new ChangeSetActionIndex(actions);
+		for (ChangeSetData csData : changeLog) {
+			if (!index.isCurrent(actions)) {
+				throw new IllegalStateException();
+			}
+			blackhole.consume(index.get(csData.getChangeSetKey()));
+		}
+	}
+}
@@ -10,12 +10,14 @@
  *******************************************************************************/
 package com.ibm.team.git.build.hjplugin.test;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Assert;
 import org.junit.Test;
 
 import com.ibm.team.git.build.hjplugin.RTCUtils;
+import com.ibm.team.git.build.hjplugin.scm.ChangeSetData;
 
 public class CommiDataTests {
 	
@@ -266,6 +268,57 @@ public class CommiDataTests {
 		Assert.assertTrue(wi[3].equals(result[3]));
 	}
 
+	@Test
+	public void testWorkItemIdsInCommitComment() {
+		int[] result = RTCUtils.getWorkItemIdsFromCommitComment("bug 1, task 2 and bug 1"); //$NON-NLS-1$
+		Assert.assertArrayEquals(new int[] { 1, 2, 1 }, result);
+
+		result = RTCUtils.getWorkItemIdsFromCommitComment(null);
+		Assert.assertEquals(0, result.length);
+	}
+
+	@Test
+	public void testWorkItemSeparatorsInCommitComment() {
+		String[] result = getWorkItemsFromCommitComment("task-1 bug_2 defect:3 workitem=4 wi \t 5"); //$NON-NLS-1$
+		Assert.assertArrayEquals(new String[] { "1", "2", "3", "4", "5" }, result); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+
+		// the keyword must not be part of a word and the id must be a whole number
+		result = getWorkItemsFromCommitComment("debug 1, task 2a, bug.3, task 4."); //$NON-NLS-1$
+		Assert.assertArrayEquals(new String[] { "4" }, result); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testWorkItemWithSpaceInKeywordInCommitComment() {
+		String[] result = getWorkItemsFromCommitComment("work item 1; Work\tItem 2; test plan 3"); //$NON-NLS-1$
+		Assert.assertArrayEquals(new String[] { "1", "2", "3" }, result); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+		// "work item" is a single keyword so it must not be part of a word either
+		result = getWorkItemsFromCommitComment("network item 1"); //$NON-NLS-1$
+		Assert.assertEquals(0, result.length);
+	}
+
+	@Test
+	public void testWorkItemQuotedCommitCommentWithLineBreak() {
+		String[] result = getWorkItemsFromCommitComment("\"fixing bug 12\"\n"); //$NON-NLS-1$
+		Assert.assertArrayEquals(new String[] { "12" }, result); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testWorkItemIdTooLargeInCommitComment() {
+		String[] result = getWorkItemsFromCommitComment("bug 99999999999 and task 2147483647"); //$NON-NLS-1$
+		Assert.assertArrayEquals(new String[] { "2147483647" }, result); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testAllWorkItemsOfCommits() {
+		List<ChangeSetData> commits = Arrays.asList(
+				new ChangeSetData("a1", "bug 3 and task 1", "user"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				new ChangeSetData("a2", "task 1, bug 2", "user"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				new ChangeSetData("a3", null, "user")); //$NON-NLS-1$ //$NON-NLS-2$
+		// without duplicates, in the order they are first mentioned
+		Assert.assertArrayEquals(new String[] { "3", "1", "2" }, RTCUtils.getAllWorkItems(commits)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
 	private String[] getWorkItemsFromCommitComment(String comment) {
 		List<String> wiList = RTCUtils.getWorkItemsFromCommitComment(comment);
 		if(wiList != null) {
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin.test;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.ibm.team.git.build.hjplugin.scm.GitScmUtils;
+
+import hudson.model.User;
+import hudson.scm.ChangeLogSet;
+
+import jenkins.benchmark.jmh.JmhBenchmark;
+
+/**
+ * Compares reading the comment of every entry of a change log through a
+ * reflective lookup per entry, as GitScmUtils used to, with the handles
+ * cached per class by {@link GitScmUtils}.
+ */
+@JmhBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GitScmUtilsBenchmark {
+
+	/**
+	 * A change log entry with a getComment() method like GitChangeSet
+	 */
+	public static class Change extends ChangeLogSet.Entry {
+		private final String comment;
+
+		Change(String comment) {
+			this.comment = comment;
+		}
+
+		public String getComment() {
+			return comment;
+		}
+
+		@Override
+		public String getMsg() {
+			return comment;
+		}
+
+		@Override
+		public User getAuthor() {
+			return null;
+		}
+
+		@Override
+		public Collection<String> getAffectedPaths() {
+			return Collections.emptyList();
+		}
+	}
+
+	@Param({ "50000" })
+	private int entries;
+
+	private ChangeLogSet.Entry[] changeLog;
+
+	@Setup
+	public void setup() {
+		changeLog = new ChangeLogSet.Entry[entries];
+		for (int i = 0; i < entries; i++) {
+			changeLog[i] = new Change("Fix the rendering of the change log, task " + i); //$NON-NLS-1$
+		}
+	}
+
+	@Benchmark
+	public void reflection(Blackhole blackhole) throws Exception {
+		for (ChangeLogSet.Entry entry : changeLog) {
+			blackhole.consume(entry.getClass().getName().equals(GitScmUtils.GIT_CHANGELOGSET_ENTRY_CLASS_NAME));
+			blackhole.consume(entry.getClass().getMethod("getComment").invoke(entry)); //$NON-NLS-1$
+		}
+	}
+
+	@Benchmark
+	public void cachedHandles(Blackhole blackhole) throws Exception {
+		for (ChangeLogSet.Entry entry : changeLog) {
+			blackhole.consume(GitScmUtils.isGitScmChangeLogSetEntry(entry));
+			blackhole.consume(GitScmUtils.getComment(entry));
+		}
+	}
+}
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.ibm.team.git.build.hjplugin.util.Helper;
+import com.ibm.team.git.build.hjplugin.util.RTCHttpConstants;
+
+import hudson.model.Cause;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.ParameterDefinition;
+import hudson.model.ParameterValue;
+import hudson.model.ParametersAction;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.StringParameterDefinition;
+import hudson.model.StringParameterValue;
+import hudson.model.TaskListener;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import jenkins.benchmark.jmh.JmhBenchmarkState;
+
+/**
+ * Compares the lookups {@link Helper} does for one RTCGitBuilder step (the
+ * build result UUID parameter and the track build work item) on a build of a
+ * job with many parameters, resolving the environment of the build for each
+ * lookup or once for the step.
+ */
+@JmhBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HelperBenchmark {
+
+	public static class JobWithManyParameters extends JmhBenchmarkState {
+
+		@Param({ "10", "500" })
+		private int parameters;
+
+		private FreeStyleBuild build;
+
+		@Override
+		public void setup() throws Exception {
+			List<ParameterDefinition> definitions = new ArrayList<ParameterDefinition>(parameters);
+			List<ParameterValue> values = new ArrayList<ParameterValue>(parameters);
+			for (int i = 0; i < parameters; i++) {
+				definitions.add(new StringParameterDefinition("PARAMETER_" + i, "")); //$NON-NLS-1$ //$NON-NLS-2$
+				values.add(new StringParameterValue("PARAMETER_" + i, "value " + i)); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			definitions.add(new StringParameterDefinition("trackBuildWorkItem", "")); //$NON-NLS-1$ //$NON-NLS-2$
+			values.add(new StringParameterValue("trackBuildWorkItem", "1234")); //$NON-NLS-1$ //$NON-NLS-2$
+			FreeStyleProject project = getJenkins().createProject(FreeStyleProject.class, "many-parameters"); //$NON-NLS-1$
+			project.addProperty(new ParametersDefinitionProperty(definitions));
+			build = project.scheduleBuild2(0, new Cause.UserIdCause(), new ParametersAction(values)).get();
+		}
+	}
+
+	@Benchmark
+	public void environmentPerLookup(JobWithManyParameters state, Blackhole blackhole) throws Exception {
+		lookup(state, blackhole);
+	}
+
+	@Benchmark
+	public void environmentPerStep(JobWithManyParameters state, Blackhole blackhole) throws Exception {
+		try (Helper.MemoizedEnvironment environment = Helper.memoizeEnvironment(state.build)) {
+			lookup(state, blackhole);
+		}
+	}
+
+	private static void lookup(JobWithManyParameters state, Blackhole blackhole) throws Exception {
+		blackhole.consume(Helper.getStringBuildParameter(state.build, RTCHttpConstants.BUILD_RESULT_UUID,
+				TaskListener.NULL));
+		blackhole.consume(Helper.resolveFieldParameterToValue(state.build, "${trackBuildWorkItem}", //$NON-NLS-1$
+				TaskListener.NULL));
+	}
+}
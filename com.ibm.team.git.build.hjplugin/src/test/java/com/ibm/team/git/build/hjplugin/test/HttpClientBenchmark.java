@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin.test;
+
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.ibm.team.git.build.hjplugin.http.HttpUtils;
+
+import jenkins.benchmark.jmh.JmhBenchmark;
+
+/**
+ * Compares getting the http client of an RTC server from many threads
+ * through the lock free lookup of {@link HttpUtils#getClient(String)} with
+ * getting it while holding a class-wide lock, as HttpUtils used to.
+ */
+@JmhBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HttpClientBenchmark {
+
+	private static final String SERVER_URI = "https://rtc.example.com:9443/ccm"; //$NON-NLS-1$
+
+	@Setup
+	public void setup() throws GeneralSecurityException {
+		// the client is created once, the benchmarks measure its lookup
+		HttpUtils.getClient(SERVER_URI);
+	}
+
+	@Benchmark
+	@Threads(8)
+	public CloseableHttpClient lockFree() throws GeneralSecurityException {
+		return HttpUtils.getClient(SERVER_URI);
+	}
+
+	@Benchmark
+	@Threads(8)
+	public CloseableHttpClient synchronizedBaseline() throws GeneralSecurityException {
+		return getClientSynchronized(SERVER_URI);
+	}
+
+	private static synchronized CloseableHttpClient getClientSynchronized(String serverURI)
+			throws GeneralSecurityException {
+		return HttpUtils.getClient(serverURI);
+	}
+}
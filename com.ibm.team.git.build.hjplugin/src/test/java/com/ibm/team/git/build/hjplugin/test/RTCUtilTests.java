@@ -10,11 +10,16 @@
 package com.ibm.team.git.build.hjplugin.test;
 
 import java.io.IOException;
+import java.io.StringReader;
 
 import org.junit.Assert;
 import org.junit.Test;
 
 import com.ibm.team.git.build.hjplugin.RTCUtils;
+import com.ibm.team.git.build.hjplugin.RtcJsonUtil;
+
+import net.sf.json.JSON;
+import net.sf.json.JSONObject;
 
 public class RTCUtilTests {
 
@@ -142,4 +147,34 @@ public class RTCUtilTests {
 		Assert.assertTrue("CL".equals(RTCUtils.getWiMode("withCommentAndLink")));
 		Assert.assertTrue("CL".equals(RTCUtils.getWiMode("WITHCommentANDLINK")));
 	}
+	
+	@Test
+	public void testReadJsonKeepsUsedFields() throws IOException {
+		String response = "{\"soapenv:Body\":{\"response\":{\"method\":\"getWorkItemDetails\","
+				+ "\"trace\":[{\"value\":\"x\"},\"}]\"],"
+				+ "\"returnValue\":{\"type\":\"STRING\",\"values\":[\"12: Fix it\",\"13: Test \\\"it\\\"\"]}}}}";
+		JSON json = RtcJsonUtil.readJson(new StringReader(response), 1024);
+		String[] values = RtcJsonUtil.getReturnValues(json);
+		Assert.assertArrayEquals(new String[] {"12: Fix it", "13: Test \"it\""}, values);
+		JSONObject responseJson = RtcJsonUtil.getResponseJson(json);
+		Assert.assertFalse(responseJson.containsKey("method"));
+		Assert.assertFalse(responseJson.containsKey("trace"));
+		Assert.assertFalse(RtcJsonUtil.getResultJson(json).containsKey("type"));
+	}
+
+	@Test
+	public void testReadJsonCompatibility() throws IOException {
+		String response = "{ \"compatible\" : false, \"isJTS\" : false, \"serverVersion\" : \"7.0.2\", "
+				+ "\"message\" : \"Upgrade\", \"uri\" : \"https://example.com\", \"other\" : { \"a\" : [1, 2] } }";
+		JSON json = RtcJsonUtil.readJson(new StringReader(response), 1024);
+		Assert.assertEquals(Boolean.FALSE, RtcJsonUtil.getBoolean(json, RtcJsonUtil.JSON_PROP_COMPATIBLE));
+		Assert.assertEquals("7.0.2", RtcJsonUtil.getString(json, RtcJsonUtil.JSON_PROP_SERVER_VERSION));
+		Assert.assertFalse(((JSONObject) json).containsKey("other"));
+	}
+
+	@Test(expected = IOException.class)
+	public void testReadJsonTooLarge() throws IOException {
+		String response = "{\"id\":\"0123456789012345678901234567890123456789\"}";
+		RtcJsonUtil.readJson(new StringReader(response), 32);
+	}
 }
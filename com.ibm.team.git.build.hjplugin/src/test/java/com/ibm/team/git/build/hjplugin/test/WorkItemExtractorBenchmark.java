@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.ibm.team.git.build.hjplugin.RTCUtils;
+
+import jenkins.benchmark.jmh.JmhBenchmark;
+
+/**
+ * Compares the work item extraction with the regular expression it replaced,
+ * on a set of typical commit comments.
+ */
+@JmhBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WorkItemExtractorBenchmark {
+
+	private static final List<String> KEYS = Arrays.asList("bug", "task", "defect", "workitem", "rtcwi", "wi", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+			"work item", "work-item", "item", "issue", "feature", "ewm", "story", "epic", "testplan", "test plan", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$
+			"test-plan", "ccb"); //$NON-NLS-1$ //$NON-NLS-2$
+
+	private String[] comments;
+
+	@Setup
+	public void setup() {
+		List<String> list = new ArrayList<String>();
+		for (int i = 0; i < 1000; i++) {
+			switch (i % 4) {
+			case 0:
+				list.add("Fix the null pointer in the parser, bug " + i); //$NON-NLS-1$
+				break;
+			case 1:
+				list.add("Merge branch 'feature/" + i + "' into main\n\n* task " + i + ": refactor\n* work item " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+						+ (i + 1) + " done"); //$NON-NLS-1$
+				break;
+			case 2:
+				list.add("Update the documentation and bump the version of the dependencies"); //$NON-NLS-1$
+				break;
+			default:
+				list.add("\"defect-" + i + "; story " + (i * 7) + "\""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				break;
+			}
+		}
+		comments = list.toArray(new String[0]);
+	}
+
+	@Benchmark
+	public void regex(Blackhole blackhole) {
+		for (String comment : comments) {
+			blackhole.consume(getWorkItemsWithRegex(comment));
+		}
+	}
+
+	@Benchmark
+	public void extractor(Blackhole blackhole) {
+		for (String comment : comments) {
+			blackhole.consume(RTCUtils.getWorkItemIdsFromCommitComment(comment));
+		}
+	}
+
+	/**
+	 * The implementation before the work item extractor
+	 */
+	private static List<String> getWorkItemsWithRegex(String comment) {
+		List<String> wiList = new ArrayList<String>();
+		comment = comment.replaceAll("^\"|\"$", ""); //$NON-NLS-1$ //$NON-NLS-2$
+		comment = comment.replaceAll("[\t\n\r]", " "); //$NON-NLS-1$ //$NON-NLS-2$
+		comment = comment.replaceAll("[Ww][Oo][Rr][Kk] [Ii][Tt][Ee][Mm]", "workitem"); //$NON-NLS-1$ //$NON-NLS-2$
+		String pattern = "(?<=-|=|:|\\s|_|\\.|,|;|^)(?:" + String.join("|", KEYS) + ")" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ "(?:-|_|:|=|\\s+)(\\d+)(?:-|=|:|\\s|_|\\.|,|;|$)"; //$NON-NLS-1$
+		Matcher matcher = Pattern.compile(pattern, Pattern.CASE_INSENSITIVE).matcher(comment);
+		while (matcher.find()) {
+			try {
+				Integer.parseInt(matcher.group(1));
+				wiList.add(matcher.group(1));
+			} catch (NumberFormatException e) {
+				// ignored like before
+			}
+		}
+		return wiList;
+	}
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin.test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.ibm.team.git.build.hjplugin.util.WorkItemExtractor;
+import com.ibm.team.git.build.hjplugin.util.WorkItemIdCollector;
+
+import jenkins.benchmark.jmh.JmhBenchmark;
+
+/**
+ * Compares collecting the work item ids of change logs of increasing size on
+ * the calling thread with collecting them in parallel, to find the commit
+ * count from which the parallel scan pays off (the default of the
+ * <code>WorkItemIdCollector.parallelThreshold</code> property).
+ */
+@JmhBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WorkItemIdCollectorBenchmark {
+
+	private static final WorkItemExtractor EXTRACTOR = new WorkItemExtractor(Arrays.asList("bug", "task", "defect", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			"workitem", "work item", "story")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+	@Param({ "1000", "5000", "20000", "50000", "100000" })
+	private int commits;
+
+	private String[] comments;
+
+	@Setup
+	public void setup() {
+		comments = new String[commits];
+		for (int i = 0; i < commits; i++) {
+			if (i % 3 == 0) {
+				comments[i] = "Update the documentation and bump the version of the dependencies"; //$NON-NLS-1$
+			} else {
+				comments[i] = "Merge branch 'feature/" + i + "' into main\n\n* task " + (i % 5000) //$NON-NLS-1$ //$NON-NLS-2$
+						+ ": refactor the parser\n* work item " + (i % 7000) + " done"; //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+	}
+
+	@Benchmark
+	public int[] sequential() {
+		return collect(new WorkItemIdCollector(EXTRACTOR, Integer.MAX_VALUE));
+	}
+
+	@Benchmark
+	public int[] parallel() {
+		return collect(new WorkItemIdCollector(EXTRACTOR, 0));
+	}
+
+	private int[] collect(WorkItemIdCollector collector) {
+		for (String comment : comments) {
+			collector.add(comment);
+		}
+		return collector.getIds();
+	}
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package com.ibm.team.git.build.hjplugin.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WorkItemIdCacheTests {
+
+	private static final WorkItemExtractor EXTRACTOR = new WorkItemExtractor(Arrays.asList("bug", "task")); //$NON-NLS-1$ //$NON-NLS-2$
+
+	private static List<Integer> extract(WorkItemIdCache cache, String commitId, String comment) {
+		List<Integer> ids = new ArrayList<Integer>();
+		cache.extract(commitId, comment, ids::add);
+		return ids;
+	}
+
+	@Test
+	public void testIdsAreCachedByCommit() {
+		WorkItemIdCache cache = new WorkItemIdCache(EXTRACTOR, 10);
+		Assert.assertEquals(Arrays.asList(12, 34, 12), extract(cache, "a1", "task 12, bug 34 and task 12")); //$NON-NLS-1$ //$NON-NLS-2$
+		// the comment of a cached commit is not scanned again
+		Assert.assertEquals(Arrays.asList(12, 34, 12), extract(cache, "a1", "bug 56")); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testCommitWithoutIdsIsCached() {
+		WorkItemIdCache cache = new WorkItemIdCache(EXTRACTOR, 10);
+		Assert.assertEquals(Arrays.asList(), extract(cache, "a1", "no work item")); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertEquals(Arrays.asList(), extract(cache, "a1", "bug 56")); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedCommitIsEvicted() {
+		WorkItemIdCache cache = new WorkItemIdCache(EXTRACTOR, 2, 1);
+		extract(cache, "a1", "task 1"); //$NON-NLS-1$ //$NON-NLS-2$
+		extract(cache, "a2", "task 2"); //$NON-NLS-1$ //$NON-NLS-2$
+		// a1 is used again, so a2 is the least recently used one
+		extract(cache, "a1", "task 1"); //$NON-NLS-1$ //$NON-NLS-2$
+		extract(cache, "a3", "task 3"); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertEquals(2, cache.size());
+		Assert.assertEquals(Arrays.asList(1), extract(cache, "a1", "task 100")); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertEquals(Arrays.asList(3), extract(cache, "a3", "task 300")); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertEquals(Arrays.asList(200), extract(cache, "a2", "task 200")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void testSegmentsHoldAtMostMaxEntries() {
+		for (int maxEntries : new int[] {1, 5, 16, 17, 100}) {
+			WorkItemIdCache cache = new WorkItemIdCache(EXTRACTOR, maxEntries);
+			for (int i = 0; i < 1000; i++) {
+				extract(cache, "commit" + i, "task " + i); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			Assert.assertTrue(cache.size() <= maxEntries);
+			// evicted from the full segments only
+			Assert.assertTrue(cache.size() > maxEntries / 2);
+		}
+	}
+
+	@Test
+	public void testMaxEntriesZeroTurnsCacheOff() {
+		WorkItemIdCache cache = new WorkItemIdCache(EXTRACTOR, 0);
+		Assert.assertEquals(Arrays.asList(1), extract(cache, "a1", "task 1")); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertEquals(Arrays.asList(2), extract(cache, "a1", "task 2")); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testNullCommitIdIsNotCached() {
+		WorkItemIdCache cache = new WorkItemIdCache(EXTRACTOR, 10);
+		Assert.assertEquals(Arrays.asList(1), extract(cache, null, "task 1")); //$NON-NLS-1$
+		Assert.assertEquals(Arrays.asList(2), extract(cache, null, "task 2")); //$NON-NLS-1$
+		Assert.assertEquals(Arrays.asList(), extract(cache, null, null));
+		Assert.assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testClear() {
+		WorkItemIdCache cache = new WorkItemIdCache(EXTRACTOR, 100);
+		for (int i = 0; i < 50; i++) {
+			extract(cache, "commit" + i, "task " + i); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		cache.clear();
+		Assert.assertEquals(0, cache.size());
+		Assert.assertEquals(Arrays.asList(7), extract(cache, "commit1", "task 7")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void testConcurrentExtraction() throws Exception {
+		final WorkItemIdCache cache = new WorkItemIdCache(EXTRACTOR, 500);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (int t = 0; t < 8; t++) {
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						for (int i = 0; i < 20000; i++) {
+							int commit = i % 1000;
+							// every thread sees the ids of the commit, cached
+							// by itself or another thread or not at all
+							Assert.assertEquals(Arrays.asList(commit, commit + 1),
+									extract(cache, "commit" + commit, "task " + commit + ", bug " + (commit + 1))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		Assert.assertTrue(cache.size() <= 500);
+	}
+}